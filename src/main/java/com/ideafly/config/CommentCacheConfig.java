@@ -0,0 +1,24 @@
+package com.ideafly.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 评论首页缓存配置
+ */
+@Configuration
+@ConfigurationProperties(prefix = "comment.cache")
+@Data
+public class CommentCacheConfig {
+    // 是否缓存父评论首页和子评论首页
+    private boolean enabled = true;
+    // 缓存过期时间(毫秒)，发表评论时通过版本号立即失效
+    private long ttlMillis = 60 * 1000L;
+    // 版本号过期时间(毫秒)，需大于缓存过期时间，每次发表评论时续期
+    private long versionExpireMillis = 24 * 60 * 60 * 1000L;
+    // 回源锁过期时间(毫秒)，同一页只有一个请求查库
+    private long lockExpireMillis = 3000;
+    // 未拿到回源锁时等待缓存写入的最长时间(毫秒)，超时后直接查库
+    private long lockWaitMillis = 200;
+}
@@ -0,0 +1,20 @@
+package com.ideafly.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 评论计数修正配置
+ */
+@Configuration
+@ConfigurationProperties(prefix = "comment.count")
+@Data
+public class CommentCountConfig {
+    // 定时用实际数据修正子评论数和职位评论数的cron表达式
+    private String reconcileCron = "0 0 4 * * ?";
+    // 每批修正的ID区间大小
+    private int batchSize = 5000;
+    // 修正任务锁过期时间(毫秒)，多节点只有持锁节点执行
+    private long lockExpireMillis = 30 * 60 * 1000L;
+}
@@ -0,0 +1,20 @@
+package com.ideafly.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 评论分页配置
+ */
+@Configuration
+@ConfigurationProperties(prefix = "comment.page")
+@Data
+public class CommentPageConfig {
+    // 父评论/子评论每页最大条数，超过时按最大值查询
+    private int maxPageSize = 50;
+    // 流式加载全部子评论时每批查询和组装的条数
+    private int streamChunkSize = 100;
+    // 流式加载单个父评论下最多返回的子评论数
+    private int streamMaxReplies = 5000;
+}
@@ -0,0 +1,33 @@
+package com.ideafly.config;
+
+import com.ideafly.utils.CursorUtils;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import javax.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 分页游标签名配置
+ */
+@Configuration
+@ConfigurationProperties(prefix = "cursor")
+@Data
+@Slf4j
+public class CursorSigningConfig {
+    // 游标HMAC签名密钥，为空时生成不签名的游标
+    private String hmacSecret;
+
+    @PostConstruct
+    public void init() {
+        if (StringUtils.isBlank(hmacSecret)) {
+            CursorUtils.setSigningKey(null);
+            return;
+        }
+        CursorUtils.setSigningKey(hmacSecret.getBytes(StandardCharsets.UTF_8));
+        log.info("分页游标已启用HMAC签名");
+    }
+}
@@ -0,0 +1,24 @@
+package com.ideafly.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 用户收藏列表窗口缓存配置
+ */
+@Configuration
+@ConfigurationProperties(prefix = "interact.favorites-window")
+@Data
+public class FavoritesWindowConfig {
+    // 是否缓存用户已加载的收藏列表窗口
+    private boolean enabled = true;
+    // 窗口保存在Redis中（多节点共享），关闭时保存在本地缓存
+    private boolean redisEnabled = true;
+    // 本地缓存的用户数
+    private int localMaxUsers = 10000;
+    // 窗口过期时间(毫秒)
+    private long ttlMillis = 10 * 60 * 1000L;
+    // 每个用户窗口最多保留的职位数
+    private int maxItems = 200;
+}
@@ -0,0 +1,37 @@
+package com.ideafly.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * 列表数据组装（用户信息、计数、点赞/收藏状态）并发查询线程池配置
+ */
+@Configuration
+@ConfigurationProperties(prefix = "feed.hydration")
+@Data
+public class FeedHydrationConfig {
+    private int corePoolSize = 8;
+    private int maxPoolSize = 16;
+    private int queueCapacity = 200;
+    // 单个查询阶段的超时时间(毫秒)，超时后该阶段按默认值降级
+    private long stageTimeoutMillis = 800;
+
+    @Bean("feedHydrationExecutor")
+    public ThreadPoolTaskExecutor feedHydrationExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(corePoolSize);
+        executor.setMaxPoolSize(maxPoolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("feed-hydrate-");
+        // 队列满时由请求线程自己执行，退化为串行而不是丢弃
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,38 @@
+package com.ideafly.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * 关注流时间线（写扩散）配置
+ */
+@Configuration
+@ConfigurationProperties(prefix = "feed.timeline")
+@Data
+public class FollowingTimelineConfig {
+    // 每个用户时间线保留的最大条数，更早的内容回源数据库
+    private int capacity = 800;
+    // 粉丝数超过该值的作者不做写扩散，改为读时拉取
+    private int fanoutThreshold = 5000;
+    // 时间线过期时间(毫秒)，过期后下次读取时从数据库重建
+    private long expireMillis = 7 * 24 * 60 * 60 * 1000L;
+
+    @Bean("timelineFanoutExecutor")
+    public ThreadPoolTaskExecutor timelineFanoutExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(4);
+        executor.setQueueCapacity(1000);
+        executor.setThreadNamePrefix("timeline-fanout-");
+        // 队列满时由发布线程自己执行，保证时间线不丢内容
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.initialize();
+        return executor;
+    }
+}
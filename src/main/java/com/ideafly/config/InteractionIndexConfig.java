@@ -0,0 +1,26 @@
+package com.ideafly.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 用户点赞/收藏索引配置
+ */
+@Configuration
+@ConfigurationProperties(prefix = "interact.index")
+@Data
+public class InteractionIndexConfig {
+    // 是否使用索引判断点赞/收藏状态，关闭时直接查表
+    private boolean enabled = true;
+    // 本地缓存的用户索引个数
+    private int localMaxSize = 10000;
+    // 本地缓存过期时间(毫秒)，其他节点的变更通知丢失时以此兜底
+    private long localTtlMillis = 5 * 60 * 1000L;
+    // Redis中用户索引的过期时间(毫秒)，每次重建时续期
+    private long expireMillis = 7 * 24 * 60 * 60 * 1000L;
+    // 定时从数据表重建已有索引的cron表达式
+    private String rebuildCron = "0 30 4 * * ?";
+    // 索引变更通知频道
+    private String channel = "interact:index:channel";
+}
@@ -0,0 +1,24 @@
+package com.ideafly.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 职位存在性索引配置
+ */
+@Configuration
+@ConfigurationProperties(prefix = "feed.existence")
+@Data
+public class JobExistenceConfig {
+    // 定时核对的cron表达式：位图版本号未变时跳过；变化时核对Redis位图与职位表行数，不一致时重建位图，再替换本地索引
+    private String checkCron = "0 */10 * * * ?";
+    // 重建锁过期时间(毫秒)，多节点只有持锁节点重建
+    private long lockExpireMillis = 10 * 60 * 1000L;
+    // 本地缓存的不存在职位ID个数，避免对同一个不存在的ID反复查库
+    private int negativeCacheSize = 10000;
+    // 不存在职位ID的本地缓存时间(毫秒)
+    private long negativeTtlMillis = 60 * 1000L;
+    // 最近删除的职位ID保留时间(毫秒)，本地命中这些ID时回查数据库；应大于核对间隔，覆盖同步消息丢失到下次重新加载的窗口
+    private long deletedRetentionMillis = 30 * 60 * 1000L;
+}
@@ -0,0 +1,148 @@
+package com.ideafly.config;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.ideafly.mapper.QueryPlanMapper;
+import com.ideafly.model.Jobs;
+import com.ideafly.model.interact.ChildComment;
+import com.ideafly.model.interact.JobFavorite;
+import com.ideafly.model.interact.JobLikes;
+import com.ideafly.model.interact.ParentComment;
+import com.ideafly.model.users.UserFollow;
+import com.ideafly.utils.CursorUtils;
+import com.ideafly.utils.KeysetPagination;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 游标查询索引检查
+ * 启动后异步检查复合索引是否存在（缺失时提示执行 migration/001_keyset_composite_indexes.sql），
+ * 并对各游标查询的条件构造器执行EXPLAIN，出现全表扫描或filesort时告警；数据库不可用时直接跳过
+ */
+@Component
+@Slf4j
+public class KeysetIndexAdvisor {
+
+    private static final String SAMPLE_USER_ID = "00000000-0000-0000-0000-000000000000";
+
+    // 实体(表) -> 游标查询依赖的复合索引
+    private static final Map<Class<?>, List<String>> REQUIRED_INDEXES = new LinkedHashMap<>();
+
+    static {
+        REQUIRED_INDEXES.put(Jobs.class, Arrays.asList("idx_created_at_id", "idx_user_created_at_id"));
+        REQUIRED_INDEXES.put(ParentComment.class, Collections.singletonList("idx_job_parent_created_at_id"));
+        REQUIRED_INDEXES.put(JobLikes.class, Collections.singletonList("idx_user_status_created_at"));
+        REQUIRED_INDEXES.put(JobFavorite.class, Collections.singletonList("idx_user_status_created_at"));
+        REQUIRED_INDEXES.put(UserFollow.class, Arrays.asList("idx_follower_status", "idx_followed_status"));
+    }
+
+    @Resource
+    private QueryPlanMapper queryPlanMapper;
+
+    @Value("${schema.index-advisor.enabled:true}")
+    private boolean enabled;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!enabled) {
+            return;
+        }
+        CompletableFuture.runAsync(() -> {
+            try {
+                checkIndexes();
+                checkQueryPlans();
+            } catch (Exception e) {
+                log.warn("游标查询索引检查跳过（数据库不可用）: {}", e.getMessage());
+            }
+        });
+    }
+
+    private void checkIndexes() {
+        REQUIRED_INDEXES.forEach((entityClass, indexNames) -> {
+            String table = tableName(entityClass);
+            Set<String> existing = new HashSet<>(queryPlanMapper.listIndexNames(table));
+            for (String indexName : indexNames) {
+                if (!existing.contains(indexName)) {
+                    log.warn("【索引检查】表 {} 缺少游标分页复合索引 {}，请执行 migration/001_keyset_composite_indexes.sql", table, indexName);
+                }
+            }
+        });
+    }
+
+    private void checkQueryPlans() {
+        // 使用与业务查询相同的游标条件构造
+        String cursor = CursorUtils.encodeCursor(LocalDateTime.now(), Integer.MAX_VALUE);
+
+        // 首页职位流
+        explain("首页职位流", Jobs.class, KeysetPagination.of(Jobs::getCreatedAt, Jobs::getId, cursor, 20)
+                .apply(new LambdaQueryWrapper<>()));
+
+        // 用户作品
+        explain("用户作品", Jobs.class, KeysetPagination.of(Jobs::getCreatedAt, Jobs::getId, cursor, 20)
+                .apply(new LambdaQueryWrapper<Jobs>().eq(Jobs::getUserId, SAMPLE_USER_ID)));
+
+        // 父评论
+        explain("父评论", ParentComment.class, KeysetPagination.of(ParentComment::getCreatedAt, ParentComment::getId, cursor, 10)
+                .apply(new LambdaQueryWrapper<ParentComment>()
+                        .eq(ParentComment::getJobId, 1)
+                        .eq(ParentComment::getParentCommentId, 0)));
+
+        // 子评论
+        explain("子评论", ChildComment.class, KeysetPagination.of(ChildComment::getCreatedAt, ChildComment::getId, cursor, 2)
+                .apply(new LambdaQueryWrapper<ChildComment>()
+                        .eq(ChildComment::getJobId, 1)
+                        .eq(ChildComment::getParentCommentId, 1)));
+
+        // 用户点赞列表
+        explain("用户点赞列表", JobLikes.class, KeysetPagination.of(JobLikes::getCreatedAt, JobLikes::getId, cursor, 20)
+                .apply(new LambdaQueryWrapper<JobLikes>()
+                        .eq(JobLikes::getUserId, SAMPLE_USER_ID)
+                        .eq(JobLikes::getStatus, 1)));
+
+        // 用户收藏列表
+        explain("用户收藏列表", JobFavorite.class, KeysetPagination.of(JobFavorite::getCreatedAt, JobFavorite::getId, cursor, 20)
+                .apply(new LambdaQueryWrapper<JobFavorite>()
+                        .eq(JobFavorite::getUserId, SAMPLE_USER_ID)
+                        .eq(JobFavorite::getStatus, 1)));
+
+        // 关注列表
+        explain("关注列表", UserFollow.class, new LambdaQueryWrapper<UserFollow>()
+                .eq(UserFollow::getFollowerId, SAMPLE_USER_ID)
+                .eq(UserFollow::getStatus, 1));
+
+        // 粉丝列表
+        explain("粉丝列表", UserFollow.class, new LambdaQueryWrapper<UserFollow>()
+                .eq(UserFollow::getFollowedId, SAMPLE_USER_ID)
+                .eq(UserFollow::getStatus, 1));
+    }
+
+    private void explain(String queryName, Class<?> entityClass, LambdaQueryWrapper<?> wrapper) {
+        String table = tableName(entityClass);
+        try {
+            for (Map<String, Object> row : queryPlanMapper.explain(table, wrapper)) {
+                String type = String.valueOf(row.get("type"));
+                String extra = String.valueOf(row.get("Extra"));
+                if ("ALL".equalsIgnoreCase(type) || extra.contains("Using filesort")) {
+                    log.warn("【索引检查】{}查询未能使用索引 - 表: {}, type: {}, key: {}, Extra: {}",
+                            queryName, table, type, row.get("key"), extra);
+                } else {
+                    log.info("【索引检查】{}查询执行计划正常 - 表: {}, type: {}, key: {}", queryName, table, type, row.get("key"));
+                }
+            }
+        } catch (Exception e) {
+            log.warn("【索引检查】{}查询EXPLAIN失败: {}", queryName, e.getMessage());
+        }
+    }
+
+    private String tableName(Class<?> entityClass) {
+        return TableInfoHelper.getTableInfo(entityClass).getTableName();
+    }
+}
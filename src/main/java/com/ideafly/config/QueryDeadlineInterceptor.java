@@ -0,0 +1,58 @@
+package com.ideafly.config;
+
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.function.Supplier;
+
+/**
+ * SQL截止时间
+ * 在当前线程设置截止时间后，该线程执行的SQL按剩余时间设置语句超时（JDBC以秒为单位，至少1秒），
+ * 超时由数据库驱动终止查询，避免已降级的查询继续占用线程和数据库连接
+ */
+@Component
+@Intercepts(@Signature(type = StatementHandler.class, method = "prepare", args = {Connection.class, Integer.class}))
+public class QueryDeadlineInterceptor implements Interceptor {
+
+    private static final ThreadLocal<Long> DEADLINE = new ThreadLocal<>();
+
+    /**
+     * 在截止时间内执行，期间的SQL都带语句超时
+     *
+     * @param deadlineMillis 截止时间(毫秒时间戳)
+     */
+    public static <T> T callWithDeadline(long deadlineMillis, Supplier<T> supplier) {
+        Long previous = DEADLINE.get();
+        DEADLINE.set(deadlineMillis);
+        try {
+            return supplier.get();
+        } finally {
+            if (previous == null) {
+                DEADLINE.remove();
+            } else {
+                DEADLINE.set(previous);
+            }
+        }
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        Object result = invocation.proceed();
+        Long deadline = DEADLINE.get();
+        if (deadline != null && result instanceof Statement) {
+            Statement statement = (Statement) result;
+            long remaining = deadline - System.currentTimeMillis();
+            int seconds = (int) Math.max(1, (remaining + 999) / 1000);
+            if (statement.getQueryTimeout() == 0 || seconds < statement.getQueryTimeout()) {
+                statement.setQueryTimeout(seconds);
+            }
+        }
+        return result;
+    }
+}
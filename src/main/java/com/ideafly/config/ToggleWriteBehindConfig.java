@@ -0,0 +1,24 @@
+package com.ideafly.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 点赞/收藏异步写回配置
+ */
+@Configuration
+@ConfigurationProperties(prefix = "interact.write-behind")
+@Data
+public class ToggleWriteBehindConfig {
+    // 是否启用异步写回，关闭时点赞/收藏同步写库
+    private boolean enabled = true;
+    // 写回间隔(毫秒)，同一用户对同一职位在间隔内的多次操作合并为一次写入
+    private long flushIntervalMillis = 1000;
+    // 每批从流中读取并写回的最大记录数
+    private int batchSize = 500;
+    // 写回锁过期时间(毫秒)，多节点只有持锁节点写回
+    private long lockExpireMillis = 30000;
+    // 待写状态hash的过期时间(毫秒)，每次写入时续期；写回长时间中断时残留的待写状态到期后不再覆盖数据库状态
+    private long pendingExpireMillis = 60 * 60 * 1000L;
+}
@@ -0,0 +1,23 @@
+package com.ideafly.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * refreshToken黑名单配置
+ */
+@Configuration
+@ConfigurationProperties(prefix = "jwt.blacklist")
+@Data
+public class TokenBlacklistConfig {
+    // 过期条目清理及本地副本全量同步间隔(毫秒)
+    private long compactIntervalMillis = 60 * 1000L;
+    // 距上次全量同步不超过该时间(毫秒)时信任本地未命中，应大于同步间隔且小于refreshToken有效期（丢失频道消息时被撤销的token最多被接受这么久），超过后查询Redis
+    private long localTrustMillis = 2 * 60 * 1000L;
+    // 黑名单新增通知频道
+    private String channel = "refreshTokenBlackList:channel";
+    // 指纹格式上线时间(毫秒时间戳，2026-10-19 00:00 +08:00)，此前签发的token可能以旧格式(完整token)存入黑名单；
+    // 固定值而非启动时间，重启后不会再让已签发的token额外查询旧格式
+    private long legacyCutoffMillis = 1792339200000L;
+}
@@ -0,0 +1,22 @@
+package com.ideafly.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 用户摘要两级缓存配置（本地缓存 + Redis）
+ */
+@Configuration
+@ConfigurationProperties(prefix = "user.cache")
+@Data
+public class UserCacheConfig {
+    // 本地缓存最大条数，超出后按LRU淘汰
+    private int nearMaxSize = 10000;
+    // 本地缓存过期时间(毫秒)，其他节点的失效通知丢失时以此兜底
+    private long nearTtlMillis = 60 * 1000L;
+    // Redis中每个用户摘要的过期时间(毫秒)，从写入时开始计算
+    private long redisTtlMillis = 60 * 60 * 1000L;
+    // 缓存失效通知频道
+    private String evictChannel = "user:cache:evict";
+}
@@ -0,0 +1,22 @@
+package com.ideafly.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 用户计数配置
+ */
+@Configuration
+@ConfigurationProperties(prefix = "user.stats")
+@Data
+public class UserStatsConfig {
+    // Redis中用户计数的过期时间(毫秒)，计数变化时主动失效
+    private long cacheTtlMillis = 60 * 60 * 1000L;
+    // 定时用实际数据修正用户计数的cron表达式
+    private String reconcileCron = "0 30 3 * * ?";
+    // 每批修正的用户数
+    private int batchSize = 500;
+    // 修正任务锁过期时间(毫秒)，多节点只有持锁节点执行
+    private long lockExpireMillis = 30 * 60 * 1000L;
+}
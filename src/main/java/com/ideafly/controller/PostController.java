@@ -5,9 +5,11 @@ import com.ideafly.common.R;
 import com.ideafly.common.RequestUtils;
 import com.ideafly.dto.job.*;
 import com.ideafly.model.Jobs;
+import com.ideafly.service.impl.FollowingTimelineService;
 import com.ideafly.service.impl.PostsService;
 import com.ideafly.service.impl.interact.CommentService;
 import com.ideafly.service.impl.interact.JobLikesService;
+import com.ideafly.utils.CursorUtils;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -30,6 +32,8 @@ public class PostController {
     private JobLikesService jobLikesService;
     @Resource
     private CommentService commentService;
+    @Resource
+    private FollowingTimelineService followingTimelineService;
 
     /**
      * 发布职位接口
@@ -137,13 +141,8 @@ public class PostController {
         // 检查游标值是否有效
         if (request.getMaxCursor() != null) {
             // 验证maxCursor格式是否正确
-            try {
-                String cursor = request.getMaxCursor();
-                byte[] decodedBytes = java.util.Base64.getDecoder().decode(cursor);
-                String jsonStr = new String(decodedBytes, java.nio.charset.StandardCharsets.UTF_8);
-                log.debug("maxCursor解码后: {}", jsonStr);
-            } catch (Exception e) {
-                log.warn("无效的maxCursor格式: {}, 错误: {}", request.getMaxCursor(), e.getMessage());
+            if (CursorUtils.decode(request.getMaxCursor()) == null) {
+                log.warn("无效的maxCursor格式: {}", request.getMaxCursor());
                 // 如果解析失败，清除游标值避免后续查询出错
                 request.setMaxCursor(null);
             }
@@ -197,4 +196,58 @@ public class PostController {
         return R.success(jobService.getFollowingUserJobs(request, userId));
     }
     
+    /**
+     * 游标分页获取关注用户发布的帖子（直接查询数据库，不统计总数）
+     */
+    @GetMapping("following/cursor")
+    @Operation(summary = "关注用户帖子游标分页", description = "获取当前用户关注的人发布的帖子，使用游标分页")
+    public R<CursorResponseDto<JobDetailOutputDto>> getFollowingUserJobsWithCursor(
+            @RequestParam(value = "pageSize", defaultValue = "20") Integer pageSize,
+            @RequestParam(value = "maxCursor", required = false) String maxCursor,
+            @RequestParam(value = "minCursor", required = false) String minCursor,
+            HttpServletRequest httpRequest) {
+        
+        String userId = RequestUtils.getCurrentUserId(httpRequest);
+        if (userId == null) {
+            log.warn("获取关注用户帖子失败 - 用户未登录");
+            return R.error("用户未登录");
+        }
+        
+        JobListInputDto request = new JobListInputDto();
+        request.setPageSize(pageSize);
+        request.setMaxCursor(maxCursor);
+        request.setMinCursor(minCursor);
+        
+        log.info("游标获取关注用户帖子 - 用户ID: {}, 页大小: {}, 最大游标: {}, 最小游标: {}", userId, pageSize, maxCursor, minCursor);
+        
+        return R.success(jobService.getFollowingUserJobsWithCursor(request, userId));
+    }
+    
+    /**
+     * 游标分页获取关注用户发布的帖子（时间线）
+     */
+    @GetMapping("following/timeline")
+    @Operation(summary = "关注流游标分页", description = "基于时间线缓存的关注用户帖子列表，使用游标分页")
+    public R<CursorResponseDto<JobDetailOutputDto>> getFollowingTimeline(
+            @RequestParam(value = "pageSize", defaultValue = "20") Integer pageSize,
+            @RequestParam(value = "maxCursor", required = false) String maxCursor,
+            @RequestParam(value = "minCursor", required = false) String minCursor,
+            HttpServletRequest httpRequest) {
+        
+        String userId = RequestUtils.getCurrentUserId(httpRequest);
+        if (userId == null) {
+            log.warn("获取关注流失败 - 用户未登录");
+            return R.error("用户未登录");
+        }
+        
+        JobListInputDto request = new JobListInputDto();
+        request.setPageSize(pageSize);
+        request.setMaxCursor(maxCursor);
+        request.setMinCursor(minCursor);
+        
+        log.info("获取关注流 - 用户ID: {}, 页大小: {}, 最大游标: {}, 最小游标: {}", userId, pageSize, maxCursor, minCursor);
+        
+        return R.success(followingTimelineService.getTimeline(request, userId));
+    }
+    
 }
\ No newline at end of file
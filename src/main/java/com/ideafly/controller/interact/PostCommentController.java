@@ -1,5 +1,6 @@
 package com.ideafly.controller.interact;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ideafly.aop.anno.NoAuth;
 import com.ideafly.common.R;
 import com.ideafly.common.RequestUtils;
@@ -8,6 +9,7 @@ import com.ideafly.dto.interact.JobCommentInputDto;
 import com.ideafly.dto.interact.JobCommentPageDto;
 import com.ideafly.dto.interact.ParentCommentCursorDto;
 import com.ideafly.dto.job.*;
+import com.ideafly.model.interact.ChildComment;
 import com.ideafly.service.impl.interact.CommentService;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -17,7 +19,11 @@ import lombok.extern.slf4j.Slf4j;
 
 import javax.annotation.Resource;
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -30,6 +36,9 @@ public class PostCommentController {
     @Resource
     private CommentService commentService;
 
+    @Resource
+    private ObjectMapper objectMapper;
+
     @PostMapping("add")
     @Operation(summary = "添加评论", description = "添加评论到职位")
     public R<Map<String, Object>> comment(@Valid @RequestBody JobCommentInputDto request, HttpServletRequest httpRequest) {
@@ -75,6 +84,50 @@ public class PostCommentController {
         return R.success(result);
     }
     
+    @NoAuth
+    @PostMapping(value = "streamChildren", produces = "application/x-ndjson")
+    @Operation(summary = "流式加载全部子评论", description = "以NDJSON格式（每行一条子评论）一次返回某个父评论下的全部子评论")
+    public void streamChildComments(@Valid @RequestBody JobLoadMoreChildrenDto request, HttpServletResponse response) throws IOException {
+        log.info("===== 流式加载子评论请求 =====");
+        log.info("请求参数: jobId={}, parentId={}", request.getJobId(), request.getParentId());
+
+        response.setContentType("application/x-ndjson;charset=UTF-8");
+        OutputStream out = response.getOutputStream();
+        try {
+            commentService.streamChildComments(request.getJobId(), request.getParentId(), chunk -> {
+                try {
+                    for (ChildComment comment : chunk) {
+                        out.write(objectMapper.writeValueAsBytes(comment));
+                        out.write('\n');
+                    }
+                    // 每批写完立即发送，客户端可以边收边渲染
+                    out.flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            // 客户端中途断开
+            log.warn("流式加载子评论中断 - jobId={}, parentId={}, 错误: {}", request.getJobId(), request.getParentId(), e.getMessage());
+        } catch (RuntimeException e) {
+            // 尚未输出任何内容时交给全局异常处理返回JSON错误
+            if (!response.isCommitted()) {
+                throw e;
+            }
+            // 已经开始输出，不能再改写响应，以一行错误信息结束流
+            log.error("流式加载子评论异常 - jobId={}, parentId={}, 错误: {}", request.getJobId(), request.getParentId(), e.getMessage(), e);
+            try {
+                Map<String, String> error = new HashMap<>();
+                error.put("error", "加载子评论失败");
+                out.write(objectMapper.writeValueAsBytes(error));
+                out.write('\n');
+                out.flush();
+            } catch (IOException ignored) {
+                // 客户端已断开
+            }
+        }
+    }
+    
     @NoAuth
     @GetMapping("count")
     @Operation(summary = "获取评论数量", description = "获取职位评论数量")
@@ -1,10 +1,10 @@
 package com.ideafly.controller.interact;
 
-import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.ideafly.aop.anno.NoAuth;
 import com.ideafly.common.R;
 import com.ideafly.common.RequestUtils;
 import com.ideafly.dto.interact.JobLikeInputDto;
+import com.ideafly.dto.job.CursorResponseDto;
 import com.ideafly.dto.job.JobDetailOutputDto;
 import com.ideafly.dto.job.JobListInputDto;
 import com.ideafly.service.impl.interact.JobLikesService;
@@ -108,8 +108,8 @@ public class PostLikesController {
      * 获取用户点赞的职位列表
      */
     @PostMapping("/list")
-    @Operation(summary = "获取点赞职位", description = "获取当前用户点赞的所有职位")
-    public R<Page<JobDetailOutputDto>> getLikedJobs(@RequestBody JobListInputDto request, HttpServletRequest httpRequest) {
+    @Operation(summary = "获取点赞职位(游标分页)", description = "按点赞时间游标分页获取当前用户点赞的职位")
+    public R<CursorResponseDto<JobDetailOutputDto>> getLikedJobs(@RequestBody JobListInputDto request, HttpServletRequest httpRequest) {
         String userId = RequestUtils.getCurrentUserId(httpRequest);
         return R.success(jobLikesService.getUserLikedJobs(request, userId));
     }
@@ -3,13 +3,14 @@ package com.ideafly.dto.interact;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.Data;
 
+import java.io.Serializable;
 import java.util.List;
 
 import com.ideafly.model.interact.ChildComment;
 
 @Data
 @Schema(description = "子评论列表响应DTO - 游标分页")
-public class ChildCommentCursorDto {
+public class ChildCommentCursorDto implements Serializable {
     
     @Schema(description = "子评论列表")
     private List<ChildComment> records;
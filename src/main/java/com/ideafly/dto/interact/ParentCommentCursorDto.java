@@ -3,13 +3,14 @@ package com.ideafly.dto.interact;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.Data;
 
+import java.io.Serializable;
 import java.util.List;
 
 import com.ideafly.model.interact.ParentComment;
 
 @Data
 @Schema(description = "父评论列表响应DTO - 游标分页")
-public class ParentCommentCursorDto {
+public class ParentCommentCursorDto implements Serializable {
     
     @Schema(description = "父评论列表")
     private List<ParentComment> records;
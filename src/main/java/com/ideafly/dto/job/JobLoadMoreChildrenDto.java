@@ -17,4 +17,7 @@ public class JobLoadMoreChildrenDto {
     
     @Schema(description = "游标，用于分页加载")
     private String cursor;
+    
+    @Schema(description = "每页大小，默认2，超过上限时按上限返回")
+    private Integer pageSize;
 } 
\ No newline at end of file
@@ -3,12 +3,14 @@ package com.ideafly.dto.user;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.Data;
 
+import java.io.Serializable;
+
 /**
  * 用户关注统计DTO
  */
 @Data
 @Schema(description = "用户关注统计响应")
-public class UserFollowStatsDto {
+public class UserFollowStatsDto implements Serializable {
     
     @Schema(description = "用户ID", required = true)
     private String userId;
@@ -0,0 +1,34 @@
+package com.ideafly.dto.user;
+
+import com.ideafly.model.users.Users;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.io.Serializable;
+
+/**
+ * 用户摘要（不可变），只包含列表展示和鉴权需要的字段，不含密码、邮箱、手机号等敏感信息
+ */
+@Getter
+@ToString
+public final class UserSummaryDto implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final String id; // 用户ID
+    private final String username; // 用户名
+    private final String avatar; // 头像URL
+    private final Integer role; // 用户角色，0普通用户，1管理员
+    private final Integer status; // 账号状态，1 (激活), 0 (已删除)
+
+    public UserSummaryDto(String id, String username, String avatar, Integer role, Integer status) {
+        this.id = id;
+        this.username = username;
+        this.avatar = avatar;
+        this.role = role;
+        this.status = status;
+    }
+
+    public static UserSummaryDto of(Users user) {
+        return new UserSummaryDto(user.getId(), user.getUsername(), user.getAvatar(), user.getRole(), user.getStatus());
+    }
+}
@@ -6,6 +6,7 @@ import com.ideafly.common.ErrorCode;
 import com.ideafly.common.R;
 import com.ideafly.dto.auth.LoginUser;
 import com.ideafly.service.impl.auth.AuthServiceImpl;
+import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.lang.NonNull;
@@ -107,16 +108,17 @@ public class TokenInterceptor implements HandlerInterceptor {
                 return false;
             }
 
-            // accessToken 过期检查
-            if (!jwtUtil.isAccessTokenValid(token)) {
+            // accessToken 校验（签名、类型、过期），每个请求只解析一次
+            Claims claims = jwtUtil.parseAccessToken(token);
+            if (claims == null) {
                 log.info("Token无效或已过期: {}", token);
                 responseError(response, R.error(ErrorCode.INVALID_TOKEN.getCode(), "登录已过期"));
                 return false;
             }
 
             
-            // 验证token并获取用户信息
-            LoginUser loginUser = authService.getUserByToken(token);
+            // 从token声明获取用户信息
+            LoginUser loginUser = authService.getUserByClaims(claims);
             
             if (loginUser == null) {
                 // token无效或用户不存在
@@ -0,0 +1,30 @@
+package com.ideafly.mapper;
+
+import com.baomidou.mybatisplus.core.conditions.Wrapper;
+import com.baomidou.mybatisplus.core.toolkit.Constants;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 执行计划检查，表名只允许传入实体对应的表名常量
+ */
+@Mapper
+public interface QueryPlanMapper {
+
+    /**
+     * 对条件构造器生成的查询执行EXPLAIN
+     */
+    @Select("EXPLAIN SELECT * FROM ${table} ${ew.customSqlSegment}")
+    List<Map<String, Object>> explain(@Param("table") String table, @Param(Constants.WRAPPER) Wrapper<?> wrapper);
+
+    /**
+     * 查询当前库中某张表已有的索引名
+     */
+    @Select("SELECT DISTINCT INDEX_NAME FROM information_schema.STATISTICS " +
+           "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = #{table}")
+    List<String> listIndexNames(@Param("table") String table);
+}
@@ -4,7 +4,26 @@ import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.ideafly.model.interact.ChildComment;
 
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.Collection;
+import java.util.List;
 
 @Mapper
 public interface ChildCommentMapper extends BaseMapper<ChildComment> {
-} 
\ No newline at end of file
+
+    /**
+     * 一次查询多个父评论各自最新的limit条子评论（窗口函数按父评论分组编号）
+     * 结果按父评论分组，组内按(创建时间, ID)降序
+     */
+    @Select("<script>SELECT id, job_id, user_id, parent_comment_id, reply_to_comment_id, content, created_at FROM (" +
+           "SELECT id, job_id, user_id, parent_comment_id, reply_to_comment_id, content, created_at, " +
+           "ROW_NUMBER() OVER (PARTITION BY parent_comment_id ORDER BY created_at DESC, id DESC) AS rn " +
+           "FROM post_comments WHERE job_id = #{jobId} AND parent_comment_id IN " +
+           "<foreach collection='parentIds' item='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+           ") t WHERE rn &lt;= #{limit} ORDER BY parent_comment_id, created_at DESC, id DESC</script>")
+    List<ChildComment> selectTopChildren(@Param("jobId") Integer jobId,
+                                         @Param("parentIds") Collection<Integer> parentIds,
+                                         @Param("limit") int limit);
+}
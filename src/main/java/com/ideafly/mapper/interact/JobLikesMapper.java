@@ -6,6 +6,10 @@ import com.ideafly.model.interact.JobLikes;
 import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.util.List;
 
 @Mapper
 public interface JobLikesMapper extends BaseMapper<JobLikes> {
@@ -19,4 +23,38 @@ public interface JobLikesMapper extends BaseMapper<JobLikes> {
     int insertOrUpdateLikeStatus(@Param("jobId") Integer jobId, 
                                @Param("userId") String userId, 
                                @Param("status") Integer status);
+
+    /**
+     * 仅在点赞状态发生变化时更新，返回值为1表示状态确实被改变
+     */
+    @Update("UPDATE job_likes SET created_at = IF(#{status} = 1, NOW(), created_at), status = #{status} " +
+           "WHERE job_id = #{jobId} AND user_id = #{userId} AND status <> #{status}")
+    int updateLikeStatusIfChanged(@Param("jobId") Integer jobId,
+                                  @Param("userId") String userId,
+                                  @Param("status") Integer status);
+
+    /**
+     * 记录不存在时插入，返回值为1表示新插入
+     */
+    @Insert("INSERT IGNORE INTO job_likes(job_id, user_id, status) VALUES (#{jobId}, #{userId}, #{status})")
+    int insertLikeIfAbsent(@Param("jobId") Integer jobId,
+                           @Param("userId") String userId,
+                           @Param("status") Integer status);
+
+    /**
+     * 批量锁定读取已有记录的状态（写回合并后的状态前计算计数变化）
+     */
+    @Select("<script>SELECT job_id, user_id, status FROM job_likes WHERE (job_id, user_id) IN " +
+           "<foreach collection='list' item='t' open='(' separator=',' close=')'>(#{t.jobId}, #{t.userId})</foreach> " +
+           "FOR UPDATE</script>")
+    List<JobLikes> selectStatusForUpdate(@Param("list") List<JobLikes> keys);
+
+    /**
+     * 多行插入或更新状态
+     */
+    @Insert("<script>INSERT INTO job_likes(job_id, user_id, status) VALUES " +
+           "<foreach collection='list' item='t' separator=','>(#{t.jobId}, #{t.userId}, #{t.status})</foreach> " +
+           "ON DUPLICATE KEY UPDATE created_at = IF(VALUES(status) = 1 AND status = 0, NOW(), created_at), " +
+           "status = VALUES(status)</script>")
+    int upsertStatusBatch(@Param("list") List<JobLikes> list);
 }
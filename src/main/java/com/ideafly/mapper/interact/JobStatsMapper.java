@@ -0,0 +1,97 @@
+package com.ideafly.mapper.interact;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.ideafly.model.interact.JobStats;
+
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.util.List;
+
+@Mapper
+public interface JobStatsMapper extends BaseMapper<JobStats> {
+
+    /**
+     * 增量更新点赞数，计数行不存在时自动创建
+     */
+    @Insert("INSERT INTO job_stats(job_id, likes_count) VALUES (#{jobId}, GREATEST(#{delta}, 0)) " +
+           "ON DUPLICATE KEY UPDATE likes_count = GREATEST(likes_count + #{delta}, 0)")
+    int incrLikesCount(@Param("jobId") Integer jobId, @Param("delta") int delta);
+
+    /**
+     * 增量更新收藏数，计数行不存在时自动创建
+     */
+    @Insert("INSERT INTO job_stats(job_id, favorites_count) VALUES (#{jobId}, GREATEST(#{delta}, 0)) " +
+           "ON DUPLICATE KEY UPDATE favorites_count = GREATEST(favorites_count + #{delta}, 0)")
+    int incrFavoritesCount(@Param("jobId") Integer jobId, @Param("delta") int delta);
+
+    /**
+     * 增量更新评论数，计数行不存在时自动创建
+     */
+    @Insert("INSERT INTO job_stats(job_id, comments_count) VALUES (#{jobId}, GREATEST(#{delta}, 0)) " +
+           "ON DUPLICATE KEY UPDATE comments_count = GREATEST(comments_count + #{delta}, 0)")
+    int incrCommentsCount(@Param("jobId") Integer jobId, @Param("delta") int delta);
+
+    /**
+     * 批量初始化计数行，已存在的行保持不变
+     */
+    @Insert("<script>INSERT IGNORE INTO job_stats(job_id, likes_count, favorites_count, comments_count) VALUES " +
+           "<foreach collection='list' item='s' separator=','>" +
+           "(#{s.jobId}, #{s.likesCount}, #{s.favoritesCount}, #{s.commentsCount})" +
+           "</foreach></script>")
+    int insertIgnoreBatch(@Param("list") List<JobStats> list);
+
+    /**
+     * 按职位ID区间用实际评论数修正comments_count，返回修正的职位ID
+     */
+    @Select("SELECT s.job_id FROM job_stats s LEFT JOIN (" +
+           "SELECT job_id, COUNT(*) AS cnt FROM post_comments WHERE job_id BETWEEN #{fromId} AND #{toId} GROUP BY job_id" +
+           ") c ON c.job_id = s.job_id " +
+           "WHERE s.job_id BETWEEN #{fromId} AND #{toId} AND s.comments_count <> IFNULL(c.cnt, 0)")
+    List<Integer> selectCommentsCountDrift(@Param("fromId") int fromId, @Param("toId") int toId);
+
+    @Update("<script>UPDATE job_stats s LEFT JOIN (" +
+           "SELECT job_id, COUNT(*) AS cnt FROM post_comments WHERE job_id IN " +
+           "<foreach collection='jobIds' item='id' open='(' separator=',' close=')'>#{id}</foreach> GROUP BY job_id" +
+           ") c ON c.job_id = s.job_id SET s.comments_count = IFNULL(c.cnt, 0) WHERE s.job_id IN " +
+           "<foreach collection='jobIds' item='id' open='(' separator=',' close=')'>#{id}</foreach></script>")
+    int reconcileCommentsCount(@Param("jobIds") List<Integer> jobIds);
+
+    /**
+     * 按职位ID区间用实际有效点赞数修正likes_count，返回修正的职位ID
+     */
+    @Select("SELECT s.job_id FROM job_stats s LEFT JOIN (" +
+           "SELECT job_id, COUNT(*) AS cnt FROM job_likes WHERE job_id BETWEEN #{fromId} AND #{toId} AND status = 1 GROUP BY job_id" +
+           ") l ON l.job_id = s.job_id " +
+           "WHERE s.job_id BETWEEN #{fromId} AND #{toId} AND s.likes_count <> IFNULL(l.cnt, 0)")
+    List<Integer> selectLikesCountDrift(@Param("fromId") int fromId, @Param("toId") int toId);
+
+    @Update("<script>UPDATE job_stats s LEFT JOIN (" +
+           "SELECT job_id, COUNT(*) AS cnt FROM job_likes WHERE status = 1 AND job_id IN " +
+           "<foreach collection='jobIds' item='id' open='(' separator=',' close=')'>#{id}</foreach> GROUP BY job_id" +
+           ") l ON l.job_id = s.job_id SET s.likes_count = IFNULL(l.cnt, 0) WHERE s.job_id IN " +
+           "<foreach collection='jobIds' item='id' open='(' separator=',' close=')'>#{id}</foreach></script>")
+    int reconcileLikesCount(@Param("jobIds") List<Integer> jobIds);
+
+    /**
+     * 按职位ID区间用实际有效收藏数修正favorites_count，返回修正的职位ID
+     */
+    @Select("SELECT s.job_id FROM job_stats s LEFT JOIN (" +
+           "SELECT job_id, COUNT(*) AS cnt FROM job_favorites WHERE job_id BETWEEN #{fromId} AND #{toId} AND status = 1 GROUP BY job_id" +
+           ") f ON f.job_id = s.job_id " +
+           "WHERE s.job_id BETWEEN #{fromId} AND #{toId} AND s.favorites_count <> IFNULL(f.cnt, 0)")
+    List<Integer> selectFavoritesCountDrift(@Param("fromId") int fromId, @Param("toId") int toId);
+
+    @Update("<script>UPDATE job_stats s LEFT JOIN (" +
+           "SELECT job_id, COUNT(*) AS cnt FROM job_favorites WHERE status = 1 AND job_id IN " +
+           "<foreach collection='jobIds' item='id' open='(' separator=',' close=')'>#{id}</foreach> GROUP BY job_id" +
+           ") f ON f.job_id = s.job_id SET s.favorites_count = IFNULL(f.cnt, 0) WHERE s.job_id IN " +
+           "<foreach collection='jobIds' item='id' open='(' separator=',' close=')'>#{id}</foreach></script>")
+    int reconcileFavoritesCount(@Param("jobIds") List<Integer> jobIds);
+
+    @Select("SELECT IFNULL(MAX(job_id), 0) FROM job_stats")
+    int selectMaxJobId();
+}
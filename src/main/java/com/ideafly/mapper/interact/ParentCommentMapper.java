@@ -4,7 +4,31 @@ import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.ideafly.model.interact.ParentComment;
 
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
 
 @Mapper
 public interface ParentCommentMapper extends BaseMapper<ParentComment> {
-} 
\ No newline at end of file
+
+    /**
+     * 增量更新父评论的子评论数，返回0表示该职位下不存在这条父评论
+     */
+    @Update("UPDATE post_comments SET reply_count = GREATEST(reply_count + #{delta}, 0) " +
+           "WHERE id = #{parentId} AND job_id = #{jobId} AND parent_comment_id = 0")
+    int incrReplyCount(@Param("jobId") Integer jobId, @Param("parentId") Integer parentId, @Param("delta") int delta);
+
+    /**
+     * 按ID区间用实际子评论数修正父评论的reply_count，返回修正的行数
+     */
+    @Update("UPDATE post_comments p LEFT JOIN (" +
+           "SELECT parent_comment_id, COUNT(*) AS cnt FROM post_comments " +
+           "WHERE parent_comment_id BETWEEN #{fromId} AND #{toId} GROUP BY parent_comment_id" +
+           ") c ON c.parent_comment_id = p.id " +
+           "SET p.reply_count = IFNULL(c.cnt, 0) " +
+           "WHERE p.id BETWEEN #{fromId} AND #{toId} AND p.parent_comment_id = 0 AND p.reply_count <> IFNULL(c.cnt, 0)")
+    int reconcileReplyCount(@Param("fromId") int fromId, @Param("toId") int toId);
+
+    @Select("SELECT IFNULL(MAX(id), 0) FROM post_comments")
+    int selectMaxId();
+}
@@ -4,10 +4,28 @@ import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.ideafly.model.users.UserFollow;
 
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
 
 /**
  * 用户关注关系Mapper接口
  */
 @Mapper
 public interface UserFollowMapper extends BaseMapper<UserFollow> {
+
+    /**
+     * 统计互相关注数：从该用户的有效关注出发（idx_follower_status），按 unique_follow 逐条检查对方是否回关，
+     * 代价只与该用户的关注数有关，与粉丝数无关
+     */
+    @Select("SELECT COUNT(*) FROM user_follows a " +
+           "JOIN user_follows b ON b.follower_id = a.followed_id AND b.followed_id = a.follower_id AND b.status = 1 " +
+           "WHERE a.follower_id = #{userId} AND a.status = 1")
+    int countMutualFollows(@Param("userId") String userId);
+
+    /**
+     * 关注状态条件更新，只有状态确实发生变化时返回1，并发的重复请求不会重复计数
+     */
+    @Update("UPDATE user_follows SET status = #{toStatus} WHERE id = #{id} AND status = #{fromStatus}")
+    int updateStatus(@Param("id") Integer id, @Param("fromStatus") int fromStatus, @Param("toStatus") int toStatus);
 } 
\ No newline at end of file
@@ -0,0 +1,87 @@
+package com.ideafly.mapper.users;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.ideafly.model.users.UserStats;
+
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.Collection;
+import java.util.List;
+
+@Mapper
+public interface UserStatsMapper extends BaseMapper<UserStats> {
+
+    /**
+     * 增量更新获赞数，计数行不存在时自动创建
+     */
+    @Insert("INSERT INTO user_stats(user_id, likes_received) VALUES (#{userId}, GREATEST(#{delta}, 0)) " +
+           "ON DUPLICATE KEY UPDATE likes_received = GREATEST(likes_received + #{delta}, 0)")
+    int incrLikesReceived(@Param("userId") String userId, @Param("delta") int delta);
+
+    /**
+     * 初始化计数行，计数行已存在时（如并发的增量更新已创建）忽略
+     */
+    @Insert("INSERT IGNORE INTO user_stats(user_id, likes_received, following_count, followers_count) " +
+           "VALUES (#{userId}, #{likesReceived}, #{followingCount}, #{followersCount})")
+    int insertIgnoreStats(UserStats stats);
+
+    /**
+     * 按作者分组统计其职位获得的有效点赞数（没有点赞的作者不在结果中）
+     */
+    @Select("<script>SELECT j.user_id, COUNT(*) AS likes_received FROM job_likes l JOIN jobs j ON j.id = l.job_id " +
+           "WHERE l.status = 1 AND j.user_id IN " +
+           "<foreach collection='userIds' item='id' open='(' separator=',' close=')'>#{id}</foreach> " +
+           "GROUP BY j.user_id</script>")
+    List<UserStats> countLikesReceived(@Param("userIds") Collection<String> userIds);
+
+    /**
+     * 批量写入获赞数（初始化或修正），已存在的行覆盖
+     */
+    @Insert("<script>INSERT INTO user_stats(user_id, likes_received) VALUES " +
+           "<foreach collection='list' item='s' separator=','>(#{s.userId}, #{s.likesReceived})</foreach> " +
+           "ON DUPLICATE KEY UPDATE likes_received = VALUES(likes_received)</script>")
+    int upsertLikesReceivedBatch(@Param("list") List<UserStats> list);
+
+    /**
+     * 增量更新关注数，计数行不存在时自动创建
+     */
+    @Insert("INSERT INTO user_stats(user_id, following_count) VALUES (#{userId}, GREATEST(#{delta}, 0)) " +
+           "ON DUPLICATE KEY UPDATE following_count = GREATEST(following_count + #{delta}, 0)")
+    int incrFollowingCount(@Param("userId") String userId, @Param("delta") int delta);
+
+    /**
+     * 增量更新粉丝数，计数行不存在时自动创建
+     */
+    @Insert("INSERT INTO user_stats(user_id, followers_count) VALUES (#{userId}, GREATEST(#{delta}, 0)) " +
+           "ON DUPLICATE KEY UPDATE followers_count = GREATEST(followers_count + #{delta}, 0)")
+    int incrFollowersCount(@Param("userId") String userId, @Param("delta") int delta);
+
+    /**
+     * 按关注者分组统计有效关注数（走 idx_follower_status，没有关注任何人的用户不在结果中）
+     */
+    @Select("<script>SELECT follower_id AS user_id, COUNT(*) AS following_count FROM user_follows " +
+           "WHERE status = 1 AND follower_id IN " +
+           "<foreach collection='userIds' item='id' open='(' separator=',' close=')'>#{id}</foreach> " +
+           "GROUP BY follower_id</script>")
+    List<UserStats> countFollowing(@Param("userIds") Collection<String> userIds);
+
+    /**
+     * 按被关注者分组统计有效粉丝数（走 idx_followed_status，没有粉丝的用户不在结果中）
+     */
+    @Select("<script>SELECT followed_id AS user_id, COUNT(*) AS followers_count FROM user_follows " +
+           "WHERE status = 1 AND followed_id IN " +
+           "<foreach collection='userIds' item='id' open='(' separator=',' close=')'>#{id}</foreach> " +
+           "GROUP BY followed_id</script>")
+    List<UserStats> countFollowers(@Param("userIds") Collection<String> userIds);
+
+    /**
+     * 批量写入关注数和粉丝数（修正），已存在的行覆盖
+     */
+    @Insert("<script>INSERT INTO user_stats(user_id, following_count, followers_count) VALUES " +
+           "<foreach collection='list' item='s' separator=','>(#{s.userId}, #{s.followingCount}, #{s.followersCount})</foreach> " +
+           "ON DUPLICATE KEY UPDATE following_count = VALUES(following_count), followers_count = VALUES(followers_count)</script>")
+    int upsertFollowCountsBatch(@Param("list") List<UserStats> list);
+}
@@ -6,11 +6,12 @@ import com.baomidou.mybatisplus.annotation.TableId;
 import com.baomidou.mybatisplus.annotation.TableName;
 import lombok.Data;
 
+import java.io.Serializable;
 import java.time.LocalDateTime;
 
 @Data
 @TableName("post_comments") // 仍然使用同一张表
-public class ChildComment {
+public class ChildComment implements Serializable {
     @TableId(value = "id", type = IdType.AUTO)
     private Integer id; // 评论ID
     private Integer jobId; // 职位ID (关联 jobs 表)
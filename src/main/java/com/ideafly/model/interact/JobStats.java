@@ -0,0 +1,26 @@
+package com.ideafly.model.interact;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@TableName("job_stats")
+public class JobStats implements Serializable {
+    @TableId(value = "job_id", type = IdType.INPUT)
+    private Integer jobId; // 职位ID (关联 jobs 表)
+    private Integer likesCount = 0; // 有效点赞数
+    private Integer favoritesCount = 0; // 有效收藏数
+    private Integer commentsCount = 0; // 评论总数 (父评论+子评论)
+    private LocalDateTime updatedAt; // 更新时间
+
+    public JobStats(Integer jobId) {
+        this.jobId = jobId;
+    }
+}
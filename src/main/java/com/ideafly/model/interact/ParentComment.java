@@ -7,13 +7,14 @@ import com.baomidou.mybatisplus.annotation.TableName;
 
 import lombok.Data;
 
+import java.io.Serializable;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 @Data
 @TableName("post_comments") // 仍然使用同一张表
-public class ParentComment {
+public class ParentComment implements Serializable {
     @TableId(value = "id", type = IdType.AUTO)
     private Integer id; // 评论ID
     private Integer jobId; // 职位ID (关联 jobs 表)
@@ -22,6 +23,7 @@ public class ParentComment {
     private Integer replyToCommentId; // 回复的评论ID (通常为null或0)
     private String content; // 评论内容
     private LocalDateTime createdAt; // 创建时间
+    private Integer replyCount; // 子评论数，发表子评论时增量维护
     
     // 非数据库字段，用于前端展示
     @TableField(exist = false)
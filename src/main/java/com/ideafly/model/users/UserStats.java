@@ -0,0 +1,26 @@
+package com.ideafly.model.users;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@TableName("user_stats")
+public class UserStats implements Serializable {
+    @TableId(value = "user_id", type = IdType.INPUT)
+    private String userId; // 用户ID (关联用户表)
+    private Integer likesReceived = 0; // 发布的职位获得的有效点赞总数
+    private Integer followingCount = 0; // 有效关注数 (该用户关注的人数)
+    private Integer followersCount = 0; // 有效粉丝数 (关注该用户的人数)
+    private LocalDateTime updatedAt; // 更新时间
+
+    public UserStats(String userId) {
+        this.userId = userId;
+    }
+}
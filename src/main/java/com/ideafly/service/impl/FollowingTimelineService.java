@@ -0,0 +1,316 @@
+package com.ideafly.service.impl;
+
+import cn.hutool.core.collection.CollUtil;
+import com.ideafly.config.FollowingTimelineConfig;
+import com.ideafly.dto.job.CursorResponseDto;
+import com.ideafly.dto.job.JobDetailOutputDto;
+import com.ideafly.dto.job.JobListInputDto;
+import com.ideafly.model.Jobs;
+import com.ideafly.service.UserFollowService;
+import com.ideafly.service.impl.users.UserStatsService;
+import com.ideafly.utils.KeysetPagination;
+import com.ideafly.utils.RedisUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.Resource;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * 关注流时间线服务
+ * 每个用户一个有序集合 timeline:{userId}（成员为职位ID，分值为发布时间毫秒），
+ * 发布时写扩散到粉丝的时间线；粉丝过多的作者不写扩散，读取时再从数据库拉取合并。
+ * 时间线只保留最近capacity条，重建或写扩散时发生截断则写入截断标记，翻到时间线末尾时据此回源数据库
+ */
+@Service
+@Slf4j
+public class FollowingTimelineService {
+
+    private static final String TIMELINE_KEY_PREFIX = "timeline:";
+    // 不做写扩散的作者集合（粉丝数超过阈值），标记后不再移除，避免其历史内容在已有时间线中缺失
+    private static final String CELEBRITY_KEY = "timeline:celebrities";
+    // 空时间线占位成员，避免没有内容的用户每次都回源重建
+    private static final Integer EMPTY_MARKER = 0;
+    // 截断标记成员：时间线之外还有更早的内容；分值取最大，按分值截断时不会被移除
+    private static final Integer TRUNCATED_MARKER = -1;
+    private static final double TRUNCATED_SCORE = Double.MAX_VALUE;
+    // 同一毫秒发布的多条内容分值相同，多取一些以便在内存中按ID排序后截断
+    private static final int TIE_BREAK_EXTRA = 16;
+
+    @Resource
+    private RedisUtil redisUtil;
+
+    @Resource
+    private PostsService postsService;
+
+    @Resource
+    private UserFollowService userFollowService;
+
+    @Resource
+    private JobHydrationService jobHydrationService;
+
+    @Resource
+    private UserStatsService userStatsService;
+
+    @Resource
+    private FollowingTimelineConfig followingTimelineConfig;
+
+    @Resource
+    @Qualifier("timelineFanoutExecutor")
+    private ThreadPoolTaskExecutor timelineFanoutExecutor;
+
+    /**
+     * 新职位发布后写扩散到粉丝时间线（异步）
+     */
+    public void onJobCreated(Jobs job) {
+        if (job == null || job.getId() == null || job.getCreatedAt() == null) {
+            return;
+        }
+        timelineFanoutExecutor.execute(() -> {
+            try {
+                String authorId = job.getUserId();
+                if (redisUtil.sIsMember(CELEBRITY_KEY, authorId)) {
+                    return;
+                }
+                // 先用粉丝数计数判断，超过阈值的作者不加载粉丝ID列表
+                int followersCount = userStatsService.getStats(authorId).getFollowersCount();
+                if (followersCount > followingTimelineConfig.getFanoutThreshold()) {
+                    log.info("作者粉丝数超过写扩散阈值，改为读时拉取 - 作者ID: {}, 粉丝数: {}", authorId, followersCount);
+                    redisUtil.sAddAll(CELEBRITY_KEY, Collections.singletonList(authorId));
+                    return;
+                }
+                List<String> followerIds = userFollowService.getFollowersUserIds(authorId);
+                // 只写入已存在的时间线，冷时间线在下次读取时从数据库完整重建
+                List<String> keys = existingTimelineKeys(followerIds);
+                List<String> trimmed = redisUtil.pZAdd(keys, job.getId(), toScore(job.getCreatedAt()), followingTimelineConfig.getCapacity());
+                // 截断后最早的内容只在数据库中，标记以便读到末尾时回源
+                redisUtil.pZAdd(trimmed, TRUNCATED_MARKER, TRUNCATED_SCORE, followingTimelineConfig.getCapacity());
+                log.info("职位写扩散完成 - 职位ID: {}, 粉丝数: {}, 写入时间线数: {}", job.getId(), followerIds.size(), keys.size());
+            } catch (Exception e) {
+                log.error("职位写扩散异常 - 职位ID: {}, 错误: {}", job.getId(), e.getMessage(), e);
+            }
+        });
+    }
+
+    /**
+     * 职位删除后从粉丝时间线中移除（异步）
+     */
+    public void onJobDeleted(Jobs job) {
+        if (job == null || job.getId() == null) {
+            return;
+        }
+        timelineFanoutExecutor.execute(() -> {
+            try {
+                if (redisUtil.sIsMember(CELEBRITY_KEY, job.getUserId())) {
+                    return;
+                }
+                List<String> keys = existingTimelineKeys(userFollowService.getFollowersUserIds(job.getUserId()));
+                redisUtil.pZRemove(keys, job.getId());
+            } catch (Exception e) {
+                log.error("从时间线移除职位异常 - 职位ID: {}, 错误: {}", job.getId(), e.getMessage(), e);
+            }
+        });
+    }
+
+    /**
+     * 关注关系变化后清除该用户的时间线，下次读取时重建；
+     * 处于事务中时等提交后再清除，避免提交前按旧关注关系重建并缓存
+     */
+    public void evictTimeline(String userId) {
+        if (userId == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    doEvictTimeline(userId);
+                }
+            });
+        } else {
+            doEvictTimeline(userId);
+        }
+    }
+
+    private void doEvictTimeline(String userId) {
+        try {
+            redisUtil.del(timelineKey(userId));
+        } catch (Exception e) {
+            log.error("清除时间线异常 - 用户ID: {}, 错误: {}", userId, e.getMessage());
+        }
+    }
+
+    /**
+     * 游标分页读取关注流
+     */
+    public CursorResponseDto<JobDetailOutputDto> getTimeline(JobListInputDto request, String userId) {
+        long startTime = System.currentTimeMillis();
+        if (userId == null) {
+            throw new IllegalArgumentException("用户未登录");
+        }
+        if (request.getPageSize() == null || request.getPageSize() <= 0) {
+            request.setPageSize(20);
+        }
+        KeysetPagination<Jobs> pagination = KeysetPagination.of(Jobs::getCreatedAt, Jobs::getId,
+                request.getMaxCursor(), request.getMinCursor(), request.getPageSize());
+        boolean isBackward = pagination.isBackward();
+        int limit = pagination.fetchSize();
+
+        List<String> followingIds = userFollowService.getFollowingUserIds(userId);
+        if (CollUtil.isEmpty(followingIds)) {
+            return pagination.toResponse(new ArrayList<>());
+        }
+
+        // 区分写扩散作者与读时拉取作者
+        Set<String> celebrities = new HashSet<>();
+        try {
+            Set<String> allCelebrities = redisUtil.sMembers(CELEBRITY_KEY);
+            for (String followingId : followingIds) {
+                if (allCelebrities.contains(followingId)) {
+                    celebrities.add(followingId);
+                }
+            }
+        } catch (Exception e) {
+            log.error("读取读时拉取作者集合异常: {}", e.getMessage());
+        }
+        List<String> pushedAuthorIds = followingIds.stream()
+                .filter(id -> !celebrities.contains(id))
+                .collect(Collectors.toList());
+
+        List<Jobs> candidates = new ArrayList<>();
+        try {
+            String key = timelineKey(userId);
+            ensureTimeline(key, pushedAuthorIds);
+            List<Integer> timelineIds = readTimelineIds(key, pagination);
+            candidates.addAll(loadJobs(key, timelineIds));
+            // 时间线已截断且本页不够，说明翻到了时间线之外的历史内容，回源数据库
+            // （按截断标记判断，删除职位后时间线条数会低于容量，不能据条数判断）
+            if (!isBackward && timelineIds.size() < limit && redisUtil.zScore(key, TRUNCATED_MARKER) != null) {
+                candidates.addAll(postsService.listJobsByUsersWithCursor(pushedAuthorIds, pagination));
+            }
+        } catch (Exception e) {
+            // Redis不可用时整体退化为数据库游标分页
+            log.error("读取时间线异常，回源数据库 - 用户ID: {}, 错误: {}", userId, e.getMessage());
+            return postsService.getFollowingUserJobsWithCursor(request, userId);
+        }
+        // 读时拉取粉丝过多的作者
+        if (!celebrities.isEmpty()) {
+            candidates.addAll(postsService.listJobsByUsersWithCursor(celebrities, pagination));
+        }
+
+        // 合并去重，按与数据库游标查询一致的顺序截取一页
+        Map<Integer, Jobs> merged = new HashMap<>();
+        for (Jobs job : candidates) {
+            merged.putIfAbsent(job.getId(), job);
+        }
+        Comparator<Jobs> newestFirst = Comparator.comparing(Jobs::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder()))
+                .thenComparing(Jobs::getId, Comparator.reverseOrder());
+        List<Jobs> jobs = pagination.page(merged.values().stream()
+                .sorted(isBackward ? newestFirst.reversed() : newestFirst)
+                .limit(limit)
+                .collect(Collectors.toList()));
+
+        List<JobDetailOutputDto> dtoList = jobHydrationService.hydrate(jobs, userId);
+
+        log.info("时间线获取关注流完成 - 用户ID: {}, 记录数: {}, 耗时: {}ms", userId, dtoList.size(), (System.currentTimeMillis() - startTime));
+
+        return pagination.toResponse(dtoList);
+    }
+
+    /**
+     * 时间线不存在时从数据库重建（只取最近capacity条的ID和发布时间）
+     */
+    private void ensureTimeline(String key, List<String> authorIds) {
+        if (Boolean.TRUE.equals(redisUtil.hasKey(key))) {
+            return;
+        }
+        Map<Integer, Double> scoredIds = new HashMap<>();
+        if (!authorIds.isEmpty()) {
+            postsService.lambdaQuery()
+                    .select(Jobs::getId, Jobs::getCreatedAt)
+                    .in(Jobs::getUserId, authorIds)
+                    .orderByDesc(Jobs::getCreatedAt, Jobs::getId)
+                    .last("LIMIT " + followingTimelineConfig.getCapacity())
+                    .list()
+                    .forEach(job -> scoredIds.put(job.getId(), toScore(job.getCreatedAt())));
+        }
+        if (scoredIds.isEmpty()) {
+            scoredIds.put(EMPTY_MARKER, 0D);
+        } else if (scoredIds.size() >= followingTimelineConfig.getCapacity()) {
+            // 取满容量说明可能还有更早的内容
+            scoredIds.put(TRUNCATED_MARKER, TRUNCATED_SCORE);
+        }
+        redisUtil.zAddAll(key, scoredIds, followingTimelineConfig.getExpireMillis());
+        log.info("重建关注流时间线 - key: {}, 条数: {}", key, scoredIds.size());
+    }
+
+    /**
+     * 按游标读取时间线中的职位ID，顺序与数据库游标查询一致
+     */
+    private List<Integer> readTimelineIds(String key, KeysetPagination<Jobs> pagination) {
+        boolean hasCursor = pagination.hasCursor();
+        boolean backward = pagination.isBackward();
+        Integer cursorId = pagination.getCursorId();
+        double cursorScore = hasCursor ? pagination.getCursorTime().getTime() : 0;
+        int limit = pagination.fetchSize();
+        long count = limit + TIE_BREAK_EXTRA;
+        Map<Integer, Double> entries = backward
+                ? redisUtil.zRangeByScoreWithScores(key, hasCursor ? cursorScore : 1, Double.POSITIVE_INFINITY, count)
+                : redisUtil.zRevRangeByScoreWithScores(key, 1, hasCursor ? cursorScore : Double.POSITIVE_INFINITY, count);
+
+        Comparator<Map.Entry<Integer, Double>> order = Map.Entry.<Integer, Double>comparingByValue()
+                .thenComparing(Map.Entry.comparingByKey());
+        return entries.entrySet().stream()
+                .filter(e -> !EMPTY_MARKER.equals(e.getKey()) && !TRUNCATED_MARKER.equals(e.getKey()))
+                // 分值与游标相同时按ID排除已读内容
+                .filter(e -> !hasCursor || e.getValue() != cursorScore
+                        || (backward ? e.getKey() > cursorId : e.getKey() < cursorId))
+                .sorted(backward ? order : order.reversed())
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 批量加载职位，已删除的职位从时间线中顺带清理
+     */
+    private List<Jobs> loadJobs(String key, List<Integer> jobIds) {
+        if (jobIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Jobs> jobs = postsService.listByIds(jobIds);
+        if (jobs.size() < jobIds.size()) {
+            Set<Integer> found = jobs.stream().map(Jobs::getId).collect(Collectors.toSet());
+            List<Integer> missing = jobIds.stream().filter(id -> !found.contains(id)).collect(Collectors.toList());
+            redisUtil.zRemove(key, missing);
+        }
+        return jobs;
+    }
+
+    private List<String> existingTimelineKeys(List<String> userIds) {
+        List<String> keys = userIds.stream().map(this::timelineKey).collect(Collectors.toList());
+        List<Boolean> exists = redisUtil.mHasKey(keys);
+        List<String> result = new ArrayList<>();
+        for (int i = 0; i < keys.size(); i++) {
+            if (exists.get(i)) {
+                result.add(keys.get(i));
+            }
+        }
+        return result;
+    }
+
+    private String timelineKey(String userId) {
+        return TIMELINE_KEY_PREFIX + userId;
+    }
+
+    private double toScore(LocalDateTime createdAt) {
+        return createdAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,304 @@
+package com.ideafly.service.impl;
+
+import cn.hutool.cache.CacheUtil;
+import cn.hutool.cache.impl.LRUCache;
+import com.ideafly.config.JobExistenceConfig;
+import com.ideafly.model.Jobs;
+import com.ideafly.utils.RedisUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.nio.charset.StandardCharsets;
+import java.util.BitSet;
+import java.util.UUID;
+
+/**
+ * 职位存在性索引
+ * 以职位ID为下标的位图：本地BitSet用于判断，Redis位图 job:exists 在多节点间共享（新节点启动时直接加载），
+ * 发布/删除通过Redis频道同步到各节点。位图只用于快速确认存在：本地和Redis都未命中时回查数据库
+ * （结果为不存在时短暂缓存在本地），位图缺失或不完整只影响性能不影响正确性。
+ * 位图持锁从数据库构建后写入临时键再原子重命名替换；每次发布/删除/重建都递增版本号 job:exists:version，
+ * 定时核对时版本号未变则跳过，变化时才核对位图与职位表行数（不一致如被淘汰或清空后只剩新职位时重建）并重新加载。
+ * 删除的职位ID在 job:exists:deleted 中保留一段时间，本地命中这些ID时回查数据库，删除消息丢失时也不会误判存在。
+ */
+@Service
+@Slf4j
+public class JobExistenceIndex {
+
+    private static final String BITMAP_KEY = "job:exists";
+    private static final String CHANNEL = "job:exists:channel";
+    private static final String REBUILD_LOCK_KEY = "job:exists:rebuildLock";
+    private static final String TEMP_KEY_PREFIX = "job:exists:tmp:";
+    private static final String VERSION_KEY = "job:exists:version";
+    // 最近删除的职位ID，分值为删除时间
+    private static final String DELETED_KEY = "job:exists:deleted";
+
+    @Resource
+    private RedisUtil redisUtil;
+
+    @Resource
+    private PostsService postsService;
+
+    @Resource
+    private JobExistenceConfig jobExistenceConfig;
+
+    @Resource
+    private RedisMessageListenerContainer redisMessageListenerContainer;
+
+    private final BitSet localBits = new BitSet();
+    private LRUCache<Integer, Boolean> missingIds;
+
+    private final String instanceId = UUID.randomUUID().toString();
+
+    // 本地索引对应的位图版本号
+    private volatile String loadedVersion;
+
+    @PostConstruct
+    public void init() {
+        missingIds = CacheUtil.newLRUCache(jobExistenceConfig.getNegativeCacheSize(), jobExistenceConfig.getNegativeTtlMillis());
+        redisMessageListenerContainer.addMessageListener((message, pattern) -> {
+            try {
+                String body = redisUtil.deserializeMessage(message.getBody());
+                int separator = body.indexOf(':');
+                setLocal(Integer.parseInt(body.substring(0, separator)), "1".equals(body.substring(separator + 1)));
+            } catch (Exception e) {
+                log.error("处理职位存在性同步消息异常: {}", e.getMessage());
+            }
+        }, new ChannelTopic(CHANNEL));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        Thread loader = new Thread(this::checkAndReload, "job-existence-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    /**
+     * 判断职位是否存在
+     */
+    public boolean exists(Integer jobId) {
+        if (jobId == null || jobId <= 0) {
+            return false;
+        }
+        if (getLocal(jobId)) {
+            // 最近删除的职位可能因同步消息丢失仍在本地索引中，以数据库为准
+            if (!recentlyDeleted(jobId)) {
+                return true;
+            }
+            boolean found = postsService.lambdaQuery().eq(Jobs::getId, jobId).exists();
+            if (!found) {
+                setLocal(jobId, false);
+                missingIds.put(jobId, Boolean.TRUE);
+            }
+            return found;
+        }
+        // 本地不存在时可能是其他节点刚发布、同步消息尚未到达
+        try {
+            if (Boolean.TRUE.equals(redisUtil.getBit(BITMAP_KEY, jobId))) {
+                setLocal(jobId, true);
+                return true;
+            }
+        } catch (Exception e) {
+            log.warn("读取职位存在性位图失败，回查数据库 - 职位ID: {}, 错误: {}", jobId, e.getMessage());
+        }
+        if (missingIds.containsKey(jobId)) {
+            return false;
+        }
+        // 位图可能不完整，以数据库为准
+        boolean found = postsService.lambdaQuery().eq(Jobs::getId, jobId).exists();
+        if (found) {
+            setLocal(jobId, true);
+            try {
+                redisUtil.setBit(BITMAP_KEY, jobId, true);
+            } catch (Exception e) {
+                log.warn("补写职位存在性位图失败 - 职位ID: {}, 错误: {}", jobId, e.getMessage());
+            }
+        } else {
+            missingIds.put(jobId, Boolean.TRUE);
+        }
+        return found;
+    }
+
+    /**
+     * 职位发布后更新索引
+     */
+    public void onJobCreated(Integer jobId) {
+        update(jobId, true);
+    }
+
+    /**
+     * 职位删除后更新索引
+     */
+    public void onJobDeleted(Integer jobId) {
+        update(jobId, false);
+    }
+
+    private void update(Integer jobId, boolean exists) {
+        if (jobId == null || jobId <= 0) {
+            return;
+        }
+        setLocal(jobId, exists);
+        try {
+            redisUtil.setBit(BITMAP_KEY, jobId, exists);
+            if (!exists) {
+                long now = System.currentTimeMillis();
+                redisUtil.zAdd(DELETED_KEY, jobId, now);
+                redisUtil.zRemoveRangeByScore(DELETED_KEY, 0, now - jobExistenceConfig.getDeletedRetentionMillis());
+            }
+            redisUtil.incr(VERSION_KEY);
+            redisUtil.publish(CHANNEL, jobId + ":" + (exists ? 1 : 0));
+        } catch (Exception e) {
+            log.error("更新职位存在性位图失败 - 职位ID: {}, 错误: {}", jobId, e.getMessage());
+        }
+    }
+
+    /**
+     * 位图版本号变化时核对Redis位图与职位表行数，位图缺失或不一致时重建，然后用位图替换本地索引
+     */
+    @Scheduled(cron = "${feed.existence.check-cron:0 */10 * * * ?}")
+    public void checkAndReload() {
+        try {
+            // 先读版本号再读位图，读取期间的变化会在下次核对时重新加载
+            String version = readVersion();
+            if (version != null && version.equals(loadedVersion) && Boolean.TRUE.equals(redisUtil.hasKey(BITMAP_KEY))) {
+                return;
+            }
+            long jobCount = postsService.count();
+            BitSet bits = null;
+            try {
+                byte[] raw = redisUtil.getRaw(BITMAP_KEY);
+                if (raw != null) {
+                    bits = fromRedisBitmap(raw);
+                }
+            } catch (Exception e) {
+                log.warn("读取职位存在性位图失败: {}", e.getMessage());
+            }
+            if (bits == null || bits.cardinality() != jobCount) {
+                log.info("职位存在性位图缺失或与职位表不一致，重建 - 位图职位数: {}, 职位表行数: {}",
+                        bits == null ? -1 : bits.cardinality(), jobCount);
+                BitSet rebuilt = rebuild();
+                if (rebuilt != null) {
+                    bits = rebuilt;
+                    version = readVersion();
+                }
+            }
+            if (bits == null) {
+                // 其他节点正在重建或Redis不可用，下次核对时再加载；期间本地未命中回查数据库
+                return;
+            }
+            synchronized (localBits) {
+                localBits.clear();
+                localBits.or(bits);
+            }
+            loadedVersion = version;
+            log.info("职位存在性索引加载完成 - 职位数: {}", bits.cardinality());
+        } catch (Exception e) {
+            log.error("职位存在性索引核对失败，存在性判断将回查数据库: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 持锁从数据库构建位图：写入临时键后原子重命名为正式键，再补上构建期间新发布的职位
+     *
+     * @return 构建的位图，未获得锁或失败时返回null
+     */
+    private BitSet rebuild() {
+        try {
+            if (!Boolean.TRUE.equals(redisUtil.lock(REBUILD_LOCK_KEY, instanceId, jobExistenceConfig.getLockExpireMillis()))) {
+                return null;
+            }
+        } catch (Exception e) {
+            log.warn("获取职位存在性位图重建锁失败: {}", e.getMessage());
+            return null;
+        }
+        try {
+            BitSet bits = new BitSet();
+            int maxId = 0;
+            for (Jobs job : postsService.lambdaQuery().select(Jobs::getId).list()) {
+                bits.set(job.getId());
+                maxId = Math.max(maxId, job.getId());
+            }
+            String tempKey = TEMP_KEY_PREFIX + instanceId;
+            redisUtil.setRaw(tempKey, toRedisBitmap(bits));
+            redisUtil.rename(tempKey, BITMAP_KEY);
+            redisUtil.incr(VERSION_KEY);
+            // 构建期间发布的职位写入的是旧位图，替换后按ID补上
+            for (Jobs job : postsService.lambdaQuery().select(Jobs::getId).gt(Jobs::getId, maxId).list()) {
+                bits.set(job.getId());
+                redisUtil.setBit(BITMAP_KEY, job.getId(), true);
+            }
+            log.info("重建职位存在性位图完成 - 职位数: {}", bits.cardinality());
+            return bits;
+        } catch (Exception e) {
+            log.error("重建职位存在性位图失败: {}", e.getMessage());
+            return null;
+        } finally {
+            try {
+                redisUtil.releaseLock(REBUILD_LOCK_KEY, instanceId);
+            } catch (Exception e) {
+                log.warn("释放职位存在性位图重建锁失败: {}", e.getMessage());
+            }
+        }
+    }
+
+    private boolean recentlyDeleted(int jobId) {
+        try {
+            return redisUtil.zScore(DELETED_KEY, jobId) != null;
+        } catch (Exception e) {
+            log.warn("读取最近删除职位失败 - 职位ID: {}, 错误: {}", jobId, e.getMessage());
+            return false;
+        }
+    }
+
+    private String readVersion() {
+        try {
+            byte[] raw = redisUtil.getRaw(VERSION_KEY);
+            return raw == null ? "" : new String(raw, StandardCharsets.UTF_8);
+        } catch (Exception e) {
+            log.warn("读取职位存在性位图版本号失败: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private boolean getLocal(int jobId) {
+        synchronized (localBits) {
+            return localBits.get(jobId);
+        }
+    }
+
+    private void setLocal(int jobId, boolean exists) {
+        synchronized (localBits) {
+            localBits.set(jobId, exists);
+        }
+        if (exists) {
+            missingIds.remove(jobId);
+        }
+    }
+
+    /**
+     * Redis位图的第0位是第一个字节的最高位，与BitSet的字节序相反
+     */
+    private static BitSet fromRedisBitmap(byte[] raw) {
+        byte[] reversed = new byte[raw.length];
+        for (int i = 0; i < raw.length; i++) {
+            reversed[i] = (byte) (Integer.reverse(raw[i] & 0xFF) >>> 24);
+        }
+        return BitSet.valueOf(reversed);
+    }
+
+    private static byte[] toRedisBitmap(BitSet bits) {
+        byte[] bytes = bits.toByteArray();
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) (Integer.reverse(bytes[i] & 0xFF) >>> 24);
+        }
+        return bytes;
+    }
+}
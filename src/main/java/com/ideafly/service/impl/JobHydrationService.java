@@ -0,0 +1,172 @@
+package com.ideafly.service.impl;
+
+import com.ideafly.config.FeedHydrationConfig;
+import com.ideafly.config.QueryDeadlineInterceptor;
+import com.ideafly.dto.job.JobDetailOutputDto;
+import com.ideafly.model.Jobs;
+import com.ideafly.model.interact.JobStats;
+import com.ideafly.dto.user.UserSummaryDto;
+import com.ideafly.service.impl.interact.JobFavoriteService;
+import com.ideafly.service.impl.interact.JobLikesService;
+import com.ideafly.service.impl.interact.JobStatsService;
+import com.ideafly.service.impl.users.UsersService;
+import com.ideafly.utils.CursorUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.Resource;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * 职位列表数据组装服务
+ * 用户信息、计数、点赞状态、收藏状态互不依赖，并发查询后再组装DTO，
+ * 列表耗时取决于最慢的一个阶段而不是各阶段之和；单个阶段超时则按默认值降级，
+ * 并中断该阶段的线程，阶段内的SQL带有截止时间对应的语句超时，不会继续占用线程和数据库连接
+ */
+@Service
+@Slf4j
+public class JobHydrationService {
+
+    @Resource
+    private UsersService usersService;
+
+    @Resource
+    private JobStatsService jobStatsService;
+
+    @Resource
+    private JobLikesService jobLikesService;
+
+    @Resource
+    private JobFavoriteService jobFavoriteService;
+
+    @Resource
+    private PostsService postsService;
+
+    @Resource
+    private FeedHydrationConfig feedHydrationConfig;
+
+    @Resource
+    @Qualifier("feedHydrationExecutor")
+    private ThreadPoolTaskExecutor feedHydrationExecutor;
+
+    /**
+     * 组装职位列表DTO
+     *
+     * @param jobs   职位列表（保持原有顺序）
+     * @param userId 当前用户ID，为空时点赞/收藏状态均为false
+     */
+    public List<JobDetailOutputDto> hydrate(List<Jobs> jobs, String userId) {
+        return hydrate(jobs, userId, false, false);
+    }
+
+    /**
+     * 组装职位列表DTO
+     *
+     * @param jobs         职位列表（保持原有顺序）
+     * @param userId       当前用户ID，为空时点赞/收藏状态均为false
+     * @param allLiked     已知列表全部被当前用户点赞（点赞列表），跳过点赞状态查询
+     * @param allFavorited 已知列表全部被当前用户收藏（收藏列表），跳过收藏状态查询
+     */
+    public List<JobDetailOutputDto> hydrate(List<Jobs> jobs, String userId, boolean allLiked, boolean allFavorited) {
+        if (jobs == null || jobs.isEmpty()) {
+            return new ArrayList<>();
+        }
+        long startTime = System.currentTimeMillis();
+
+        Set<String> userIds = jobs.stream()
+                .map(Jobs::getUserId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        List<Integer> jobIds = jobs.stream()
+                .map(Jobs::getId)
+                .collect(Collectors.toList());
+        boolean loggedIn = userId != null;
+
+        // 并发发起各阶段查询
+        long deadline = startTime + feedHydrationConfig.getStageTimeoutMillis();
+        Future<Map<String, UserSummaryDto>> usersFuture = submit(() -> usersService.getSummaries(userIds), deadline);
+        Future<Map<Integer, JobStats>> statsFuture = submit(() -> jobStatsService.getStatsMap(jobIds), deadline);
+        Future<Map<Integer, Boolean>> likeFuture = loggedIn && !allLiked
+                ? submit(() -> jobLikesService.batchGetLikeStatus(jobIds, userId), deadline)
+                : CompletableFuture.completedFuture(fixedStatus(jobIds, loggedIn && allLiked));
+        Future<Map<Integer, Boolean>> favoriteFuture = loggedIn && !allFavorited
+                ? submit(() -> jobFavoriteService.batchGetFavoriteStatus(jobIds, userId), deadline)
+                : CompletableFuture.completedFuture(fixedStatus(jobIds, loggedIn && allFavorited));
+
+        // 各阶段独立计时，超时或异常时降级为默认值
+        Map<String, UserSummaryDto> userMap = await("用户信息", usersFuture, startTime);
+        Map<Integer, JobStats> statsMap = await("计数", statsFuture, startTime);
+        Map<Integer, Boolean> likeMap = await("点赞状态", likeFuture, startTime);
+        Map<Integer, Boolean> favoriteMap = await("收藏状态", favoriteFuture, startTime);
+
+        Map<Integer, Integer> likesCountMap = new HashMap<>();
+        Map<Integer, Integer> favoritesCountMap = new HashMap<>();
+        Map<Integer, Integer> commentsCountMap = new HashMap<>();
+        statsMap.forEach((jobId, stats) -> {
+            likesCountMap.put(jobId, stats.getLikesCount());
+            favoritesCountMap.put(jobId, stats.getFavoritesCount());
+            commentsCountMap.put(jobId, stats.getCommentsCount());
+        });
+
+        List<JobDetailOutputDto> result = jobs.stream().map(job -> {
+            JobDetailOutputDto dto = postsService.convertDto(
+                    job,
+                    userMap,
+                    likesCountMap,
+                    favoritesCountMap,
+                    commentsCountMap,
+                    favoriteMap,
+                    likeMap
+            );
+            // 设置游标值（前端可能需要）
+            dto.setCursor(CursorUtils.encodeCursor(job.getCreatedAt(), job.getId()));
+            return dto;
+        }).collect(Collectors.toList());
+
+        log.info("【性能日志】职位列表数据组装完成 - 职位数量: {}, 耗时: {}ms", jobs.size(), (System.currentTimeMillis() - startTime));
+        return result;
+    }
+
+    /**
+     * 提交一个阶段：基于FutureTask，超时取消时会中断执行线程（CompletableFuture.cancel不会中断）
+     */
+    private <T> Future<T> submit(Supplier<T> supplier, long deadlineMillis) {
+        return feedHydrationExecutor.submit(() -> QueryDeadlineInterceptor.callWithDeadline(deadlineMillis, supplier));
+    }
+
+    /**
+     * 等待某个阶段结果，超时时间从整体开始时间算起
+     */
+    private <K, V> Map<K, V> await(String stageName, Future<Map<K, V>> future, long startTime) {
+        long remaining = feedHydrationConfig.getStageTimeoutMillis() - (System.currentTimeMillis() - startTime);
+        try {
+            Map<K, V> value = future.get(Math.max(remaining, 0), TimeUnit.MILLISECONDS);
+            return value != null ? value : new HashMap<>();
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            log.warn("【性能日志】{}查询超时({}ms)，降级为默认值", stageName, feedHydrationConfig.getStageTimeoutMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("【性能日志】{}查询被中断，降级为默认值", stageName);
+        } catch (Exception e) {
+            log.error("【性能日志】{}查询异常，降级为默认值: {}", stageName, e.getMessage());
+        }
+        return new HashMap<>();
+    }
+
+    private Map<Integer, Boolean> fixedStatus(List<Integer> jobIds, boolean value) {
+        Map<Integer, Boolean> result = new HashMap<>();
+        for (Integer jobId : jobIds) {
+            result.put(jobId, value);
+        }
+        return result;
+    }
+}
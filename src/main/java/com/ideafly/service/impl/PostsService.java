@@ -11,19 +11,26 @@ import com.ideafly.dto.job.JobDetailOutputDto;
 import com.ideafly.dto.job.JobListInputDto;
 import com.ideafly.mapper.JobsMapper;
 import com.ideafly.model.Jobs;
-import com.ideafly.model.users.Users;
+import com.ideafly.model.interact.JobStats;
+import com.ideafly.dto.user.UserSummaryDto;
 import com.ideafly.service.UserFollowService;
 import com.ideafly.service.impl.interact.CommentService;
 import com.ideafly.service.impl.interact.JobFavoriteService;
 import com.ideafly.service.impl.interact.JobLikesService;
+import com.ideafly.service.impl.interact.JobStatsService;
+import com.ideafly.service.impl.users.UserStatsService;
 import com.ideafly.service.impl.users.UsersService;
-import com.ideafly.utils.CursorUtils;
+import com.ideafly.utils.KeysetPagination;
 import com.ideafly.utils.TimeUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import lombok.extern.slf4j.Slf4j;
 
 import javax.annotation.Resource;
+import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -44,6 +51,21 @@ public class PostsService extends ServiceImpl<JobsMapper, Jobs> {
     
     @Resource
     private UserFollowService userFollowService;
+    
+    @Resource
+    private JobStatsService jobStatsService;
+    
+    @Resource
+    private JobHydrationService jobHydrationService;
+    
+    @Resource
+    private FollowingTimelineService followingTimelineService;
+
+    @Resource
+    private JobExistenceIndex jobExistenceIndex;
+
+    @Resource
+    private UserStatsService userStatsService;
 
     /**
      * 使用游标分页获取职位列表
@@ -56,123 +78,10 @@ public class PostsService extends ServiceImpl<JobsMapper, Jobs> {
             request.setPageSize(3); // 保持与前端一致的默认值
         }
         
-        // 构建查询条件
-        LambdaQueryWrapper<Jobs> queryWrapper = new LambdaQueryWrapper<>();
-        
-        // 解析游标
-        String maxCursor = request.getMaxCursor();
-        String minCursor = request.getMinCursor();
-        
-        boolean isForward = StringUtils.isNotBlank(maxCursor); // 向前查询（历史内容）
-        boolean isBackward = StringUtils.isNotBlank(minCursor); // 向后查询（新内容）
-        
-        if (isForward && isBackward) {
-            // 不能同时指定两个方向，以maxCursor为优先
-            isBackward = false;
-        }
-        
-        // 根据游标构建查询条件
-        if (isForward) {
-            // 解析maxCursor (向左滑，获取历史内容)
-            Map<String, Object> maxCursorValues = CursorUtils.decodeCursor(maxCursor);
-            if (maxCursorValues != null) {
-                final Date forwardTimestamp = (Date) maxCursorValues.get("timestamp");
-                final Integer forwardId = (Integer) maxCursorValues.get("id");
-                
-                // 构建查询条件：获取比当前游标更早的内容
-                if (forwardTimestamp != null && forwardId != null) {
-                    // 时间相同时按ID降序，时间比游标早或时间相同但ID更小
-                    queryWrapper.and(w -> w
-                            .lt(Jobs::getCreatedAt, forwardTimestamp)
-                            .or(o -> o
-                                    .eq(Jobs::getCreatedAt, forwardTimestamp)
-                                    .lt(Jobs::getId, forwardId)
-                            )
-                    );
-                }
-            }
-            // 按时间降序，同一时间按ID降序
-            queryWrapper.orderByDesc(Jobs::getCreatedAt, Jobs::getId);
-            
-        } else if (isBackward) {
-            // 解析minCursor (向右滑，获取更新内容)
-            Map<String, Object> minCursorValues = CursorUtils.decodeCursor(minCursor);
-            if (minCursorValues != null) {
-                final Date backwardTimestamp = (Date) minCursorValues.get("timestamp");
-                final Integer backwardId = (Integer) minCursorValues.get("id");
-                
-                // 构建查询条件：获取比当前游标更新的内容
-                if (backwardTimestamp != null && backwardId != null) {
-                    // 时间比游标新或时间相同但ID更大
-                    queryWrapper.and(w -> w
-                            .gt(Jobs::getCreatedAt, backwardTimestamp)
-                            .or(o -> o
-                                    .eq(Jobs::getCreatedAt, backwardTimestamp)
-                                    .gt(Jobs::getId, backwardId)
-                            )
-                    );
-                }
-            }
-            // 按时间升序，同一时间按ID升序（获取后需要反转）
-            queryWrapper.orderByAsc(Jobs::getCreatedAt, Jobs::getId);
-            
-        } else {
-            // 没有指定游标，获取最新内容
-            queryWrapper.orderByDesc(Jobs::getCreatedAt, Jobs::getId);
-        }
-        
-        // 查询数据
-        Integer limit = request.getPageSize() + 1; // 多查一条用于判断是否有更多数据
-        List<Jobs> jobs = this.list(queryWrapper.last("LIMIT " + limit));
-        
-        // 如果是向后查询，需要反转结果顺序
-        if (isBackward && !jobs.isEmpty()) {
-            Collections.reverse(jobs);
-        }
-        
-        // 判断是否有更多数据
-        boolean hasMore = jobs.size() > request.getPageSize();
-        if (hasMore) {
-            // 移除多查的一条数据
-            jobs.remove(jobs.size() - 1);
-        }
-        
-        // 处理空结果
-        if (jobs.isEmpty()) {
-            return new CursorResponseDto<>(
-                    new ArrayList<>(),
-                    maxCursor, // 保持原游标
-                    minCursor, // 保持原游标
-                    isForward ? hasMore : false,
-                    isBackward ? hasMore : false,
-                    0L
-            );
-        }
-        
-        // 计算下一个游标
-        String nextMaxCursor = null;
-        String nextMinCursor = null;
-        
-        if (!jobs.isEmpty()) {
-            // 获取历史方向的下一个游标（最后一条记录）
-            Jobs lastJob = jobs.get(jobs.size() - 1);
-            nextMaxCursor = CursorUtils.encodeCursor(lastJob.getCreatedAt(), lastJob.getId());
-            
-            // 确保下一个maxCursor与请求的maxCursor不同
-            if (nextMaxCursor.equals(maxCursor)) {
-                log.warn("新生成的maxCursor与请求的相同，可能导致重复数据");
-                // 如果查询条件正确但结果游标相同，说明已经没有更多数据了
-                // 覆盖hasMore标志，防止前端无限请求相同数据
-                hasMore = false;
-                
-                // 输出最老记录信息，便于调试
-                log.warn("强制设置hasMore=false，最后一条记录ID: {}, 创建时间: {}", lastJob.getId(), lastJob.getCreatedAt());
-            }
-            
-            // 获取新内容方向的下一个游标（第一条记录）
-            Jobs firstJob = jobs.get(0);
-            nextMinCursor = CursorUtils.encodeCursor(firstJob.getCreatedAt(), firstJob.getId());
-        }
+        // 构建游标条件并查询数据
+        KeysetPagination<Jobs> pagination = KeysetPagination.of(Jobs::getCreatedAt, Jobs::getId,
+                request.getMaxCursor(), request.getMinCursor(), request.getPageSize());
+        List<Jobs> jobs = pagination.page(this.list(pagination.apply(new LambdaQueryWrapper<>())));
         
         // 处理作品数据，与现有逻辑保持一致
         // 转换为DTO
@@ -181,109 +90,15 @@ public class PostsService extends ServiceImpl<JobsMapper, Jobs> {
         long endTime = System.currentTimeMillis();
         log.info("游标分页获取职位列表完成 - 耗时: {}ms", (endTime - startTime));
         
-        return new CursorResponseDto<>(
-                dtoList,
-                (!isForward && !isBackward && !jobs.isEmpty()) || (isForward && hasMore) ? nextMaxCursor : maxCursor,
-                (!isForward && !isBackward && !jobs.isEmpty()) || (isBackward && hasMore) ? nextMinCursor : minCursor,
-                isForward ? hasMore : true, // 历史方向是否有更多数据
-                isBackward ? hasMore : false, // 新内容方向是否有更多数据（初始加载时为false，因为已加载最新数据）
-                (long) dtoList.size()
-        );
+        return pagination.toResponse(dtoList);
     }
     
     /**
      * 处理作品数据，转换为DTO
      */
     private List<JobDetailOutputDto> processJobsForOutput(List<Jobs> jobs) {
-        if (jobs.isEmpty()) {
-            return new ArrayList<>();
-        }
-        
-        // 批量获取所有用户ID
-        Set<String> userIds = jobs.stream()
-                .map(Jobs::getUserId)
-                .filter(Objects::nonNull)
-                .collect(Collectors.toSet());
-        
-        List<Integer> jobIds = jobs.stream()
-                .map(Jobs::getId)
-                .collect(Collectors.toList());
-        
-        // 批量查询用户信息
-        final Map<String, Users> userMap;
-        if (!userIds.isEmpty()) {
-            List<Users> users = usersService.listByIds(userIds);
-            userMap = users.stream()
-                    .collect(Collectors.toMap(Users::getId, user -> user, (a, b) -> a));
-        } else {
-            userMap = new HashMap<>();
-        }
-        
-        // 批量查询收藏和点赞状态
-        
-        // 批量查询点赞、收藏和评论数量
-        final Map<Integer, Integer> likesCountMap = new HashMap<>();
-        final Map<Integer, Integer> favoritesCountMap = new HashMap<>();
-        final Map<Integer, Integer> commentsCountMap = new HashMap<>();
-        
-        // 批量获取统计数据
-        if (!jobIds.isEmpty()) {
-            try {
-                // 批量查询点赞数
-                for (Integer jobId : jobIds) {
-                    int likesCount = jobLikesService.getJobLikesCount(jobId);
-                    likesCountMap.put(jobId, likesCount);
-                }
-                
-                // 批量查询收藏数
-                for (Integer jobId : jobIds) {
-                    int favoritesCount = jobFavoriteService.getJobFavoritesCount(jobId);
-                    favoritesCountMap.put(jobId, favoritesCount);
-                }
-                
-                // 批量查询评论数
-                for (Integer jobId : jobIds) {
-                    int commentsCount = commentService.getJobCommentsCount(jobId);
-                    commentsCountMap.put(jobId, commentsCount);
-                }
-            } catch (Exception e) {
-                log.error("批量获取统计数据异常: {}", e.getMessage(), e);
-            }
-        }
-        
-        // 转换为DTO
-        return jobs.stream().map(job -> {
-            JobDetailOutputDto dto = BeanUtil.copyProperties(job, JobDetailOutputDto.class);
-            
-            // 设置职位基本信息
-            dto.setPostTitle(job.getPostTitle());
-            dto.setPostContent(job.getPostContent());
-            
-            // 设置统计数据
-            dto.setLikes(likesCountMap.getOrDefault(job.getId(), 0));
-            dto.setFavorites(favoritesCountMap.getOrDefault(job.getId(), 0));
-            dto.setComments(commentsCountMap.getOrDefault(job.getId(), 0));
-            dto.setShares(0); // 暂时设置为0
-            
-            // 设置用户信息
-            Users user = userMap.get(job.getUserId());
-            if (user != null) {
-                dto.setPublisherName(user.getUsername());
-                dto.setPublisherAvatar(user.getAvatar());
-            }
-            
-            // 设置发布时间
-            dto.setPublishTime(TimeUtils.formatRelativeTime(job.getCreatedAt()) + "发布");
-            
-            // 设置收藏和点赞状态（未登录用户默认为false）
-            dto.setIsLike(false);
-            dto.setIsFavorite(false);
-            
-            // 设置游标值（前端可能需要）
-            dto.setCursor(CursorUtils.encodeCursor(job.getCreatedAt(), job.getId()));
-            
-            return dto;
-        }).collect(Collectors.toList());
+        // 用户信息与计数并发查询（未登录用户点赞、收藏状态默认为false）
+        return jobHydrationService.hydrate(jobs, null);
     }
     
 
@@ -298,7 +113,7 @@ public class PostsService extends ServiceImpl<JobsMapper, Jobs> {
         
         // 获取用户信息 (可能耗时)
         long userQueryStart = System.currentTimeMillis();
-        Users user = usersService.getById(job.getUserId());
+        UserSummaryDto user = usersService.getSummary(job.getUserId());
         long userQueryEnd = System.currentTimeMillis();
         
         if (userQueryEnd - userQueryStart > 50) {
@@ -312,16 +127,14 @@ public class PostsService extends ServiceImpl<JobsMapper, Jobs> {
 
         dto.setPublishTime(TimeUtils.formatRelativeTime(job.getCreatedAt()) + "发布");
         
-        // 设置统计数据 (从各自的Service动态获取)
+        // 设置统计数据 (从计数表获取)
         long statsQueryStart = System.currentTimeMillis();
         try {
-            int likesCount = jobLikesService.getJobLikesCount(job.getId());
-            int favoritesCount = jobFavoriteService.getJobFavoritesCount(job.getId());
-            int commentsCount = commentService.getJobCommentsCount(job.getId());
+            JobStats stats = jobStatsService.getStats(job.getId());
             
-            dto.setLikes(likesCount);
-            dto.setFavorites(favoritesCount);
-            dto.setComments(commentsCount);
+            dto.setLikes(stats.getLikesCount());
+            dto.setFavorites(stats.getFavoritesCount());
+            dto.setComments(stats.getCommentsCount());
             dto.setShares(0); // 暂时设置为0，如果有共享计数表，可以从那里获取
         } catch (Exception e) {
             log.error("获取统计数据失败: {}", e.getMessage(), e);
@@ -352,7 +165,7 @@ public class PostsService extends ServiceImpl<JobsMapper, Jobs> {
     // 新增重载方法，支持批量转换多个职位，减少重复查询
     public JobDetailOutputDto convertDto(
             Jobs job,
-            Map<String, Users> userMap,
+            Map<String, UserSummaryDto> userMap,
             Map<Integer, Integer> likesCountMap,
             Map<Integer, Integer> favoritesCountMap, 
             Map<Integer, Integer> commentsCountMap,
@@ -363,7 +176,7 @@ public class PostsService extends ServiceImpl<JobsMapper, Jobs> {
         dto.setPostTitle(job.getPostTitle());
         dto.setPostContent(job.getPostContent());
         // 设置用户信息（从Map获取，避免查询）
-        Users user = userMap.get(job.getUserId());
+        UserSummaryDto user = userMap.get(job.getUserId());
         if (user != null) {
             dto.setPublisherName(user.getUsername());
             dto.setPublisherAvatar(user.getAvatar());
@@ -387,7 +200,11 @@ public class PostsService extends ServiceImpl<JobsMapper, Jobs> {
         job.setPostTitle(request.getPostTitle());
         job.setPostContent(request.getPostContent());
         job.setUserId(userId);
+        // 显式设置发布时间（与TIMESTAMP列精度一致），写扩散时间线需要用它作为分值
+        job.setCreatedAt(LocalDateTime.now().withNano(0));
         this.save(job);
+        jobExistenceIndex.onJobCreated(job.getId());
+        followingTimelineService.onJobCreated(job);
         return job;
     }
     
@@ -397,6 +214,7 @@ public class PostsService extends ServiceImpl<JobsMapper, Jobs> {
      * @param userId 操作用户ID
      * @return 删除是否成功
      */
+    @Transactional(rollbackFor = Exception.class)
     public boolean deleteJob(Integer jobId, String userId) {
         log.info("尝试删除帖子 - 帖子ID: {}, 操作用户ID: {}", jobId, userId);
         if (jobId == null || userId == null) {
@@ -415,10 +233,25 @@ public class PostsService extends ServiceImpl<JobsMapper, Jobs> {
             return false; // 帖子不存在或用户无权删除
         }
         
+        // 删除前读取点赞数，用于扣减作者获赞数
+        JobStats stats = jobStatsService.getById(jobId);
+        
         // 执行删除
         boolean deleted = this.removeById(jobId);
         if (deleted) {
             log.info("帖子删除成功 - 帖子ID: {}", jobId);
+            if (stats != null) {
+                userStatsService.incrLikesReceived(userId, -stats.getLikesCount());
+            }
+            jobStatsService.removeStats(jobId);
+            // 存在性索引和时间线在提交后再更新，删除回滚时不会误删
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    jobExistenceIndex.onJobDeleted(jobId);
+                    followingTimelineService.onJobDeleted(job);
+                }
+            });
             // TODO: 这里可以考虑删除关联的点赞、收藏、评论等数据
         } else {
             log.error("帖子删除失败（数据库操作失败） - 帖子ID: {}", jobId);
@@ -486,70 +319,8 @@ public class PostsService extends ServiceImpl<JobsMapper, Jobs> {
                 return new Page<>();
             }
             
-            // 批量获取所有用户ID
-            Set<String> userIds = jobs.stream()
-                .map(Jobs::getUserId)
-                .filter(Objects::nonNull)
-                .collect(Collectors.toSet());
-            
-            List<Integer> jobIds = jobs.stream()
-                .map(Jobs::getId)
-                .collect(Collectors.toList());
-            
-            // 批量查询用户信息
-            final Map<String, Users> userMap;
-            if (!userIds.isEmpty()) {
-                List<Users> users = usersService.listByIds(userIds);
-                userMap = users.stream()
-                    .collect(Collectors.toMap(Users::getId, user -> user, (a, b) -> a));
-            } else {
-                userMap = new HashMap<>();
-            }
-            
-            // 批量查询统计数据
-            final Map<Integer, Integer> likesCountMap = new HashMap<>();
-            final Map<Integer, Integer> favoritesCountMap = new HashMap<>();
-            final Map<Integer, Integer> commentsCountMap = new HashMap<>();
-            final Map<Integer, Boolean> favoriteMap = new HashMap<>();
-            final Map<Integer, Boolean> likeMap = new HashMap<>();
-            
-            if (!jobIds.isEmpty()) {
-                // 批量查询点赞数
-                for (Integer jobId : jobIds) {
-                    likesCountMap.put(jobId, jobLikesService.getJobLikesCount(jobId));
-                }
-                
-                // 批量查询收藏数
-                for (Integer jobId : jobIds) {
-                    favoritesCountMap.put(jobId, jobFavoriteService.getJobFavoritesCount(jobId));
-                }
-                
-                // 批量查询评论数
-                for (Integer jobId : jobIds) {
-                    commentsCountMap.put(jobId, commentService.getJobCommentsCount(jobId));
-                }
-                
-                // 批量查询收藏状态
-                Map<Integer, Boolean> tempFavoriteMap = jobFavoriteService.batchGetFavoriteStatus(jobIds, userId);
-                favoriteMap.putAll(tempFavoriteMap);
-                
-                // 批量查询点赞状态
-                Map<Integer, Boolean> tempLikeMap = jobLikesService.batchGetLikeStatus(jobIds, userId);
-                likeMap.putAll(tempLikeMap);
-            }
-            
-            // 转换为DTO
-            List<JobDetailOutputDto> dtoList = jobs.stream()
-                .map(job -> convertDto(
-                    job, 
-                    userMap, 
-                    likesCountMap, 
-                    favoritesCountMap, 
-                    commentsCountMap, 
-                    favoriteMap, 
-                    likeMap
-                ))
-                .collect(Collectors.toList());
+            // 并发查询用户信息、计数、点赞和收藏状态并转换为DTO
+            List<JobDetailOutputDto> dtoList = jobHydrationService.hydrate(jobs, userId);
             
             // 构建分页结果
             Page<JobDetailOutputDto> result = new Page<>();
@@ -569,6 +340,63 @@ public class PostsService extends ServiceImpl<JobsMapper, Jobs> {
         }
     }
 
+    /**
+     * 使用游标分页获取关注用户发布的帖子
+     * 与getJobsWithCursor使用相同的(created_at, id)游标条件，不执行COUNT查询
+     *
+     * @param request 游标请求参数
+     * @param userId 当前用户ID
+     * @return 关注用户的帖子列表（游标分页）
+     */
+    public CursorResponseDto<JobDetailOutputDto> getFollowingUserJobsWithCursor(JobListInputDto request, String userId) {
+        long startTime = System.currentTimeMillis();
+        
+        if (userId == null) {
+            log.warn("用户未登录，无法获取关注用户帖子");
+            throw new IllegalArgumentException("用户未登录");
+        }
+        
+        // 默认每页大小，如果未指定
+        if (request.getPageSize() == null || request.getPageSize() <= 0) {
+            request.setPageSize(20);
+        }
+        
+        KeysetPagination<Jobs> pagination = KeysetPagination.of(Jobs::getCreatedAt, Jobs::getId,
+                request.getMaxCursor(), request.getMinCursor(), request.getPageSize());
+        
+        // 获取当前用户关注的用户ID列表
+        List<String> followingUserIds = userFollowService.getFollowingUserIds(userId);
+        if (CollUtil.isEmpty(followingUserIds)) {
+            log.info("用户未关注任何人，返回空结果");
+            return pagination.toResponse(new ArrayList<>());
+        }
+        
+        // 查询数据
+        List<Jobs> jobs = pagination.page(listJobsByUsersWithCursor(followingUserIds, pagination));
+        
+        // 并发查询用户信息、计数、点赞和收藏状态并转换为DTO
+        List<JobDetailOutputDto> dtoList = jobHydrationService.hydrate(jobs, userId);
+        
+        long endTime = System.currentTimeMillis();
+        log.info("游标分页获取关注用户帖子完成 - 耗时:{}ms, 记录数:{}", (endTime - startTime), dtoList.size());
+        
+        return pagination.toResponse(dtoList);
+    }
+
+    /**
+     * 按(created_at, id)游标查询指定作者发布的职位
+     *
+     * @param userIds    作者ID列表
+     * @param pagination 游标分页条件
+     * @return 未经page处理的查询结果（最多pageSize + 1条）
+     */
+    public List<Jobs> listJobsByUsersWithCursor(Collection<String> userIds, KeysetPagination<Jobs> pagination) {
+        if (CollUtil.isEmpty(userIds)) {
+            return new ArrayList<>();
+        }
+        return this.list(pagination.apply(new LambdaQueryWrapper<Jobs>().in(Jobs::getUserId, userIds)));
+    }
+
     /**
      * 获取用户发布的职位列表
      */
@@ -613,95 +441,21 @@ public class PostsService extends ServiceImpl<JobsMapper, Jobs> {
         
         log.debug("getUserPostsWithCursor 请求的页面大小: {}", request.getPageSize());
         
-        // 构建查询条件
-        LambdaQueryWrapper<Jobs> queryWrapper = new LambdaQueryWrapper<>();
-        
-        // 只查询当前用户的作品
-        queryWrapper.eq(Jobs::getUserId, userId);
-        
-        // 解析游标
+        // 只查询当前用户的作品，只支持向下加载更多（历史方向）
         String maxCursor = request.getMaxCursor();
         String minCursor = request.getMinCursor();
-        
-        boolean isForward = StringUtils.isNotBlank(maxCursor); // 向前查询（历史内容）
-        boolean isBackward = StringUtils.isNotBlank(minCursor); // 向后查询（新内容）
-        
-        if (isForward && isBackward) {
-            // 不能同时指定两个方向，以maxCursor为优先
-            isBackward = false;
+        KeysetPagination<Jobs> pagination = KeysetPagination.of(Jobs::getCreatedAt, Jobs::getId, maxCursor, request.getPageSize());
+        if (StringUtils.isNotBlank(maxCursor) && !pagination.hasCursor()) {
+            log.warn("游标解析失败 - maxCursor无法解码: {}", maxCursor);
         }
-        
-        // 保存解析后的游标值，用于后续处理
-        Map<String, Object> maxCursorValues = null;
-        
-        // 根据游标构建查询条件
-        if (isForward) {
-            // 解析maxCursor (向下滑动，获取历史内容)
-            maxCursorValues = CursorUtils.decodeCursor(maxCursor);
-            
-            if (maxCursorValues != null) {
-                final Date forwardTimestamp = (Date) maxCursorValues.get("timestamp");
-                final Integer forwardId = (Integer) maxCursorValues.get("id");
-                
-                // 构建查询条件：获取比当前游标更早的内容
-                if (forwardTimestamp != null && forwardId != null) {
-                    // 添加排除当前游标指向的记录自身的条件
-                    queryWrapper.and(w -> w
-                            .lt(Jobs::getCreatedAt, forwardTimestamp)
-                            .or(o -> o
-                                    .eq(Jobs::getCreatedAt, forwardTimestamp)
-                                    .lt(Jobs::getId, forwardId)
-                            )
-                    );
-                    
-                    log.debug("查询条件：历史方向: 时间 < {}, 或 (时间 = {}, 且 ID < {})", forwardTimestamp, forwardTimestamp, forwardId);
-                    
-                    // 打印解析后的游标值用于调试
-                    log.debug("游标解析结果 maxCursor: {}, -> timestamp: {}, id: {}", maxCursor, forwardTimestamp, forwardId);
-                } else {
-                    log.warn("游标解析错误 - 无法从maxCursor提取timestamp或id: {}", maxCursor);
-                }
-            } else {
-                log.warn("游标解析失败 - maxCursor无法解码: {}", maxCursor);
-            }
-        } else {
-            // 没有指定游标，获取最新内容
-            log.debug("查询条件：首次加载，获取最新内容");
-        }
-        
-        // 保持创建时间和ID的双重排序，确保游标工作正常
-        queryWrapper.orderByDesc(Jobs::getCreatedAt, Jobs::getId);
-        
-        // 多查询一条用于判断是否还有更多数据
-        int limit = request.getPageSize() + 1;
-        log.debug("getUserPostsWithCursor 实际查询限制数量: {}", limit);
-        
-        // 打印最终SQL，确保条件正确添加
-        String finalSql = queryWrapper.getCustomSqlSegment() + " LIMIT " + limit;
-        log.debug("最终SQL条件: {}", finalSql);
+        LambdaQueryWrapper<Jobs> queryWrapper = pagination.apply(new LambdaQueryWrapper<Jobs>().eq(Jobs::getUserId, userId));
+        log.debug("最终SQL条件: {}", queryWrapper.getCustomSqlSegment());
         
         // 执行查询
-        List<Jobs> jobs = this.list(queryWrapper.last("LIMIT " + limit));
-        
-        log.debug("getUserPostsWithCursor 查询到原始记录数: {}", jobs.size());
-        
-        // 记录查询结果中的所有ID，用于调试
-        if (!jobs.isEmpty()) {
-            String resultIds = jobs.stream()
-                .map(job -> job.getId().toString())
-                .collect(Collectors.joining(", "));
-            log.debug("查询结果 职位ID列表: {}", resultIds);
-        } else {
-            log.debug("查询结果 没有匹配的记录");
-        }
-        
-        // 判断是否有更多数据
-        boolean hasMore = jobs.size() > request.getPageSize();
-        if (hasMore) {
-            // 移除多查的一条数据
-            jobs.remove(jobs.size() - 1);
-            log.debug("getUserPostsWithCursor 移除额外记录后的记录数: {}", jobs.size());
-        }
+        List<Jobs> rows = this.list(queryWrapper);
+        log.debug("getUserPostsWithCursor 查询到原始记录数: {}", rows.size());
+        List<Jobs> jobs = pagination.page(rows);
+        boolean hasMore = pagination.hasMore();
         
         // 处理空结果
         if (jobs.isEmpty()) {
@@ -716,51 +470,19 @@ public class PostsService extends ServiceImpl<JobsMapper, Jobs> {
             );
         }
         
-        // 计算下一个游标
-        String nextMaxCursor = null;
-        String nextMinCursor = null;
-        
-        // 获取历史方向的下一个游标（最后一条记录）
-        Jobs lastJob = jobs.get(jobs.size() - 1);
-        nextMaxCursor = CursorUtils.encodeCursor(lastJob.getCreatedAt(), lastJob.getId());
-        log.debug("游标生成 nextMaxCursor已生成 - 基于最后一条记录: ID={}, 创建时间={}, 生成游标={}", lastJob.getId(), lastJob.getCreatedAt(), nextMaxCursor);
-        
-        // 获取新内容方向的下一个游标（第一条记录）
-        Jobs firstJob = jobs.get(0);
-        nextMinCursor = CursorUtils.encodeCursor(firstJob.getCreatedAt(), firstJob.getId());
-        log.debug("游标生成 nextMinCursor已生成 - 基于第一条记录: ID={}, 创建时间={}, 生成游标={}", firstJob.getId(), firstJob.getCreatedAt(), nextMinCursor);
-        
-        // 检查游标是否正常更新
-        boolean sameAsPrevious = isForward && nextMaxCursor.equals(maxCursor);
-        if (sameAsPrevious) {
-            log.warn("下一个maxCursor与当前相同，这可能导致无限重复数据！");
-            log.warn("  - 当前maxCursor: {}", maxCursor);
-            log.warn("  - 计算的nextMaxCursor: {}", nextMaxCursor);
-            log.warn("  - 最后记录ID: {}, 创建时间: {}", lastJob.getId(), lastJob.getCreatedAt());
-            
-            // 设置没有更多数据，避免前端继续请求
-            hasMore = false;
-        }
+        // 计算下一个游标：历史方向取最后一条记录，新内容方向取第一条记录
+        String nextMaxCursor = pagination.getNextMaxCursor();
+        String nextMinCursor = pagination.getNextMinCursor();
+        log.debug("游标生成 nextMaxCursor: {}, nextMinCursor: {}", nextMaxCursor, nextMinCursor);
         
-        // 转换为DTO
+        // 转换为DTO（每条记录带游标，方便前端使用）
         List<JobDetailOutputDto> dtoList = processJobsForOutput(jobs);
         
-        // 确保游标被添加到JobDetailOutputDto中
-        for (int i = 0; i < dtoList.size(); i++) {
-            JobDetailOutputDto dto = dtoList.get(i);
-            Jobs job = jobs.get(i);
-            // 将游标添加到DTO中，方便前端使用
-            String itemCursor = CursorUtils.encodeCursor(job.getCreatedAt(), job.getId());
-            dto.setCursor(itemCursor);
-            log.debug("DTO游标设置 为记录 {} 设置游标: {}", job.getId(), itemCursor);
-        }
-        
         // 输出调试信息
         log.debug("返回结果");
         log.debug("  - 记录数量: {}", dtoList.size());
         log.debug("  - 下一个maxCursor: {}", nextMaxCursor);
         log.debug("  - 下一个minCursor: {}", nextMinCursor);
-        log.debug("  - 是否与前一个游标相同: {}", sameAsPrevious);
         log.debug("  - 是否有更多数据: {}", hasMore);
         
         long endTime = System.currentTimeMillis();
@@ -2,10 +2,13 @@ package com.ideafly.service.impl.auth;
 
 import com.ideafly.dto.auth.LoginUser;
 import com.ideafly.dto.auth.TelegramAuthDto;
+import com.ideafly.dto.user.UserSummaryDto;
 import com.ideafly.model.users.Users;
 import com.ideafly.utils.JwtUtil;
 import com.ideafly.utils.TelegramAuthUtil;
+import io.jsonwebtoken.Claims;
 import org.springframework.beans.factory.annotation.Value;
+import com.ideafly.service.impl.users.DisabledUserRegistry;
 import com.ideafly.service.impl.users.UsersService;
 
 import lombok.extern.slf4j.Slf4j;
@@ -31,6 +34,13 @@ public class AuthServiceImpl {
     
     @Resource
     private JwtUtil jwtUtil;
+
+    @Resource
+    private DisabledUserRegistry disabledUserRegistry;
+
+    // 是否直接使用accessToken中携带的用户信息作为登录用户（不再逐请求查询用户）
+    @Value("${auth.stateless-principal:true}")
+    private boolean statelessPrincipal;
     
     public Map<String, String> telegramLogin(TelegramAuthDto authData) {
         // 验证Telegram登录数据
@@ -45,7 +55,7 @@ public class AuthServiceImpl {
         
         // 生成accessToken和refreshToken
         String userId = user.getId();
-        String accessToken = jwtUtil.generateToken(userId, false);
+        String accessToken = generateAccessToken(user);
         String refreshToken = jwtUtil.generateToken(userId, true);
         
         Map<String, String> result = new HashMap<>();
@@ -72,9 +82,14 @@ public class AuthServiceImpl {
             // 将旧的refreshToken加入黑名单
             jwtUtil.invalidateRefreshToken(refreshToken);
 
-            // 生成新的accessToken和refreshToken
+            // 生成新的accessToken和refreshToken，用户信息在此处重新读取
             String userId = jwtUtil.extractUserIdIgnoreExpired(refreshToken);
-            String newAccessToken = jwtUtil.generateToken(userId, false);
+            Users user = usersService.getById(userId);
+            if (user == null || isDisabled(user)) {
+                log.warn("用户不存在或已停用，拒绝刷新token: {}", userId);
+                return null;
+            }
+            String newAccessToken = generateAccessToken(user);
             String newRefreshToken = jwtUtil.generateToken(userId, true);
             Map<String, String> result = new HashMap<>();
             result.put("accessToken", newAccessToken);
@@ -87,30 +102,51 @@ public class AuthServiceImpl {
         }
     }
     
-    public LoginUser getUserByToken(String token) {
-        
-        try {
-
-            String userId = jwtUtil.extractUserIdIgnoreExpired(token);
-            log.debug("从Token中提取用户标识: {}", userId);
-            
-            
-            // 直接用userId查找用户
-            Users user = usersService.getById(userId);
-            log.debug("通过UUID查找用户: {}", userId);
-            
-            if (user == null) {
-                log.warn("未找到用户: {}", userId);
-                return null;
-            }
-            
-            return convertToLoginUser(user);
-        } catch (Exception e) {
-            log.error("从token获取用户信息失败", e);
-            throw e;
+    /**
+     * 根据已校验的accessToken声明获取登录用户
+     * 无状态模式下直接使用token中的用户ID、用户名和角色，只检查用户是否已停用；
+     * 旧token未携带用户信息时按用户ID查询（走用户缓存）
+     */
+    public LoginUser getUserByClaims(Claims claims) {
+        String userId = claims.getSubject();
+        if (userId == null || disabledUserRegistry.isDisabled(userId)) {
+            return null;
+        }
+        // 停用用户集合尚未加载成功时不能信任其未命中，回退到按用户查询状态
+        if (statelessPrincipal && disabledUserRegistry.isLoaded() && claims.containsKey(JwtUtil.CLAIM_USERNAME)) {
+            LoginUser loginUser = new LoginUser();
+            loginUser.setId(userId);
+            loginUser.setUsername(claims.get(JwtUtil.CLAIM_USERNAME, String.class));
+            Number role = claims.get(JwtUtil.CLAIM_ROLE, Number.class);
+            loginUser.setRole(role != null ? role.intValue() : null);
+            return loginUser;
+        }
+        UserSummaryDto user = usersService.getSummary(userId);
+        if (user == null || Integer.valueOf(0).equals(user.getStatus())) {
+            log.warn("未找到用户或用户已停用: {}", userId);
+            return null;
         }
+        LoginUser loginUser = new LoginUser();
+        loginUser.setId(user.getId());
+        loginUser.setUsername(user.getUsername());
+        loginUser.setRole(user.getRole());
+        return loginUser;
     }
-    
+
+    /**
+     * 生成携带用户名和角色的accessToken
+     */
+    private String generateAccessToken(Users user) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(JwtUtil.CLAIM_USERNAME, user.getUsername());
+        claims.put(JwtUtil.CLAIM_ROLE, user.getRole());
+        return jwtUtil.generateToken(user.getId(), false, claims);
+    }
+
+    private boolean isDisabled(Users user) {
+        return Integer.valueOf(0).equals(user.getStatus()) || disabledUserRegistry.isDisabled(user.getId());
+    }
+
     /**
      * 通过Telegram ID查找用户，如果不存在则创建新用户
      */
@@ -148,18 +184,4 @@ public class AuthServiceImpl {
         
         return user;
     }
-    
-    /**
-     * 将Users实体转换为LoginUser对象
-     */
-    private LoginUser convertToLoginUser(Users user) {
-        LoginUser loginUser = new LoginUser();
-        loginUser.setId(user.getId());
-        loginUser.setUsername(user.getUsername());
-        loginUser.setEmail(user.getEmail());
-        loginUser.setRole(user.getRole());
-        loginUser.setMobile(user.getMobile());
-        
-        return loginUser;
-    }
-}
\ No newline at end of file
+}
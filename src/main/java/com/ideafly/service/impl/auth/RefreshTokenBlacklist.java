@@ -0,0 +1,175 @@
+package com.ideafly.service.impl.auth;
+
+import com.ideafly.config.TokenBlacklistConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * refreshToken黑名单
+ * Redis中只保存token的定长指纹（SHA-256前16字节）：有序集合 refreshTokenBlackList:index，分值为token过期时间，
+ * 由定时任务清理已过期条目。每个节点在本地保存未过期指纹的副本，新增条目通过Redis频道同步，
+ * 并由定时任务从有序集合全量同步（频道消息可能在重连期间丢失）；距上次全量同步不超过
+ * local-trust-millis 时本地未命中的token不再访问Redis，超过后退回查询Redis。
+ */
+@Component
+@Slf4j
+public class RefreshTokenBlacklist {
+
+    private static final String INDEX_KEY = "refreshTokenBlackList:index";
+    // 旧版按完整token存储的黑名单键前缀
+    private static final String LEGACY_KEY_PREFIX = "refreshTokenBlackList:";
+    private static final int FINGERPRINT_LENGTH = 16;
+
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Resource
+    private TokenBlacklistConfig tokenBlacklistConfig;
+
+    @Resource
+    private RedisMessageListenerContainer redisMessageListenerContainer;
+
+    // 本地黑名单副本：指纹 -> 过期时间
+    private final Map<String, Long> localEntries = new ConcurrentHashMap<>();
+    // 最近一次从Redis全量同步开始的时间，0表示尚未同步，此时所有检查都查询Redis
+    private volatile long lastSyncMillis;
+
+    @PostConstruct
+    public void init() {
+        // 先订阅再加载，避免加载期间新增的条目丢失
+        redisMessageListenerContainer.addMessageListener((message, pattern) -> {
+            try {
+                String body = new String(message.getBody(), StandardCharsets.UTF_8);
+                int separator = body.lastIndexOf(':');
+                if (separator > 0) {
+                    addLocal(body.substring(0, separator), Long.parseLong(body.substring(separator + 1)));
+                }
+            } catch (Exception e) {
+                log.error("处理黑名单同步消息异常: {}", e.getMessage());
+            }
+        }, new ChannelTopic(tokenBlacklistConfig.getChannel()));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        Thread loader = new Thread(this::loadFromRedis, "token-blacklist-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    /**
+     * 将token加入黑名单，保留到token原过期时间
+     */
+    public void add(String token, long expiresAtMillis) {
+        if (expiresAtMillis <= System.currentTimeMillis()) {
+            return;
+        }
+        String fingerprint = fingerprint(token);
+        stringRedisTemplate.opsForZSet().add(INDEX_KEY, fingerprint, expiresAtMillis);
+        addLocal(fingerprint, expiresAtMillis);
+        stringRedisTemplate.convertAndSend(tokenBlacklistConfig.getChannel(), fingerprint + ":" + expiresAtMillis);
+    }
+
+    /**
+     * 检查token是否在黑名单中
+     *
+     * @param issuedAtMillis token签发时间，未知时传null
+     */
+    public boolean contains(String token, Long issuedAtMillis) {
+        // 指纹格式上线前签发的token需要兼容检查旧格式的黑名单
+        if ((issuedAtMillis == null || issuedAtMillis < tokenBlacklistConfig.getLegacyCutoffMillis())
+                && Boolean.TRUE.equals(stringRedisTemplate.hasKey(LEGACY_KEY_PREFIX + token))) {
+            return true;
+        }
+        String fingerprint = fingerprint(token);
+        long now = System.currentTimeMillis();
+        Long localExpiresAt = localEntries.get(fingerprint);
+        if (localExpiresAt != null) {
+            return localExpiresAt > now;
+        }
+        // 本地副本足够新时直接信任本地未命中
+        if (now - lastSyncMillis <= tokenBlacklistConfig.getLocalTrustMillis()) {
+            return false;
+        }
+        Double expiresAt = stringRedisTemplate.opsForZSet().score(INDEX_KEY, fingerprint);
+        return expiresAt != null && expiresAt > System.currentTimeMillis();
+    }
+
+    /**
+     * 定时清理已过期的黑名单条目（Redis与本地副本），并从Redis全量同步本地副本
+     */
+    @Scheduled(initialDelayString = "${jwt.blacklist.compact-interval-millis:60000}",
+            fixedDelayString = "${jwt.blacklist.compact-interval-millis:60000}")
+    public void compact() {
+        long now = System.currentTimeMillis();
+        localEntries.forEach((fingerprint, expiresAt) -> {
+            if (expiresAt <= now) {
+                localEntries.remove(fingerprint, expiresAt);
+            }
+        });
+        try {
+            Long removed = stringRedisTemplate.opsForZSet().removeRangeByScore(INDEX_KEY, Double.NEGATIVE_INFINITY, now);
+            log.info("清理过期黑名单条目完成 - Redis删除: {}, 本地剩余: {}", removed, localEntries.size());
+        } catch (Exception e) {
+            log.error("清理过期黑名单条目异常: {}", e.getMessage());
+        }
+        loadFromRedis();
+    }
+
+    /**
+     * 从Redis全量同步未过期条目到本地副本；条目只会因过期从有序集合中删除，所以只需补充不需删除
+     */
+    private void loadFromRedis() {
+        try {
+            long now = System.currentTimeMillis();
+            Set<ZSetOperations.TypedTuple<String>> entries = stringRedisTemplate.opsForZSet()
+                    .rangeByScoreWithScores(INDEX_KEY, now, Double.POSITIVE_INFINITY);
+            if (entries != null) {
+                for (ZSetOperations.TypedTuple<String> entry : entries) {
+                    if (entry.getValue() != null && entry.getScore() != null) {
+                        addLocal(entry.getValue(), entry.getScore().longValue());
+                    }
+                }
+            }
+            lastSyncMillis = now;
+            log.info("同步refreshToken黑名单完成 - 条数: {}", localEntries.size());
+        } catch (Exception e) {
+            log.warn("同步refreshToken黑名单失败，本地副本过期后直接查询Redis: {}", e.getMessage());
+        }
+    }
+
+    private void addLocal(String fingerprint, long expiresAtMillis) {
+        localEntries.merge(fingerprint, expiresAtMillis, Math::max);
+    }
+
+    private static String fingerprint(String token) {
+        byte[] digest = SHA256.get().digest(token.getBytes(StandardCharsets.US_ASCII));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, FINGERPRINT_LENGTH));
+    }
+}
@@ -0,0 +1,71 @@
+package com.ideafly.service.impl.interact;
+
+import com.ideafly.config.CommentCountConfig;
+import com.ideafly.mapper.interact.ParentCommentMapper;
+import com.ideafly.utils.RedisUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.Resource;
+import java.util.UUID;
+
+/**
+ * 计数修正任务
+ * 父评论的reply_count和job_stats的评论/点赞/收藏数都是增量维护的（点赞和收藏还经过写回合并），
+ * 定时按ID区间分批与实际数据比对，修正异常中断、增量重排等原因造成的偏差
+ */
+@Service
+@Slf4j
+public class CommentCountReconciler {
+
+    private static final String LOCK_KEY = "comment:count:reconcileLock";
+
+    @Resource
+    private ParentCommentMapper parentCommentMapper;
+
+    @Resource
+    private JobStatsService jobStatsService;
+
+    @Resource
+    private CommentCountConfig commentCountConfig;
+
+    @Resource
+    private RedisUtil redisUtil;
+
+    private final String instanceId = UUID.randomUUID().toString();
+
+    @Scheduled(cron = "${comment.count.reconcile-cron:0 0 4 * * ?}")
+    public void reconcile() {
+        try {
+            if (!Boolean.TRUE.equals(redisUtil.lock(LOCK_KEY, instanceId, commentCountConfig.getLockExpireMillis()))) {
+                return;
+            }
+        } catch (Exception e) {
+            log.error("获取评论计数修正锁失败: {}", e.getMessage());
+            return;
+        }
+        long startTime = System.currentTimeMillis();
+        try {
+            int batchSize = commentCountConfig.getBatchSize();
+            int replyFixed = 0;
+            int maxId = parentCommentMapper.selectMaxId();
+            for (int fromId = 1; fromId <= maxId; fromId += batchSize) {
+                replyFixed += parentCommentMapper.reconcileReplyCount(fromId, fromId + batchSize - 1);
+            }
+            int jobFixed = jobStatsService.reconcileCommentsCount(batchSize);
+            int likesFixed = jobStatsService.reconcileLikesCount(batchSize);
+            int favoritesFixed = jobStatsService.reconcileFavoritesCount(batchSize);
+            log.info("计数修正完成 - 修正父评论数: {}, 修正评论数职位: {}, 修正点赞数职位: {}, 修正收藏数职位: {}, 耗时: {}ms",
+                    replyFixed, jobFixed, likesFixed, favoritesFixed, (System.currentTimeMillis() - startTime));
+        } catch (Exception e) {
+            log.error("评论计数修正异常: {}", e.getMessage(), e);
+        } finally {
+            try {
+                redisUtil.releaseLock(LOCK_KEY, instanceId);
+            } catch (Exception e) {
+                log.warn("释放评论计数修正锁失败: {}", e.getMessage());
+            }
+        }
+    }
+}
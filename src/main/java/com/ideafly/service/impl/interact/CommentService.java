@@ -1,26 +1,39 @@
 package com.ideafly.service.impl.interact;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.ideafly.dto.interact.ChildCommentCursorDto;
 import com.ideafly.dto.interact.JobCommentInputDto;
 import com.ideafly.dto.interact.JobCommentPageDto;
 import com.ideafly.dto.interact.ParentCommentCursorDto;
+import com.ideafly.config.CommentCacheConfig;
+import com.ideafly.config.CommentPageConfig;
 import com.ideafly.dto.job.*;
 import com.ideafly.mapper.interact.ChildCommentMapper;
 import com.ideafly.mapper.interact.ParentCommentMapper;
 import com.ideafly.model.interact.ChildComment;
 import com.ideafly.model.interact.ParentComment;
-import com.ideafly.model.users.Users;
+import com.ideafly.dto.user.UserSummaryDto;
+import com.ideafly.service.impl.JobExistenceIndex;
 import com.ideafly.service.impl.users.UsersService;
 import com.ideafly.utils.CursorUtils;
+import com.ideafly.utils.KeysetPagination;
+import com.ideafly.utils.RedisUtil;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import lombok.extern.slf4j.Slf4j;
 
 import javax.annotation.Resource;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
@@ -32,22 +45,48 @@ public class CommentService extends ServiceImpl<ParentCommentMapper, ParentComme
     @Resource
     private ChildCommentMapper childCommentMapper;
     
+    @Resource
+    private JobStatsService jobStatsService;
+
+    @Resource
+    private JobExistenceIndex jobExistenceIndex;
+
+    @Resource
+    private RedisUtil redisUtil;
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Resource
+    private CommentCacheConfig commentCacheConfig;
+
+    @Resource
+    private CommentPageConfig commentPageConfig;
+    
     // 默认的父评论页大小
     private static final int DEFAULT_PARENT_COMMENTS_PAGE_SIZE = 7;
     // 默认的子评论页大小
     private static final int DEFAULT_CHILD_COMMENTS_PAGE_SIZE = 2;
-    // 游标格式 - 仅用于日志记录
-    private static final DateTimeFormatter CURSOR_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
+    // 职位评论版本号，发表评论时递增，首页缓存键带上版本号，旧版本缓存自然过期
+    private static final String COMMENT_VERSION_KEY_PREFIX = "comment:version:";
+    private static final String PARENT_PAGE_KEY_PREFIX = "comment:page:";
+    private static final String CHILD_PAGE_KEY_PREFIX = "comment:children:";
+    // 未拿到回源锁时轮询缓存的间隔(毫秒)
+    private static final long LOCK_POLL_INTERVAL = 20;
 
     /**
      * 添加评论
      * @return 返回新创建的评论ID
      */
+    @Transactional(rollbackFor = Exception.class)
     public Integer addComment(JobCommentInputDto dto, String userId) {
         // 获取当前登录用户ID
         if (userId == null) {
             throw new IllegalArgumentException("用户未登录");
         }
+        if (!jobExistenceIndex.exists(dto.getJobId())) {
+            throw new IllegalArgumentException("职位不存在");
+        }
         
         Integer commentId = null;
         
@@ -75,119 +114,83 @@ public class CommentService extends ServiceImpl<ParentCommentMapper, ParentComme
             childComment.setContent(dto.getContent());
             childComment.setCreatedAt(LocalDateTime.now());
             
+            // 同一事务内维护父评论的子评论数，父评论不存在时回滚
+            if (this.baseMapper.incrReplyCount(dto.getJobId(), dto.getParentCommentId(), 1) == 0) {
+                throw new IllegalArgumentException("父评论不存在");
+            }
+            
             // 保存子评论 - 使用通用Mapper保存到同一张表
             childCommentMapper.insert(childComment);
             commentId = childComment.getId();
         }
         
+        // 同一事务内维护职位评论计数
+        jobStatsService.incrComments(dto.getJobId(), 1);
+        
+        // 提交后递增版本号，使该职位的评论首页缓存失效
+        bumpVersionAfterCommit(dto.getJobId());
+        
         return commentId;
     }
     
     /**
      * 获取父评论列表（游标分页）
+     * 无游标的首页对所有用户相同，优先读取缓存
      */
     public ParentCommentCursorDto getParentCommentsByCursor(JobCommentPageDto request) {
         if (request == null || request.getJobId() == null) {
             return new ParentCommentCursorDto(new ArrayList<>(), null, false);
         }
-        
+        request.setPageSize(boundPageSize(request.getPageSize(), DEFAULT_PARENT_COMMENTS_PAGE_SIZE));
+        if (StringUtils.isBlank(request.getCursor())) {
+            return loadFirstPage(request.getJobId(), PARENT_PAGE_KEY_PREFIX + request.getJobId() + ":" + request.getPageSize(),
+                    () -> queryParentCommentsByCursor(request));
+        }
+        return queryParentCommentsByCursor(request);
+    }
+    
+    private ParentCommentCursorDto queryParentCommentsByCursor(JobCommentPageDto request) {
         Integer jobId = request.getJobId();
-        Integer pageSize = request.getPageSize() != null ? request.getPageSize() : DEFAULT_PARENT_COMMENTS_PAGE_SIZE;
+        Integer pageSize = request.getPageSize();
         String cursor = request.getCursor();
         
         log.info("===== 父评论游标分页请求 =====");
         log.info("请求参数: jobId={}, cursor={}, pageSize={}", jobId, cursor, pageSize);
         
-        // 构建查询条件
-        LambdaQueryWrapper<ParentComment> queryWrapper = new LambdaQueryWrapper<>();
-        queryWrapper.eq(ParentComment::getJobId, jobId);
-        queryWrapper.eq(ParentComment::getParentCommentId, 0); // 父评论的parentCommentId为0
-        
-        log.debug("===== 查询条件日志 =====");
-        log.debug("查询职位ID: {}", jobId);
-        
-        // 处理游标
-        if (cursor != null && !cursor.isEmpty()) {
-            try {
-                // 从游标中获取时间戳和ID
-                Map<String, Object> cursorMap = CursorUtils.decodeCursor(cursor);
-                Date timestamp = (Date) cursorMap.get("timestamp");
-                Integer id = (Integer) cursorMap.get("id");
-                
-                // 转换时间戳
-                LocalDateTime initialCursorTime = LocalDateTime.ofInstant(timestamp.toInstant(), 
-                                                              java.time.ZoneId.systemDefault());
-                
-                log.debug("游标解析: 时间={}, ID={}", CURSOR_FORMATTER.format(initialCursorTime), id);
-                
-                // 检查时间戳是否是未来日期，如果是则使用当前时间
-                LocalDateTime now = LocalDateTime.now();
-                final LocalDateTime cursorTime;
-                if (initialCursorTime.isAfter(now)) {
-                    log.warn("检测到未来日期游标 {} ，将使用当前时间 {}", CURSOR_FORMATTER.format(initialCursorTime), CURSOR_FORMATTER.format(now));
-                    cursorTime = now;
-                } else {
-                    cursorTime = initialCursorTime;
-                }
-                
-                // 使用复合条件：创建时间小于游标时间，或者时间相同但ID小于等于游标ID
-                queryWrapper.and(w -> w
-                    .lt(ParentComment::getCreatedAt, cursorTime)
-                    .or(o -> o
-                        .eq(ParentComment::getCreatedAt, cursorTime)
-                        .lt(ParentComment::getId, id)
-                    )
-                );
-                log.debug("查询条件: 创建时间 < {} 或 (创建时间 = {} 且 ID < {})", CURSOR_FORMATTER.format(cursorTime), CURSOR_FORMATTER.format(cursorTime), id);
-            } catch (Exception e) {
-                log.error("游标解析失败", e);
-            }
-        } else {
+        // 构建查询条件：父评论的parentCommentId为0，按(创建时间, ID)游标降序
+        KeysetPagination<ParentComment> pagination = KeysetPagination.of(
+                ParentComment::getCreatedAt, ParentComment::getId, cursor, pageSize);
+        if (!pagination.hasCursor()) {
             log.info("无游标，查询最新评论");
         }
+        LambdaQueryWrapper<ParentComment> queryWrapper = new LambdaQueryWrapper<>();
+        queryWrapper.eq(ParentComment::getJobId, jobId);
+        queryWrapper.eq(ParentComment::getParentCommentId, 0);
         
-        // 排序并限制结果数量
-        queryWrapper.orderByDesc(ParentComment::getCreatedAt, ParentComment::getId);
-        queryWrapper.last("LIMIT " + (pageSize + 1)); // 多查询一条用于判断是否还有更多
-        
-        // 执行查询
-        List<ParentComment> parentComments = this.list(queryWrapper);
+        // 执行查询（多查询一条用于判断是否还有更多）
+        List<ParentComment> parentComments = pagination.page(this.list(pagination.apply(queryWrapper)));
         
         log.info("查询结果: 获取到 {} 条评论", parentComments.size());
-        if (!parentComments.isEmpty()) {
-            ParentComment first = parentComments.get(0);
-            ParentComment last = parentComments.get(parentComments.size() - 1);
-            log.debug("结果范围: 第一条ID={}, 时间={}; 最后一条ID={}, 时间={}", first.getId(), CURSOR_FORMATTER.format(first.getCreatedAt()), last.getId(), CURSOR_FORMATTER.format(last.getCreatedAt()));
-        }
         
-        // 处理查询结果
-        boolean hasMore = false;
-        String nextCursor = null;
-        
-        if (parentComments.size() > pageSize) {
-            // 如果结果数量大于pageSize，说明还有更多数据
-            hasMore = true;
-            // 使用页面最后一条评论作为游标，而不是下一条评论
-            ParentComment lastComment = parentComments.get(pageSize-1);
-            nextCursor = CursorUtils.encodeCursor(lastComment.getCreatedAt(), lastComment.getId());
-            log.debug("生成下一页游标: ID={}, 时间={}, 游标={}", lastComment.getId(), CURSOR_FORMATTER.format(lastComment.getCreatedAt()), nextCursor);
-                              
-            // 移除多余的数据
-            parentComments = parentComments.subList(0, pageSize);
-        }
+        // 使用页面最后一条评论作为下一页游标
+        boolean hasMore = pagination.hasMore();
+        String nextCursor = hasMore ? pagination.getNextMaxCursor() : null;
         
-        // 加载用户信息
-        loadUserInfo(parentComments);
+        // 整页父评论默认显示的子评论一次查询
+        List<Integer> parentIds = parentComments.stream().map(ParentComment::getId).collect(Collectors.toList());
+        Map<Integer, List<ChildComment>> topChildren = batchGetTopChildComments(jobId, parentIds, DEFAULT_CHILD_COMMENTS_PAGE_SIZE);
         
         // 加载子评论信息
+        List<ChildComment> pageChildren = new ArrayList<>();
         for (ParentComment parent : parentComments) {
             // 加载子评论数量
-            int childCount = getChildCommentsCount(parent.getJobId(), parent.getId());
+            int childCount = parent.getReplyCount() != null ? parent.getReplyCount() : 0;
             parent.setChildrenCount(childCount);
             
             // 加载默认显示的子评论列表
-            List<ChildComment> childComments = getTopChildComments(parent.getJobId(), parent.getId(), DEFAULT_CHILD_COMMENTS_PAGE_SIZE);
+            List<ChildComment> childComments = topChildren.getOrDefault(parent.getId(), new ArrayList<>());
             parent.setChildren(childComments);
+            pageChildren.addAll(childComments);
             
             // 设置是否有更多子评论
             if (childCount > childComments.size()) {
@@ -201,6 +204,9 @@ public class CommentService extends ServiceImpl<ParentCommentMapper, ParentComme
             }
         }
         
+        // 整页父评论和子评论一次性加载用户信息
+        hydrate(parentComments, pageChildren);
+        
         log.info("===== 父评论游标分页响应 =====");
         log.info("响应结果: 父评论数={}, nextCursor={}, hasMore={}", parentComments.size(), nextCursor, hasMore);
         
@@ -208,115 +214,62 @@ public class CommentService extends ServiceImpl<ParentCommentMapper, ParentComme
     }
     
     /**
-     * 获取顶部几条子评论
+     * 批量获取多个父评论各自最新的几条子评论，一次窗口函数查询
      */
-    private List<ChildComment> getTopChildComments(Integer jobId, Integer parentId, int limit) {
-        LambdaQueryWrapper<ChildComment> queryWrapper = new LambdaQueryWrapper<>();
-        queryWrapper.eq(ChildComment::getJobId, jobId);
-        queryWrapper.eq(ChildComment::getParentCommentId, parentId);
-        queryWrapper.orderByDesc(ChildComment::getCreatedAt, ChildComment::getId); // 按时间降序排列，最新的在最前面
-        queryWrapper.last("LIMIT " + limit);
-        
-        List<ChildComment> childComments = childCommentMapper.selectList(queryWrapper);
-        
-        // 加载用户信息
-        loadChildUserInfo(childComments);
-        
-        return childComments;
+    private Map<Integer, List<ChildComment>> batchGetTopChildComments(Integer jobId, List<Integer> parentIds, int limit) {
+        Map<Integer, List<ChildComment>> result = new HashMap<>();
+        if (parentIds.isEmpty()) {
+            return result;
+        }
+        for (ChildComment child : childCommentMapper.selectTopChildren(jobId, parentIds, limit)) {
+            result.computeIfAbsent(child.getParentCommentId(), k -> new ArrayList<>()).add(child);
+        }
+        return result;
     }
     
     /**
      * 加载更多子评论（游标分页）
+     * 无游标的首页对所有用户相同，优先读取缓存
      */
     public ChildCommentCursorDto loadMoreChildComments(JobLoadMoreChildrenDto request) {
+        request.setPageSize(boundPageSize(request.getPageSize(), DEFAULT_CHILD_COMMENTS_PAGE_SIZE));
+        if (StringUtils.isBlank(request.getCursor())) {
+            return loadFirstPage(request.getJobId(),
+                    CHILD_PAGE_KEY_PREFIX + request.getJobId() + ":" + request.getParentId() + ":" + request.getPageSize(),
+                    () -> queryChildCommentsByCursor(request));
+        }
+        return queryChildCommentsByCursor(request);
+    }
+    
+    private ChildCommentCursorDto queryChildCommentsByCursor(JobLoadMoreChildrenDto request) {
         Integer jobId = request.getJobId();
         Integer parentId = request.getParentId();
         String cursor = request.getCursor();
         
         log.info("===== 加载更多子评论请求 =====");
-        log.info("请求参数: jobId={}, parentId={}, cursor={}", jobId, parentId, cursor);
+        log.info("请求参数: jobId={}, parentId={}, cursor={}, pageSize={}", jobId, parentId, cursor, request.getPageSize());
         
-        // 构建查询
+        // 构建查询，按(创建时间, ID)游标降序，最新的在最前面
+        KeysetPagination<ChildComment> pagination = KeysetPagination.of(
+                ChildComment::getCreatedAt, ChildComment::getId, cursor, request.getPageSize());
+        if (!pagination.hasCursor()) {
+            log.info("无游标，查询最新子评论");
+        }
         LambdaQueryWrapper<ChildComment> queryWrapper = new LambdaQueryWrapper<>();
         queryWrapper.eq(ChildComment::getJobId, jobId);
         queryWrapper.eq(ChildComment::getParentCommentId, parentId);
         
-        log.debug("===== 子评论查询条件日志 =====");
-        log.debug("查询职位ID: {}, 父评论ID: {}", jobId, parentId);
-        
-        // 处理游标
-        if (cursor != null && !cursor.isEmpty()) {
-            try {
-                // 从游标中获取时间戳和ID
-                Map<String, Object> cursorMap = CursorUtils.decodeCursor(cursor);
-                Date timestamp = (Date) cursorMap.get("timestamp");
-                Integer id = (Integer) cursorMap.get("id");
-                
-                // 转换时间戳
-                LocalDateTime initialCursorTime = LocalDateTime.ofInstant(timestamp.toInstant(), 
-                                                             java.time.ZoneId.systemDefault());
-                
-                log.debug("子评论游标解析: 时间={}, ID={}", CURSOR_FORMATTER.format(initialCursorTime), id);
-                
-                // 检查时间戳是否是未来日期，如果是则使用当前时间
-                LocalDateTime now = LocalDateTime.now();
-                final LocalDateTime cursorTime;
-                if (initialCursorTime.isAfter(now)) {
-                    log.warn("检测到未来日期游标 {} ，将使用当前时间 {}", CURSOR_FORMATTER.format(initialCursorTime), CURSOR_FORMATTER.format(now));
-                    cursorTime = now;
-                } else {
-                    cursorTime = initialCursorTime;
-                }
-                
-                // 使用复合条件：创建时间小于游标时间，或者时间相同但ID更小（降序查询）
-                queryWrapper.and(w -> w
-                    .lt(ChildComment::getCreatedAt, cursorTime)
-                    .or(o -> o
-                        .eq(ChildComment::getCreatedAt, cursorTime)
-                        .lt(ChildComment::getId, id)
-                    )
-                );
-                
-                log.debug("子评论查询条件: 创建时间 < {} 或 (创建时间 = {} 且 ID < {})", CURSOR_FORMATTER.format(cursorTime), CURSOR_FORMATTER.format(cursorTime), id);
-            } catch (Exception e) {
-                log.error("子评论游标解析失败", e);
-            }
-        } else {
-            log.info("无游标，查询最新子评论");
-        }
-        
-        // 排序并限制结果数量
-        queryWrapper.orderByDesc(ChildComment::getCreatedAt, ChildComment::getId); // 按时间降序排列，最新的在最前面
-        queryWrapper.last("LIMIT " + (DEFAULT_CHILD_COMMENTS_PAGE_SIZE + 1)); // 多查询一条用于判断是否还有更多
-        
-        // 执行查询
-        List<ChildComment> childComments = childCommentMapper.selectList(queryWrapper);
+        // 执行查询（多查询一条用于判断是否还有更多）
+        List<ChildComment> childComments = pagination.page(childCommentMapper.selectList(pagination.apply(queryWrapper)));
         
         log.info("子评论查询结果: 获取到 {} 条子评论", childComments.size());
-        if (!childComments.isEmpty()) {
-            ChildComment first = childComments.get(0);
-            ChildComment last = childComments.get(childComments.size() - 1);
-            log.debug("子评论结果范围: 第一条ID={}, 时间={}; 最后一条ID={}, 时间={}", first.getId(), CURSOR_FORMATTER.format(first.getCreatedAt()), last.getId(), CURSOR_FORMATTER.format(last.getCreatedAt()));
-        }
-        
-        // 处理查询结果
-        boolean hasMore = false;
-        String nextCursor = null;
         
-        if (childComments.size() > DEFAULT_CHILD_COMMENTS_PAGE_SIZE) {
-            // 如果结果数量大于pageSize，说明还有更多数据
-            hasMore = true;
-            // 使用当前页最后一条评论作为游标，而不是下一条评论
-            ChildComment lastComment = childComments.get(DEFAULT_CHILD_COMMENTS_PAGE_SIZE-1);
-            nextCursor = CursorUtils.encodeCursor(lastComment.getCreatedAt(), lastComment.getId());
-            log.debug("生成子评论下一页游标: ID={}, 时间={}, 游标={}", lastComment.getId(), CURSOR_FORMATTER.format(lastComment.getCreatedAt()), nextCursor);
-            
-            // 移除多余的数据
-            childComments = childComments.subList(0, DEFAULT_CHILD_COMMENTS_PAGE_SIZE);
-        }
+        // 使用当前页最后一条评论作为下一页游标
+        boolean hasMore = pagination.hasMore();
+        String nextCursor = hasMore ? pagination.getNextMaxCursor() : null;
         
         // 加载用户信息
-        loadChildUserInfo(childComments);
+        hydrate(Collections.emptyList(), childComments);
         
         // 获取子评论总数
         int total = getChildCommentsCount(jobId, parentId);
@@ -329,24 +282,74 @@ public class CommentService extends ServiceImpl<ParentCommentMapper, ParentComme
     }
     
     /**
-     * 获取某个父评论下的子评论数量
+     * 流式加载某个父评论下的全部子评论
+     * 按(创建时间, ID)游标降序分批查询，每批一次组装用户信息后交给consumer输出，内存中只保留一批
+     *
+     * @return 输出的子评论总数
+     */
+    public int streamChildComments(Integer jobId, Integer parentId, Consumer<List<ChildComment>> consumer) {
+        int chunkSize = commentPageConfig.getStreamChunkSize();
+        int maxReplies = commentPageConfig.getStreamMaxReplies();
+        String cursor = null;
+        int total = 0;
+        while (total < maxReplies) {
+            KeysetPagination<ChildComment> pagination = KeysetPagination.of(
+                    ChildComment::getCreatedAt, ChildComment::getId, cursor, Math.min(chunkSize, maxReplies - total));
+            LambdaQueryWrapper<ChildComment> queryWrapper = new LambdaQueryWrapper<>();
+            queryWrapper.eq(ChildComment::getJobId, jobId);
+            queryWrapper.eq(ChildComment::getParentCommentId, parentId);
+            List<ChildComment> chunk = pagination.page(childCommentMapper.selectList(pagination.apply(queryWrapper)));
+            if (chunk.isEmpty()) {
+                break;
+            }
+            hydrate(Collections.emptyList(), chunk);
+            consumer.accept(chunk);
+            total += chunk.size();
+            if (!pagination.hasMore()) {
+                break;
+            }
+            cursor = pagination.getNextMaxCursor();
+        }
+        log.info("流式加载子评论完成 - jobId={}, parentId={}, 子评论数={}", jobId, parentId, total);
+        return total;
+    }
+    
+    /**
+     * 获取某个父评论下的子评论数量（读取父评论行上维护的reply_count）
      */
     public int getChildCommentsCount(Integer jobId, Integer parentId) {
-        LambdaQueryWrapper<ChildComment> queryWrapper = new LambdaQueryWrapper<>();
-        queryWrapper.eq(ChildComment::getJobId, jobId);
-        queryWrapper.eq(ChildComment::getParentCommentId, parentId);
-        
-        return childCommentMapper.selectCount(queryWrapper).intValue();
+        ParentComment parent = this.lambdaQuery()
+            .select(ParentComment::getReplyCount)
+            .eq(ParentComment::getId, parentId)
+            .eq(ParentComment::getJobId, jobId)
+            .one();
+        return parent != null && parent.getReplyCount() != null ? parent.getReplyCount() : 0;
     }
     
     /**
-     * 获取职位下的评论总数
+     * 获取职位下的评论总数（父评论+子评论，读取职位计数）
      */
     public int getCommentsCount(Integer jobId) {
-        LambdaQueryWrapper<ParentComment> queryWrapper = new LambdaQueryWrapper<>();
-        queryWrapper.eq(ParentComment::getJobId, jobId);
-        
-        return this.baseMapper.selectCount(queryWrapper).intValue();
+        return jobStatsService.getStats(jobId).getCommentsCount();
+    }
+    
+    /**
+     * 批量获取职位评论总数，一次 GROUP BY 聚合查询
+     */
+    public Map<Integer, Integer> batchGetCommentsCount(List<Integer> jobIds) {
+        Map<Integer, Integer> result = new HashMap<>();
+        if (jobIds == null || jobIds.isEmpty()) {
+            return result;
+        }
+        jobIds.forEach(jobId -> result.put(jobId, 0));
+        List<Map<String, Object>> rows = this.listMaps(new QueryWrapper<ParentComment>()
+            .select("job_id", "COUNT(*) AS cnt")
+            .in("job_id", jobIds)
+            .groupBy("job_id"));
+        for (Map<String, Object> row : rows) {
+            result.put(((Number) row.get("job_id")).intValue(), ((Number) row.get("cnt")).intValue());
+        }
+        return result;
     }
     
     /**
@@ -357,91 +360,154 @@ public class CommentService extends ServiceImpl<ParentCommentMapper, ParentComme
     }
     
     /**
-     * 加载用户信息
+     * 未指定时使用默认页大小，超过上限时按上限
      */
-    private void loadUserInfo(List<ParentComment> parentComments) {
-        if (parentComments == null || parentComments.isEmpty()) {
-            return;
+    private int boundPageSize(Integer pageSize, int defaultPageSize) {
+        if (pageSize == null || pageSize <= 0) {
+            return defaultPageSize;
+        }
+        return Math.min(pageSize, commentPageConfig.getMaxPageSize());
+    }
+    
+    /**
+     * 读取评论首页缓存，未命中时只有拿到回源锁的请求查库并写入缓存，其余请求短暂等待后读缓存，
+     * 等待超时或Redis不可用时直接查库
+     *
+     * @param jobId   职位ID，用于读取版本号
+     * @param pageKey 不含版本号的缓存键
+     * @param loader  查库加载首页
+     */
+    private <T> T loadFirstPage(Integer jobId, String pageKey, Supplier<T> loader) {
+        if (!commentCacheConfig.isEnabled()) {
+            return loader.get();
+        }
+        String cacheKey;
+        try {
+            String version = stringRedisTemplate.opsForValue().get(COMMENT_VERSION_KEY_PREFIX + jobId);
+            cacheKey = pageKey + ":v" + (version != null ? version : "0");
+            T cached = redisUtil.get(cacheKey);
+            if (cached != null) {
+                return cached;
+            }
+        } catch (Exception e) {
+            log.warn("读取评论首页缓存失败，直接查库 - key: {}, 错误: {}", pageKey, e.getMessage());
+            return loader.get();
         }
         
-        // 收集所有用户ID
-        Set<String> userIds = parentComments.stream()
-            .map(ParentComment::getUserId)
-            .collect(Collectors.toSet());
-        
-        // 批量查询用户信息
-        List<Users> users = usersService.listByIds(new ArrayList<>(userIds));
-        Map<String, Users> userMap = users.stream()
-            .collect(Collectors.toMap(Users::getId, user -> user, (u1, u2) -> u1));
-        
-        // 设置用户信息
-        for (ParentComment comment : parentComments) {
-            Users user = userMap.get(comment.getUserId());
-            if (user != null) {
-                comment.setUserName(user.getUsername());
-                comment.setUserAvatar(user.getAvatar());
-            } else {
-                comment.setUserName("未知用户");
-                comment.setUserAvatar("");
+        String lockKey = cacheKey + ":lock";
+        String lockValue = UUID.randomUUID().toString();
+        boolean locked = false;
+        try {
+            locked = Boolean.TRUE.equals(redisUtil.lock(lockKey, lockValue, commentCacheConfig.getLockExpireMillis()));
+            if (!locked) {
+                // 其他请求正在回源，等待其写入缓存
+                long deadline = System.currentTimeMillis() + commentCacheConfig.getLockWaitMillis();
+                while (System.currentTimeMillis() < deadline) {
+                    Thread.sleep(LOCK_POLL_INTERVAL);
+                    T cached = redisUtil.get(cacheKey);
+                    if (cached != null) {
+                        return cached;
+                    }
+                }
+                return loader.get();
             }
+            // 拿到锁后再检查一次，避免重复查库
+            T cached = redisUtil.get(cacheKey);
+            if (cached != null) {
+                return cached;
+            }
+            T value = loader.get();
+            redisUtil.set(cacheKey, value, commentCacheConfig.getTtlMillis());
+            return value;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return loader.get();
+        } catch (Exception e) {
+            log.warn("写入评论首页缓存失败 - key: {}, 错误: {}", cacheKey, e.getMessage());
+            return loader.get();
+        } finally {
+            if (locked) {
+                try {
+                    redisUtil.releaseLock(lockKey, lockValue);
+                } catch (Exception e) {
+                    log.warn("释放评论首页回源锁失败 - key: {}, 错误: {}", lockKey, e.getMessage());
+                }
+            }
+        }
+    }
+    
+    /**
+     * 递增职位评论版本号；处于事务中时等提交后再递增，避免并发读取在提交前按新版本号回填旧数据
+     */
+    private void bumpVersionAfterCommit(Integer jobId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    bumpVersion(jobId);
+                }
+            });
+        } else {
+            bumpVersion(jobId);
+        }
+    }
+    
+    private void bumpVersion(Integer jobId) {
+        try {
+            String key = COMMENT_VERSION_KEY_PREFIX + jobId;
+            stringRedisTemplate.opsForValue().increment(key);
+            stringRedisTemplate.expire(key, commentCacheConfig.getVersionExpireMillis(), TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            log.error("递增评论版本号失败，首页缓存将在过期后刷新 - 职位ID: {}, 错误: {}", jobId, e.getMessage());
         }
     }
     
     /**
-     * 加载子评论用户信息
+     * 组装一页评论的展示信息
+     * 先收集整页子评论回复的评论ID一次查出其作者，再把评论者和被回复者合并为一次用户批量查询，
+     * 最后一次遍历填充父评论和子评论
      */
-    private void loadChildUserInfo(List<ChildComment> childComments) {
-        if (childComments == null || childComments.isEmpty()) {
+    private void hydrate(List<ParentComment> parentComments, List<ChildComment> childComments) {
+        if (parentComments.isEmpty() && childComments.isEmpty()) {
             return;
         }
         
-        // 收集所有用户ID和被回复的用户ID
-        Set<String> userIds = new HashSet<>();
-        Set<String> replyToUserIds = new HashSet<>();
-        
-        for (ChildComment comment : childComments) {
-            userIds.add(comment.getUserId());
-            if (comment.getReplyToCommentId() != null && comment.getReplyToCommentId() > 0) {
-                // 获取被回复评论的用户ID
-                ChildComment replyToComment = childCommentMapper.selectById(comment.getReplyToCommentId());
-                if (replyToComment != null) {
-                    replyToUserIds.add(replyToComment.getUserId());
-                }
-            }
+        // 被回复评论ID -> 作者ID（回复的可能是父评论，同一张表一次查询）
+        Set<Integer> replyToCommentIds = childComments.stream()
+            .map(ChildComment::getReplyToCommentId)
+            .filter(id -> id != null && id > 0)
+            .collect(Collectors.toSet());
+        Map<Integer, String> replyToUserIds = new HashMap<>();
+        if (!replyToCommentIds.isEmpty()) {
+            childCommentMapper.selectList(new LambdaQueryWrapper<ChildComment>()
+                    .select(ChildComment::getId, ChildComment::getUserId)
+                    .in(ChildComment::getId, replyToCommentIds))
+                .forEach(comment -> replyToUserIds.put(comment.getId(), comment.getUserId()));
         }
         
-        // 合并所有需要查询的用户ID
-        userIds.addAll(replyToUserIds);
-        
-        // 批量查询用户信息
-        List<Users> users = usersService.listByIds(new ArrayList<>(userIds));
-        Map<String, Users> userMap = users.stream()
-            .collect(Collectors.toMap(Users::getId, user -> user, (u1, u2) -> u1));
+        // 收集所有用户ID，一次批量查询
+        Set<String> userIds = new HashSet<>(replyToUserIds.values());
+        parentComments.forEach(comment -> userIds.add(comment.getUserId()));
+        childComments.forEach(comment -> userIds.add(comment.getUserId()));
+        userIds.remove(null);
+        Map<String, UserSummaryDto> userMap = usersService.getSummaries(userIds);
         
-        // 设置用户信息
+        for (ParentComment comment : parentComments) {
+            UserSummaryDto user = userMap.get(comment.getUserId());
+            comment.setUserName(user != null ? user.getUsername() : "未知用户");
+            comment.setUserAvatar(user != null ? user.getAvatar() : "");
+        }
         for (ChildComment comment : childComments) {
-            // 设置评论者信息
-            Users user = userMap.get(comment.getUserId());
-            if (user != null) {
-                comment.setUserName(user.getUsername());
-                comment.setUserAvatar(user.getAvatar());
-            } else {
-                comment.setUserName("未知用户");
-                comment.setUserAvatar("");
-            }
+            UserSummaryDto user = userMap.get(comment.getUserId());
+            comment.setUserName(user != null ? user.getUsername() : "未知用户");
+            comment.setUserAvatar(user != null ? user.getAvatar() : "");
             
-            // 设置被回复用户信息
-            if (comment.getReplyToCommentId() != null && comment.getReplyToCommentId() > 0) {
-                ChildComment replyToComment = childCommentMapper.selectById(comment.getReplyToCommentId());
-                if (replyToComment != null) {
-                    Users replyToUser = userMap.get(replyToComment.getUserId());
-                    if (replyToUser != null) {
-                        comment.setReplyToUserName(replyToUser.getUsername());
-                    } else {
-                        comment.setReplyToUserName("未知用户");
-                    }
-                }
+            // 设置被回复用户信息（被回复的评论已删除时不设置）
+            String replyToUserId = replyToUserIds.get(comment.getReplyToCommentId());
+            if (replyToUserId != null) {
+                UserSummaryDto replyToUser = userMap.get(replyToUserId);
+                comment.setReplyToUserName(replyToUser != null ? replyToUser.getUsername() : "未知用户");
             }
         }
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,209 @@
+package com.ideafly.service.impl.interact;
+
+import cn.hutool.cache.CacheUtil;
+import cn.hutool.cache.impl.LRUCache;
+import com.ideafly.config.FavoritesWindowConfig;
+import com.ideafly.dto.job.CursorResponseDto;
+import com.ideafly.dto.job.JobDetailOutputDto;
+import com.ideafly.utils.RedisUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 用户收藏列表窗口缓存
+ * 按用户保存已加载的收藏列表（连续的一段）及其两端游标，重新打开收藏页时直接返回；
+ * 窗口条数和过期时间有界，保存在Redis（多节点共享）或本地LRU缓存中。
+ * 窗口为不可变快照，每次加载后整体替换，收藏状态变化时删除。
+ */
+@Component
+@Slf4j
+public class FavoritesWindowCache {
+
+    private static final String KEY_PREFIX = "favorites:window:";
+
+    @Resource
+    private RedisUtil redisUtil;
+
+    @Resource
+    private FavoritesWindowConfig favoritesWindowConfig;
+
+    private LRUCache<String, CursorResponseDto<JobDetailOutputDto>> localCache;
+
+    @PostConstruct
+    public void init() {
+        localCache = CacheUtil.newLRUCache(favoritesWindowConfig.getLocalMaxUsers(), favoritesWindowConfig.getTtlMillis());
+    }
+
+    public boolean isEnabled() {
+        return favoritesWindowConfig.isEnabled();
+    }
+
+    /**
+     * 读取用户的收藏窗口，不存在时返回null
+     */
+    public CursorResponseDto<JobDetailOutputDto> get(String userId) {
+        if (!isEnabled() || userId == null) {
+            return null;
+        }
+        try {
+            return favoritesWindowConfig.isRedisEnabled() ? redisUtil.get(KEY_PREFIX + userId) : localCache.get(userId);
+        } catch (Exception e) {
+            log.warn("读取收藏窗口缓存失败 - 用户ID: {}, 错误: {}", userId, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 从窗口中截取一页：初始加载从窗口开头截取，向历史方向加载时从游标对应的记录之后截取
+     * 截到窗口末尾时沿用窗口的历史方向游标，否则以返回的最后一条记录的游标作为下一页游标
+     *
+     * @param maxCursor 本次请求的历史方向游标，初始加载为null
+     * @return 窗口不存在或游标不在窗口内（需要查询数据库）时返回null
+     */
+    public CursorResponseDto<JobDetailOutputDto> page(String userId, String maxCursor, int pageSize) {
+        CursorResponseDto<JobDetailOutputDto> window = get(userId);
+        if (window == null || window.getRecords() == null) {
+            return null;
+        }
+        List<JobDetailOutputDto> records = window.getRecords();
+        boolean initial = maxCursor == null || maxCursor.isEmpty();
+        int start = 0;
+        if (!initial) {
+            start = -1;
+            for (int i = 0; i < records.size(); i++) {
+                if (Objects.equals(records.get(i).getCursor(), maxCursor)) {
+                    start = i + 1;
+                    break;
+                }
+            }
+            // 游标不在窗口内，或已到窗口末尾需要继续从数据库加载
+            if (start < 0 || start >= records.size()) {
+                return null;
+            }
+        }
+        int end = Math.min(start + pageSize, records.size());
+        boolean reachedEnd = end == records.size();
+        List<JobDetailOutputDto> slice = new ArrayList<>(records.subList(start, end));
+        String nextMaxCursor = reachedEnd || slice.isEmpty() ? window.getNextMaxCursor() : slice.get(slice.size() - 1).getCursor();
+        return new CursorResponseDto<>(
+                slice,
+                nextMaxCursor,
+                initial ? window.getNextMinCursor() : null,
+                reachedEnd ? window.getHasMoreHistory() : true,
+                initial ? window.getHasMoreNew() : false,
+                (long) slice.size()
+        );
+    }
+
+    /**
+     * 把新加载的一页合并进窗口
+     * 初始加载替换窗口；向历史方向加载的页接在窗口末尾，向新内容方向加载的页接在窗口开头，
+     * 只有与窗口相邻（请求游标等于窗口对应端游标）时才合并，否则以新页作为窗口
+     *
+     * @param maxCursor 本次请求的历史方向游标
+     * @param minCursor 本次请求的新内容方向游标
+     * @param page      本次加载结果
+     */
+    public void merge(String userId, String maxCursor, String minCursor, CursorResponseDto<JobDetailOutputDto> page) {
+        if (!isEnabled() || userId == null || page.getRecords() == null) {
+            return;
+        }
+        boolean forward = maxCursor != null && !maxCursor.isEmpty();
+        boolean backward = !forward && minCursor != null && !minCursor.isEmpty();
+        CursorResponseDto<JobDetailOutputDto> window = forward || backward ? get(userId) : null;
+
+        List<JobDetailOutputDto> records;
+        CursorResponseDto<JobDetailOutputDto> merged;
+        if (forward && window != null && Objects.equals(window.getNextMaxCursor(), maxCursor)) {
+            records = new ArrayList<>(window.getRecords());
+            records.addAll(page.getRecords());
+            merged = new CursorResponseDto<>(records, page.getNextMaxCursor(), window.getNextMinCursor(),
+                    page.getHasMoreHistory(), window.getHasMoreNew(), null);
+        } else if (backward && window != null && Objects.equals(window.getNextMinCursor(), minCursor)) {
+            records = new ArrayList<>(page.getRecords());
+            records.addAll(window.getRecords());
+            merged = new CursorResponseDto<>(records, window.getNextMaxCursor(), page.getNextMinCursor(),
+                    window.getHasMoreHistory(), page.getHasMoreNew(), null);
+        } else {
+            // 整页职位都已删除时只需推进衔接上的窗口游标，不单独建立窗口
+            if (page.getRecords().isEmpty()) {
+                return;
+            }
+            records = new ArrayList<>(page.getRecords());
+            merged = new CursorResponseDto<>(records, page.getNextMaxCursor(), page.getNextMinCursor(),
+                    page.getHasMoreHistory(), page.getHasMoreNew(), null);
+        }
+
+        // 超过条数上限时保留最新的部分，历史方向游标退回到保留的最后一条
+        int maxItems = favoritesWindowConfig.getMaxItems();
+        if (records.size() > maxItems) {
+            records = new ArrayList<>(records.subList(0, maxItems));
+            merged.setRecords(records);
+            merged.setNextMaxCursor(records.get(records.size() - 1).getCursor());
+            merged.setHasMoreHistory(true);
+        }
+        merged.setTotal((long) records.size());
+        put(userId, merged);
+    }
+
+    /**
+     * 删除用户的收藏窗口（收藏状态变化时调用）
+     */
+    public void evict(String userId) {
+        if (!isEnabled() || userId == null) {
+            return;
+        }
+        try {
+            if (favoritesWindowConfig.isRedisEnabled()) {
+                redisUtil.del(KEY_PREFIX + userId);
+            } else {
+                localCache.remove(userId);
+            }
+        } catch (Exception e) {
+            log.warn("删除收藏窗口缓存失败 - 用户ID: {}, 错误: {}", userId, e.getMessage());
+        }
+    }
+
+    /**
+     * 事务提交后删除这些用户的收藏窗口（异步写回落库时调用）
+     * 点击时已删除过窗口，但写回前重新加载的窗口读到的是旧数据，写回提交后需再次删除
+     */
+    public void evictAfterCommit(Collection<String> userIds) {
+        if (!isEnabled() || userIds.isEmpty()) {
+            return;
+        }
+        Collection<String> users = new HashSet<>(userIds);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    users.forEach(FavoritesWindowCache.this::evict);
+                }
+            });
+        } else {
+            users.forEach(this::evict);
+        }
+    }
+
+    private void put(String userId, CursorResponseDto<JobDetailOutputDto> window) {
+        try {
+            if (favoritesWindowConfig.isRedisEnabled()) {
+                redisUtil.set(KEY_PREFIX + userId, window, favoritesWindowConfig.getTtlMillis());
+            } else {
+                localCache.put(userId, window);
+            }
+        } catch (Exception e) {
+            log.warn("写入收藏窗口缓存失败 - 用户ID: {}, 错误: {}", userId, e.getMessage());
+        }
+    }
+}
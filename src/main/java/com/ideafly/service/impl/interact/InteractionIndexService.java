@@ -0,0 +1,343 @@
+package com.ideafly.service.impl.interact;
+
+import cn.hutool.cache.CacheUtil;
+import cn.hutool.cache.impl.LRUCache;
+import com.ideafly.config.InteractionIndexConfig;
+import com.ideafly.service.impl.interact.ToggleWriteBehindService.ToggleType;
+import com.ideafly.utils.RedisUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 用户点赞/收藏索引
+ * 每个用户每种互动一个Redis集合 interact:index:{类型}:{用户ID}，成员为职位ID（整数成员使用intset紧凑编码），
+ * 首次读取时从数据表构建（叠加尚未写回的操作），点赞/收藏提交后同步增删；
+ * 每次增删同时递增版本号 interact:index:ver:{类型}:{用户ID}，构建期间版本号变化则放弃本次构建，避免覆盖并发的操作；
+ * 本地LRU缓存有序的职位ID数组，一页状态在内存中二分查找得出。
+ * 定时任务从数据表重建所有已构建的索引，修正可能的偏差。
+ */
+@Service
+@Slf4j
+public class InteractionIndexService {
+
+    private static final String KEY_PREFIX = "interact:index:";
+    // 已构建索引的用户集合，供定时重建遍历
+    private static final String USERS_KEY_PREFIX = "interact:index:users:";
+    private static final String REBUILD_LOCK_KEY = "interact:index:rebuildLock";
+    private static final String VERSION_KEY_PREFIX = "interact:index:ver:";
+    // 空索引占位成员（职位ID从1开始），避免没有互动的用户每次都回表
+    private static final String EMPTY_MARKER = "0";
+    private static final int[] EMPTY = new int[0];
+
+    // 递增版本号；索引存在时才增删成员，不存在时等下次读取时完整构建
+    private static final DefaultRedisScript<Long> UPDATE_IF_EXISTS_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('incr', KEYS[2]) redis.call('pexpire', KEYS[2], ARGV[3]) " +
+            "if redis.call('exists', KEYS[1]) == 1 then " +
+            "if ARGV[2] == '1' then return redis.call('sadd', KEYS[1], ARGV[1]) " +
+            "else return redis.call('srem', KEYS[1], ARGV[1]) end " +
+            "end return -1", Long.class);
+
+    // 版本号与构建开始时一致才用临时键替换索引，否则丢弃临时键
+    private static final DefaultRedisScript<Long> RENAME_IF_UNCHANGED_SCRIPT = new DefaultRedisScript<>(
+            "local version = redis.call('get', KEYS[3]) or '' " +
+            "if version == ARGV[1] then redis.call('rename', KEYS[1], KEYS[2]) return 1 end " +
+            "redis.call('del', KEYS[1]) return 0", Long.class);
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Resource
+    private RedisUtil redisUtil;
+
+    @Resource
+    private InteractionIndexConfig interactionIndexConfig;
+
+    @Resource
+    private RedisMessageListenerContainer redisMessageListenerContainer;
+
+    @Resource
+    private ToggleWriteBehindService toggleWriteBehindService;
+
+    @Resource
+    private JobLikesService jobLikesService;
+
+    @Resource
+    private JobFavoriteService jobFavoriteService;
+
+    private final String instanceId = UUID.randomUUID().toString();
+
+    // 类型:用户ID -> 有序职位ID数组（不可变快照，更新时整体替换）
+    private LRUCache<String, int[]> localIndex;
+
+    @PostConstruct
+    public void init() {
+        localIndex = CacheUtil.newLRUCache(interactionIndexConfig.getLocalMaxSize(), interactionIndexConfig.getLocalTtlMillis());
+        redisMessageListenerContainer.addMessageListener((message, pattern) -> {
+            // 消息格式：节点ID|类型:用户ID，忽略本节点发出的消息
+            String body = new String(message.getBody(), StandardCharsets.UTF_8);
+            int separator = body.indexOf('|');
+            if (separator > 0 && !instanceId.equals(body.substring(0, separator))) {
+                localIndex.remove(body.substring(separator + 1));
+            }
+        }, new ChannelTopic(interactionIndexConfig.getChannel()));
+    }
+
+    public boolean isEnabled() {
+        return interactionIndexConfig.isEnabled();
+    }
+
+    /**
+     * 批量判断用户对一页职位的点赞/收藏状态
+     *
+     * @return 职位ID -> 是否点赞/收藏；索引不可用时返回null，调用方应回表查询
+     */
+    public Map<Integer, Boolean> getStatus(ToggleType type, String userId, Collection<Integer> jobIds) {
+        if (!isEnabled() || userId == null) {
+            return null;
+        }
+        try {
+            int[] index = getIndex(type, userId);
+            Map<Integer, Boolean> result = new HashMap<>();
+            for (Integer jobId : jobIds) {
+                result.put(jobId, jobId != null && Arrays.binarySearch(index, jobId) >= 0);
+            }
+            return result;
+        } catch (Exception e) {
+            log.warn("读取用户互动索引失败，回表查询 - 类型: {}, 用户ID: {}, 错误: {}", type, userId, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 点赞/收藏状态变化后更新索引；处于事务中时等提交后再更新，
+     * 保证版本号递增晚于数据提交，并发的构建要么读到新数据，要么因版本号变化被丢弃
+     */
+    public void onToggle(ToggleType type, String userId, Integer jobId, int status) {
+        if (!isEnabled() || userId == null || jobId == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    applyToggle(type, userId, jobId, status);
+                }
+            });
+        } else {
+            applyToggle(type, userId, jobId, status);
+        }
+    }
+
+    private void applyToggle(ToggleType type, String userId, Integer jobId, int status) {
+        String cacheKey = cacheKey(type, userId);
+        try {
+            stringRedisTemplate.execute(UPDATE_IF_EXISTS_SCRIPT, Arrays.asList(indexKey(cacheKey), versionKey(cacheKey)),
+                    String.valueOf(jobId), String.valueOf(status), String.valueOf(interactionIndexConfig.getExpireMillis()));
+            stringRedisTemplate.convertAndSend(interactionIndexConfig.getChannel(), instanceId + "|" + cacheKey);
+        } catch (Exception e) {
+            log.error("更新用户互动索引失败 - 类型: {}, 用户ID: {}, 职位ID: {}, 错误: {}", type, userId, jobId, e.getMessage());
+            localIndex.remove(cacheKey);
+            return;
+        }
+        int[] local = localIndex.get(cacheKey);
+        if (local != null) {
+            localIndex.put(cacheKey, withStatus(local, jobId, status == 1));
+        }
+    }
+
+    /**
+     * 定时从数据表重建所有已构建的索引（多节点只有一个节点执行）
+     */
+    @Scheduled(cron = "${interact.index.rebuild-cron:0 30 4 * * ?}")
+    public void rebuildAll() {
+        if (!isEnabled()) {
+            return;
+        }
+        try {
+            if (!Boolean.TRUE.equals(redisUtil.lock(REBUILD_LOCK_KEY, instanceId, TimeUnit.HOURS.toMillis(1)))) {
+                return;
+            }
+        } catch (Exception e) {
+            log.error("获取互动索引重建锁失败: {}", e.getMessage());
+            return;
+        }
+        try {
+            for (ToggleType type : ToggleType.values()) {
+                int rebuilt = 0;
+                int removed = 0;
+                String usersKey = USERS_KEY_PREFIX + type.name().toLowerCase();
+                List<String> userIds = new ArrayList<>();
+                try (Cursor<String> cursor = stringRedisTemplate.opsForSet().scan(usersKey, ScanOptions.scanOptions().count(500).build())) {
+                    cursor.forEachRemaining(userIds::add);
+                }
+                for (String userId : userIds) {
+                    String key = indexKey(cacheKey(type, userId));
+                    // 保留剩余过期时间，只有读取才续期，长期不读的索引照常过期
+                    Long ttlMillis = stringRedisTemplate.getExpire(key, TimeUnit.MILLISECONDS);
+                    if (ttlMillis != null && (ttlMillis > 0 || ttlMillis == -1)) {
+                        // 构建期间有新操作时放弃，保留已同步增删的旧索引
+                        if (build(type, userId, ttlMillis > 0 ? ttlMillis : interactionIndexConfig.getExpireMillis()) != null) {
+                            rebuilt++;
+                        }
+                    } else {
+                        // 索引已过期，不再维护
+                        stringRedisTemplate.opsForSet().remove(usersKey, userId);
+                        removed++;
+                    }
+                }
+                log.info("重建用户互动索引完成 - 类型: {}, 重建: {}, 移除: {}", type, rebuilt, removed);
+            }
+        } catch (Exception e) {
+            log.error("重建用户互动索引异常: {}", e.getMessage(), e);
+        } finally {
+            try {
+                redisUtil.releaseLock(REBUILD_LOCK_KEY, instanceId);
+            } catch (Exception e) {
+                log.warn("释放互动索引重建锁失败: {}", e.getMessage());
+            }
+        }
+    }
+
+    private int[] getIndex(ToggleType type, String userId) {
+        String cacheKey = cacheKey(type, userId);
+        int[] local = localIndex.get(cacheKey);
+        if (local != null) {
+            return local;
+        }
+        String key = indexKey(cacheKey);
+        Set<String> members = stringRedisTemplate.opsForSet().members(key);
+        int[] index;
+        if (members == null || members.isEmpty()) {
+            index = build(type, userId, interactionIndexConfig.getExpireMillis());
+            if (index == null) {
+                throw new IllegalStateException("构建期间有新的互动操作，本次回表查询");
+            }
+        } else {
+            index = toSortedArray(members);
+            stringRedisTemplate.expire(key, interactionIndexConfig.getExpireMillis(), TimeUnit.MILLISECONDS);
+        }
+        localIndex.put(cacheKey, index);
+        return index;
+    }
+
+    /**
+     * 从数据表构建索引：叠加尚未写回数据库的操作后写临时键，版本号未变时原子替换
+     * 待写操作先于数据表读取，期间写回的操作要么仍在待写快照中，要么已在数据表中；
+     * 快照之后的新操作会递增版本号，使本次构建被丢弃
+     *
+     * @param ttlMillis 新索引的过期时间
+     * @return 构建期间有新操作、构建被丢弃时返回null
+     */
+    private int[] build(ToggleType type, String userId, long ttlMillis) {
+        String cacheKey = cacheKey(type, userId);
+        String key = indexKey(cacheKey);
+        String versionKey = versionKey(cacheKey);
+        String version = stringRedisTemplate.opsForValue().get(versionKey);
+        Map<Integer, Integer> pending = toggleWriteBehindService.getPendingStatusForUser(type, userId);
+        if (pending == null) {
+            throw new IllegalStateException("读取待写互动状态失败，暂不构建索引");
+        }
+        Set<Integer> jobIds = new HashSet<>(type == ToggleType.LIKE
+                ? jobLikesService.listLikedJobIds(userId)
+                : jobFavoriteService.listFavoriteJobIds(userId));
+        applyPending(jobIds, pending);
+
+        List<String> members = new ArrayList<>(jobIds.size() + 1);
+        members.add(EMPTY_MARKER);
+        for (Integer jobId : jobIds) {
+            members.add(String.valueOf(jobId));
+        }
+        String tempKey = key + ":building:" + instanceId;
+        stringRedisTemplate.delete(tempKey);
+        stringRedisTemplate.opsForSet().add(tempKey, members.toArray(new String[0]));
+        stringRedisTemplate.expire(tempKey, ttlMillis, TimeUnit.MILLISECONDS);
+        Long renamed = stringRedisTemplate.execute(RENAME_IF_UNCHANGED_SCRIPT, Arrays.asList(tempKey, key, versionKey),
+                version == null ? "" : version);
+        if (!Long.valueOf(1).equals(renamed)) {
+            log.info("构建期间有新的互动操作，放弃本次构建 - 类型: {}, 用户ID: {}", type, userId);
+            return null;
+        }
+        stringRedisTemplate.opsForSet().add(USERS_KEY_PREFIX + type.name().toLowerCase(), userId);
+
+        int[] index = new int[jobIds.size()];
+        int i = 0;
+        for (Integer jobId : jobIds) {
+            index[i++] = jobId;
+        }
+        Arrays.sort(index);
+        return index;
+    }
+
+    private static void applyPending(Set<Integer> jobIds, Map<Integer, Integer> pending) {
+        pending.forEach((jobId, status) -> {
+            if (status == 1) {
+                jobIds.add(jobId);
+            } else {
+                jobIds.remove(jobId);
+            }
+        });
+    }
+
+    private static int[] toSortedArray(Set<String> members) {
+        int[] index = new int[members.size()];
+        int size = 0;
+        for (String member : members) {
+            if (!EMPTY_MARKER.equals(member)) {
+                index[size++] = Integer.parseInt(member);
+            }
+        }
+        if (size == 0) {
+            return EMPTY;
+        }
+        int[] result = Arrays.copyOf(index, size);
+        Arrays.sort(result);
+        return result;
+    }
+
+    private static int[] withStatus(int[] index, int jobId, boolean present) {
+        int position = Arrays.binarySearch(index, jobId);
+        if (present == position >= 0) {
+            return index;
+        }
+        int[] result;
+        if (present) {
+            int insertAt = -position - 1;
+            result = new int[index.length + 1];
+            System.arraycopy(index, 0, result, 0, insertAt);
+            result[insertAt] = jobId;
+            System.arraycopy(index, insertAt, result, insertAt + 1, index.length - insertAt);
+        } else {
+            result = new int[index.length - 1];
+            System.arraycopy(index, 0, result, 0, position);
+            System.arraycopy(index, position + 1, result, position, index.length - position - 1);
+        }
+        return result;
+    }
+
+    private String cacheKey(ToggleType type, String userId) {
+        return type.name().toLowerCase() + ":" + userId;
+    }
+
+    private String indexKey(String cacheKey) {
+        return KEY_PREFIX + cacheKey;
+    }
+
+    private String versionKey(String cacheKey) {
+        return VERSION_KEY_PREFIX + cacheKey;
+    }
+}
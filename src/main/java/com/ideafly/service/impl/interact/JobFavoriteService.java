@@ -2,6 +2,7 @@ package com.ideafly.service.impl.interact;
 
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.ideafly.dto.interact.JobFavoriteInputDto;
 import com.ideafly.dto.job.CursorResponseDto;
 import com.ideafly.dto.job.JobListInputDto;
@@ -9,16 +10,18 @@ import com.ideafly.mapper.interact.JobFavoriteMapper;
 import com.ideafly.dto.job.JobDetailOutputDto;
 import com.ideafly.model.Jobs;
 import com.ideafly.model.interact.JobFavorite;
-import com.ideafly.model.users.Users;
+import com.ideafly.service.impl.JobExistenceIndex;
+import com.ideafly.service.impl.JobHydrationService;
 import com.ideafly.service.impl.PostsService;
-import com.ideafly.utils.CursorUtils;
+import com.ideafly.utils.KeysetPagination;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
 import javax.annotation.Resource;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -26,17 +29,36 @@ import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Service
+@Slf4j
 public class JobFavoriteService extends ServiceImpl<JobFavoriteMapper, JobFavorite> {
 
     @Resource
     private PostsService jobsService;
     
+    @Resource
+    private JobStatsService jobStatsService;
+    
+    @Resource
+    private JobHydrationService jobHydrationService;
+
+    @Resource
+    private ToggleWriteBehindService toggleWriteBehindService;
+
+    @Resource
+    private InteractionIndexService interactionIndexService;
+
+    @Resource
+    private JobExistenceIndex jobExistenceIndex;
+
+    @Resource
+    private FavoritesWindowCache favoritesWindowCache;
+    
     /**
      * 获取用户收藏的职位列表
      */
     public Object getUserFavoriteJobs(JobListInputDto request, String userId) {
         // long startTime = System.currentTimeMillis();
-        System.out.println("【性能日志】开始获取用户收藏职位列表 - 参数: " + request);
+        log.info("【性能日志】开始获取用户收藏职位列表 - 参数: {}", request);
             return getUserFavoriteJobsWithCursor(request, userId);
         
     }
@@ -45,13 +67,13 @@ public class JobFavoriteService extends ServiceImpl<JobFavoriteMapper, JobFavori
      * 使用游标分页获取用户收藏的职位列表
      */
     private CursorResponseDto<JobDetailOutputDto> getUserFavoriteJobsWithCursor(JobListInputDto request, String userId) {
-        System.out.println("【性能日志】使用游标分页获取用户收藏职位列表");
+        log.debug("【性能日志】使用游标分页获取用户收藏职位列表");
         long startTime = System.currentTimeMillis();
         
         // 获取当前用户ID
         if (userId == null) {
             // 用户未登录，返回空收藏列表
-            System.out.println("【性能日志】用户未登录，返回空收藏列表");
+            log.info("【性能日志】用户未登录，返回空收藏列表");
             return new CursorResponseDto<>(
                     new ArrayList<>(),
                     null,
@@ -79,258 +101,70 @@ public class JobFavoriteService extends ServiceImpl<JobFavoriteMapper, JobFavori
             isBackward = false;
         }
         
-        // 1. 查询用户收藏的职位IDs
-        LambdaQueryWrapper<JobFavorite> favoriteWrapper = new LambdaQueryWrapper<>();
-        favoriteWrapper.eq(JobFavorite::getUserId, userId)
-                     .eq(JobFavorite::getStatus, 1); // 只查询有效收藏
+        // 重新打开收藏页（初始加载）或在已加载的范围内向历史方向翻页时，按页大小从该用户的收藏窗口中截取
+        if (!isBackward) {
+            CursorResponseDto<JobDetailOutputDto> cached = favoritesWindowCache.page(userId, maxCursor, request.getPageSize());
+            if (cached != null) {
+                log.debug("命中收藏窗口缓存 - 用户ID: {}, 条数: {}", userId, cached.getRecords().size());
+                return cached;
+            }
+        }
         
-        // 获取收藏列表
-        List<JobFavorite> favorites = this.list(favoriteWrapper);
+        // 有尚未写回的收藏操作（或无法确认）时数据库可能还是旧状态，本次结果不进入收藏窗口
+        Map<Integer, Integer> pending = toggleWriteBehindService
+                .getPendingStatusForUser(ToggleWriteBehindService.ToggleType.FAVORITE, userId);
+        boolean hasPending = pending == null || !pending.isEmpty();
         
-        if (favorites.isEmpty()) {
-            System.out.println("【性能日志】用户没有收藏职位，返回空列表");
-            return new CursorResponseDto<>(
-                    new ArrayList<>(),
-                    maxCursor,
-                    minCursor,
-                    isForward ? false : true,
-                    isBackward ? false : true,
-                    0L
-            );
-        }
+        // 1. 按收藏时间(created_at, id)游标分页查询收藏记录，只取一页（多查一条判断是否有更多）
+        KeysetPagination<JobFavorite> pagination = KeysetPagination.of(JobFavorite::getCreatedAt, JobFavorite::getId,
+                maxCursor, minCursor, request.getPageSize());
+        LambdaQueryWrapper<JobFavorite> favoriteWrapper = new LambdaQueryWrapper<>();
+        favoriteWrapper.select(JobFavorite::getId, JobFavorite::getJobId, JobFavorite::getCreatedAt)
+                     .eq(JobFavorite::getUserId, userId)
+                     .eq(JobFavorite::getStatus, 1); // 只查询有效收藏
+        List<JobFavorite> favorites = pagination.page(this.list(pagination.apply(favoriteWrapper)));
         
-        // 提取收藏的职位ID
+        // 2. 按ID批量查询这一页的职位，保持收藏时间顺序（已删除的职位跳过）
         List<Integer> favoriteJobIds = favorites.stream()
                 .map(JobFavorite::getJobId)
                 .collect(Collectors.toList());
-        
-        // 2. 查询这些职位的详细信息，带游标分页
-        LambdaQueryWrapper<Jobs> jobsWrapper = new LambdaQueryWrapper<>();
-        jobsWrapper.in(Jobs::getId, favoriteJobIds);
-        
-        // 根据游标构建查询条件
-        if (isForward) {
-            // 解析maxCursor (向左滑，获取历史内容)
-            Map<String, Object> maxCursorValues = CursorUtils.decodeCursor(maxCursor);
-            if (maxCursorValues != null) {
-                final Date forwardTimestamp = (Date) maxCursorValues.get("timestamp");
-                final Integer forwardId = (Integer) maxCursorValues.get("id");
-                
-                // 构建查询条件：获取比当前游标更早的内容
-                if (forwardTimestamp != null && forwardId != null) {
-                    // 时间相同时按ID降序，时间比游标早或时间相同但ID更小
-                    jobsWrapper.and(w -> w
-                            .lt(Jobs::getCreatedAt, forwardTimestamp)
-                            .or(o -> o
-                                    .eq(Jobs::getCreatedAt, forwardTimestamp)
-                                    .lt(Jobs::getId, forwardId)
-                            )
-                    );
-                }
-            }
-            // 按时间降序，同一时间按ID降序
-            jobsWrapper.orderByDesc(Jobs::getCreatedAt, Jobs::getId);
-            
-        } else if (isBackward) {
-            // 解析minCursor (向右滑，获取更新内容)
-            Map<String, Object> minCursorValues = CursorUtils.decodeCursor(minCursor);
-            if (minCursorValues != null) {
-                final Date backwardTimestamp = (Date) minCursorValues.get("timestamp");
-                final Integer backwardId = (Integer) minCursorValues.get("id");
-                
-                // 构建查询条件：获取比当前游标更新的内容
-                if (backwardTimestamp != null && backwardId != null) {
-                    // 时间比游标新或时间相同但ID更大
-                    jobsWrapper.and(w -> w
-                            .gt(Jobs::getCreatedAt, backwardTimestamp)
-                            .or(o -> o
-                                    .eq(Jobs::getCreatedAt, backwardTimestamp)
-                                    .gt(Jobs::getId, backwardId)
-                            )
-                    );
-                }
-            }
-            // 按时间升序，同一时间按ID升序（获取后需要反转）
-            jobsWrapper.orderByAsc(Jobs::getCreatedAt, Jobs::getId);
-            
-        } else {
-            // 没有指定游标，获取最新内容
-            jobsWrapper.orderByDesc(Jobs::getCreatedAt, Jobs::getId);
-        }
-        
-        // 查询数据
-        Integer limit = request.getPageSize() + 1; // 多查一条用于判断是否有更多数据
-        List<Jobs> jobs = jobsService.list(jobsWrapper.last("LIMIT " + limit));
-        
-        // 如果是向后查询，需要反转结果顺序
-        if (isBackward && !jobs.isEmpty()) {
-            Collections.reverse(jobs);
-        }
-        
-        // 判断是否有更多数据
-        boolean hasMore = jobs.size() > request.getPageSize();
-        if (hasMore) {
-            // 移除多查的一条数据
-            jobs.remove(jobs.size() - 1);
-        }
-        
-        // 处理空结果
-        if (jobs.isEmpty()) {
-            return new CursorResponseDto<>(
-                    new ArrayList<>(),
-                    maxCursor, // 保持原游标
-                    minCursor, // 保持原游标
-                    isForward ? hasMore : false,
-                    isBackward ? hasMore : false,
-                    0L
-            );
-        }
-        
-        // 计算下一个游标
-        String nextMaxCursor = null;
-        String nextMinCursor = null;
-        
-        if (!jobs.isEmpty()) {
-            // 获取历史方向的下一个游标（最后一条记录）
-            Jobs lastJob = jobs.get(jobs.size() - 1);
-            nextMaxCursor = CursorUtils.encodeCursor(lastJob.getCreatedAt(), lastJob.getId());
-            
-            // 确保下一个maxCursor与请求的maxCursor不同
-            if (nextMaxCursor.equals(maxCursor)) {
-                System.out.println("【警告】新生成的maxCursor与请求的相同，可能导致重复数据");
-                // 如果查询条件正确但结果游标相同，说明已经没有更多数据了
-                // 覆盖hasMore标志，防止前端无限请求相同数据
-                hasMore = false;
-            }
-            
-            // 获取新内容方向的下一个游标（第一条记录）
-            Jobs firstJob = jobs.get(0);
-            nextMinCursor = CursorUtils.encodeCursor(firstJob.getCreatedAt(), firstJob.getId());
-        }
-        
-        // 3. 批量获取所需的数据
-        
-        // 3.1 收集所有需要的用户ID
-        List<String> userIds = jobs.stream()
-            .map(Jobs::getUserId)
-            .distinct()
-            .collect(Collectors.toList());
-            
-        // 3.2 批量查询用户信息
-        long userQueryStart = System.currentTimeMillis();
-        List<Users> users = new ArrayList<>();
-        if (!userIds.isEmpty()) {
-            users = jobsService.getUsersService().listByIds(userIds);
-        }
-        
-        // 用户ID到用户对象的映射
-        Map<String, Users> userMap = users.stream()
-            .collect(Collectors.toMap(Users::getId, user -> user, (u1, u2) -> u1));
-            
-        // 3.3 批量查询统计数据
-        
-        // 所有职位ID列表
-        List<Integer> jobIds = jobs.stream()
-            .map(Jobs::getId)
-            .collect(Collectors.toList());
-            
-        // 获取评论计数
-        Map<Integer, Integer> commentsCountMap = new HashMap<>();
-        try {
-            // 批量获取评论数
-            for (Integer jobId : jobIds) {
-                int commentsCount = jobsService.getJobCommentsService().getJobCommentsCount(jobId);
-                commentsCountMap.put(jobId, commentsCount);
+        Map<Integer, Jobs> jobMap = favoriteJobIds.isEmpty() ? new HashMap<>() : jobsService.listByIds(favoriteJobIds).stream()
+                .collect(Collectors.toMap(Jobs::getId, job -> job, (a, b) -> a));
+        List<Jobs> jobs = new ArrayList<>();
+        List<String> cursors = new ArrayList<>();
+        for (JobFavorite favorite : favorites) {
+            Jobs job = jobMap.get(favorite.getJobId());
+            if (job != null) {
+                jobs.add(job);
+                cursors.add(pagination.encodeCursor(favorite));
             }
-        } catch (Exception e) {
-            System.out.println("批量获取评论数失败: " + e.getMessage());
-            // 设置默认值
-            jobIds.forEach(id -> commentsCountMap.put(id, 0));
-        }
-        
-        // 获取收藏计数（可以直接构建，因为我们知道这些都是被收藏的）
-        Map<Integer, Integer> favoritesCountMap = new HashMap<>();
-        for (Integer jobId : jobIds) {
-            favoritesCountMap.put(jobId, 1); // 至少被当前用户收藏过
         }
         
-        // 获取点赞计数
-        Map<Integer, Integer> likesCountMap = new HashMap<>();
-        try {
-            // 批量获取点赞数
-            for (Integer jobId : jobIds) {
-                int likesCount = jobsService.getJobLikesService().getJobLikesCount(jobId);
-                likesCountMap.put(jobId, likesCount);
-            }
-        } catch (Exception e) {
-            System.out.println("批量获取点赞数失败: " + e.getMessage());
-            // 设置默认值
-            jobIds.forEach(id -> likesCountMap.put(id, 0));
+        // 3. 并发查询用户信息、计数和点赞状态并转换为DTO
+        // 由于这是收藏列表，我们已经知道所有职位都是被收藏的，跳过收藏状态查询
+        List<JobDetailOutputDto> result = jobHydrationService.hydrate(jobs, userId, false, true);
+        // 列表按收藏时间分页，每条记录的游标为收藏记录游标，前端可直接用来加载更多
+        for (int i = 0; i < result.size(); i++) {
+            result.get(i).setCursor(cursors.get(i));
         }
         
-        // 由于这是收藏列表，我们已经知道所有职位都是被收藏的
-        final Map<Integer, Boolean> favoriteMap = new HashMap<>();
-        for (Integer jobId : jobIds) {
-            favoriteMap.put(jobId, true);
-        }
-        
-        // 批量查询点赞状态
-        final Map<Integer, Boolean> likeMap = new HashMap<>();
-        try {
-            Map<Integer, Boolean> tempLikeMap = jobsService.getJobLikesService().batchGetLikeStatus(jobIds, userId);
-            likeMap.putAll(tempLikeMap);
-        } catch (Exception e) {
-            System.out.println("批量获取点赞状态失败: " + e.getMessage());
-            // 设置默认值
-            jobIds.forEach(id -> likeMap.put(id, false));
-        }
+        long endTime = System.currentTimeMillis();
+        log.info("【性能日志】游标分页获取用户收藏职位完成 - 耗时: {}ms", (endTime - startTime));
         
-        // 4. 批量转换为DTO
-        List<JobDetailOutputDto> result = new ArrayList<>();
+        // 游标按收藏记录计算，这一页的职位都已删除时返回空列表但游标照常前进
+        CursorResponseDto<JobDetailOutputDto> response = pagination.toResponse(result);
         
-        for (Jobs job : jobs) {
-            // 使用优化的批量转换方法
-            JobDetailOutputDto dto = jobsService.convertDto(
-                job, 
-                userMap, 
-                likesCountMap, 
-                favoritesCountMap, 
-                commentsCountMap, 
-                favoriteMap, 
-                likeMap
-            );
-            
-            // 为每个DTO设置游标值，这样前端可以直接使用它来加载更多
-            String cursor = CursorUtils.encodeCursor(job.getCreatedAt(), job.getId());
-            dto.setCursor(cursor);
-            System.out.println("【DTO游标设置】为记录 " + job.getId() + " 设置游标: " + cursor);
-            
-            result.add(dto);
+        // 合并进该用户的收藏窗口，以便重新打开收藏页以及getCachedUserFavorites和getUserFavoritesLoadingState获取
+        if (!hasPending) {
+            favoritesWindowCache.merge(userId, maxCursor, isBackward ? minCursor : null, response);
         }
         
-        long endTime = System.currentTimeMillis();
-        System.out.println("【性能日志】游标分页获取用户收藏职位完成 - 耗时: " + (endTime - startTime) + "ms");
-        
-        // 更新缓存和状态变量，以便前端可以通过getCachedUserFavorites和getUserFavoritesLoadingState获取
-        this._cachedUserFavorites = result;
-        this._userFavoritesMaxCursor = (!isForward && !isBackward && !jobs.isEmpty()) || (isForward && hasMore) ? nextMaxCursor : maxCursor;
-        this._userFavoritesMinCursor = (!isForward && !isBackward && !jobs.isEmpty()) || (isBackward && hasMore) ? nextMinCursor : minCursor;
-        this._hasMoreUserFavorites = isForward ? hasMore : true;
-        this._hasMoreNewUserFavorites = isBackward ? hasMore : false;
-        
         // 打印游标调试信息
-        System.out.println("【收藏游标】当前设置的游标值 - nextMaxCursor: " + this._userFavoritesMaxCursor + 
-                          ", nextMinCursor: " + this._userFavoritesMinCursor + 
-                          ", 请求方向: " + (isForward ? "前向(历史)" : isBackward ? "后向(新内容)" : "初始加载"));
+        log.debug("【收藏游标】当前设置的游标值 - nextMaxCursor: {}, nextMinCursor: {}, 请求方向: {}",
+                response.getNextMaxCursor(), response.getNextMinCursor(),
+                isForward ? "前向(历史)" : isBackward ? "后向(新内容)" : "初始加载");
         
-        return new CursorResponseDto<>(
-                result,
-                (!isForward && !isBackward && !jobs.isEmpty()) || (isForward && hasMore) ? nextMaxCursor : maxCursor,
-                (!isForward && !isBackward && !jobs.isEmpty()) || (isBackward && hasMore) ? nextMinCursor : minCursor,
-                isForward ? hasMore : true, // 历史方向是否有更多数据
-                isBackward ? hasMore : false, // 新内容方向是否有更多数据（初始加载时为false，因为已加载最新数据）
-                (long) result.size()
-        );
+        return response;
     }
     
  
@@ -338,30 +172,89 @@ public class JobFavoriteService extends ServiceImpl<JobFavoriteMapper, JobFavori
     /**
      * 收藏或者取消收藏
      */
+    @Transactional(rollbackFor = Exception.class)
     public void addOrRemoveFavorite(JobFavoriteInputDto dto, String userId) {
-        // 验证职位是否存在 (可选，如果业务需要)
-        Jobs job = jobsService.getById(dto.getJobId());
-        if (job == null) {
-            System.out.println("职位不存在，职位ID: " + dto.getJobId());
+        // 验证职位是否存在（存在性索引，不读取职位行）
+        if (!jobExistenceIndex.exists(dto.getJobId())) {
+            log.warn("职位不存在，职位ID: {}", dto.getJobId());
             return;
         }
-        // 直接使用一条SQL完成插入或更新，实现原子操作
         int status = Objects.equals(dto.getIsFavorite(), 1) ? 1 : 0;
-        int affected = this.baseMapper.insertOrUpdateFavoriteStatus(dto.getJobId(), userId, status);
+        // 异步写回：记录最新状态后立即返回，由定时任务合并后批量写库
+        if (toggleWriteBehindService.isEnabled()
+                && toggleWriteBehindService.record(ToggleWriteBehindService.ToggleType.FAVORITE, dto.getJobId(), userId, status)) {
+            interactionIndexService.onToggle(ToggleWriteBehindService.ToggleType.FAVORITE, userId, dto.getJobId(), status);
+            favoritesWindowCache.evict(userId);
+            log.info("{}操作已记录，职位ID: {}, 用户ID: {}", status == 1 ? "收藏" : "取消收藏", dto.getJobId(), userId);
+            return;
+        }
+        // 同步写库：流中该职位较早的记录（记录失败前的操作或关闭异步写回前的剩余记录）不再写回，避免覆盖本次结果
+        toggleWriteBehindService.supersede(ToggleWriteBehindService.ToggleType.FAVORITE, dto.getJobId(), userId);
+        // 只有状态真正变化时才更新，便于精确维护收藏计数（重复点击不会重复计数）
+        int affected = this.baseMapper.updateFavoriteStatusIfChanged(dto.getJobId(), userId, status);
+        if (affected == 0 && status == 1) {
+            affected = this.baseMapper.insertFavoriteIfAbsent(dto.getJobId(), userId, status);
+        }
+        if (affected > 0) {
+            jobStatsService.incrFavorites(dto.getJobId(), status == 1 ? 1 : -1);
+        }
+        interactionIndexService.onToggle(ToggleWriteBehindService.ToggleType.FAVORITE, userId, dto.getJobId(), status);
+        // 提交后再失效，避免并发读取在提交前回填旧状态
+        favoritesWindowCache.evictAfterCommit(Collections.singletonList(userId));
         // 记录操作结果
         String actionName = status == 1 ? "收藏" : "取消收藏";
-        System.out.println(actionName + "操作完成，职位ID: " + dto.getJobId() + 
-                           ", 用户ID: " + userId + 
-                           ", 状态: " + status +
-                           ", 影响行数: " + affected);
+        log.info("{}操作完成，职位ID: {}, 用户ID: {}, 状态: {}, 影响行数: {}", actionName, dto.getJobId(), userId, status, affected);
     }
     
+    /**
+     * 批量写回合并后的收藏状态，并在同一事务中更新收藏计数
+     *
+     * @param toggles 每个(职位, 用户)最多一条，status为最终状态
+     * @return 状态实际发生变化的记录数
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public int applyFavoriteToggles(List<JobFavorite> toggles) {
+        if (toggles.isEmpty()) {
+            return 0;
+        }
+        Map<String, Integer> currentStatus = new HashMap<>();
+        for (JobFavorite row : this.baseMapper.selectStatusForUpdate(toggles)) {
+            currentStatus.put(row.getJobId() + ":" + row.getUserId(), row.getStatus());
+        }
+        List<JobFavorite> changed = new ArrayList<>();
+        Map<Integer, Integer> deltas = new HashMap<>();
+        for (JobFavorite toggle : toggles) {
+            // 没有记录视为未收藏
+            int oldStatus = Objects.equals(currentStatus.get(toggle.getJobId() + ":" + toggle.getUserId()), 1) ? 1 : 0;
+            if (oldStatus != toggle.getStatus()) {
+                changed.add(toggle);
+                deltas.merge(toggle.getJobId(), toggle.getStatus() == 1 ? 1 : -1, Integer::sum);
+            }
+        }
+        if (!changed.isEmpty()) {
+            this.baseMapper.upsertStatusBatch(changed);
+            favoritesWindowCache.evictAfterCommit(changed.stream().map(JobFavorite::getUserId).collect(Collectors.toList()));
+        }
+        deltas.forEach((jobId, delta) -> {
+            if (delta != 0) {
+                jobStatsService.incrFavorites(jobId, delta);
+            }
+        });
+        return changed.size();
+    }
+
     /**
      * 判断职位是否被当前用户收藏
      */
     public boolean isJobFavorite(Integer jobId, String userId) {
         // 如果有用户ID，检查该用户是否收藏了此职位
         if (Objects.nonNull(userId)) {
+            // 尚未写回数据库的最新状态优先
+            Integer pending = toggleWriteBehindService.getPendingStatus(
+                    ToggleWriteBehindService.ToggleType.FAVORITE, Collections.singletonList(jobId), userId).get(jobId);
+            if (pending != null) {
+                return pending == 1;
+            }
             return this.lambdaQuery()
                 .eq(JobFavorite::getJobId, jobId)
                 .eq(JobFavorite::getUserId, userId)
@@ -381,43 +274,68 @@ public class JobFavoriteService extends ServiceImpl<JobFavoriteMapper, JobFavori
             .count().intValue();
     }
 
-    // 缓存用户的收藏列表，用于支持游标分页
-    private List<JobDetailOutputDto> _cachedUserFavorites = new ArrayList<>();
-    
-    // 用户收藏游标
-    private String _userFavoritesMaxCursor; // 历史方向游标 (向下加载更多历史收藏)
-    private String _userFavoritesMinCursor; // 新内容方向游标 (向上加载更新收藏)
-    
-    // 是否有更多内容可加载
-    private boolean _hasMoreUserFavorites = true;
-    private boolean _hasMoreNewUserFavorites = false;
-    
+    /**
+     * 批量获取职位收藏数量，一次 GROUP BY 聚合查询
+     */
+    public Map<Integer, Integer> batchGetFavoritesCount(List<Integer> jobIds) {
+        Map<Integer, Integer> result = new HashMap<>();
+        if (jobIds == null || jobIds.isEmpty()) {
+            return result;
+        }
+        jobIds.forEach(jobId -> result.put(jobId, 0));
+        List<Map<String, Object>> rows = this.listMaps(new QueryWrapper<JobFavorite>()
+            .select("job_id", "COUNT(*) AS cnt")
+            .in("job_id", jobIds)
+            .eq("status", 1) // 只计算有效收藏
+            .groupBy("job_id"));
+        for (Map<String, Object> row : rows) {
+            result.put(((Number) row.get("job_id")).intValue(), ((Number) row.get("cnt")).intValue());
+        }
+        return result;
+    }
+
     /**
      * 获取缓存的用户收藏列表
-     * 用于前端在调用getFavoriteJobs后获取完整的缓存列表
+     * 用于前端在调用getFavoriteJobs后获取该用户已加载的收藏窗口
      */
-    public List<JobDetailOutputDto> getCachedUserFavorites() {
-        return _cachedUserFavorites;
+    public List<JobDetailOutputDto> getCachedUserFavorites(String userId) {
+        CursorResponseDto<JobDetailOutputDto> window = favoritesWindowCache.get(userId);
+        return window != null ? window.getRecords() : new ArrayList<>();
     }
     
     /**
      * 获取用户收藏加载状态
      * 返回包含各种加载状态标志的Map
      */
-    public Map<String, Object> getUserFavoritesLoadingState() {
+    public Map<String, Object> getUserFavoritesLoadingState(String userId) {
+        CursorResponseDto<JobDetailOutputDto> window = favoritesWindowCache.get(userId);
         Map<String, Object> state = new HashMap<>();
-        state.put("hasMore", _hasMoreUserFavorites);
-        state.put("hasMoreNew", _hasMoreNewUserFavorites);
-        state.put("cachedFavoritesCount", _cachedUserFavorites.size());
-        state.put("maxCursor", _userFavoritesMaxCursor);
-        state.put("minCursor", _userFavoritesMinCursor);
+        state.put("hasMore", window != null ? window.getHasMoreHistory() : true);
+        state.put("hasMoreNew", window != null ? window.getHasMoreNew() : false);
+        state.put("cachedFavoritesCount", window != null ? window.getRecords().size() : 0);
+        state.put("maxCursor", window != null ? window.getNextMaxCursor() : null);
+        state.put("minCursor", window != null ? window.getNextMinCursor() : null);
         return state;
     }
 
+    /**
+     * 查询用户所有有效收藏的职位ID（用于构建用户互动索引）
+     */
+    public List<Integer> listFavoriteJobIds(String userId) {
+        return this.lambdaQuery()
+            .select(JobFavorite::getJobId)
+            .eq(JobFavorite::getUserId, userId)
+            .eq(JobFavorite::getStatus, 1)
+            .list()
+            .stream()
+            .map(JobFavorite::getJobId)
+            .collect(Collectors.toList());
+    }
+
     // 添加批量查询收藏状态的方法
     public Map<Integer, Boolean> batchGetFavoriteStatus(List<Integer> jobIds, String userId) {
         long startTime = System.currentTimeMillis();
-        System.out.println("【性能日志】开始批量查询收藏状态 - 职位数量: " + jobIds.size());
+        log.info("【性能日志】开始批量查询收藏状态 - 职位数量: {}", jobIds.size());
         Map<Integer, Boolean> result = new HashMap<>();
         // 初始化默认状态为false
         for (Integer jobId : jobIds) {
@@ -426,6 +344,12 @@ public class JobFavoriteService extends ServiceImpl<JobFavoriteMapper, JobFavori
         if (jobIds.isEmpty() || userId == null) {
             return result;
         }
+        // 优先使用用户互动索引，不可用时回表查询
+        Map<Integer, Boolean> indexed = interactionIndexService.getStatus(ToggleWriteBehindService.ToggleType.FAVORITE, userId, jobIds);
+        if (indexed != null) {
+            result.putAll(indexed);
+            return result;
+        }
         try {
             // 批量查询所有有效收藏的记录
             List<JobFavorite> favoriteList = this.lambdaQuery()
@@ -437,12 +361,14 @@ public class JobFavoriteService extends ServiceImpl<JobFavoriteMapper, JobFavori
             for (JobFavorite favorite : favoriteList) {
                 result.put(favorite.getJobId(), true);
             }
+            // 叠加尚未写回数据库的最新状态
+            toggleWriteBehindService.getPendingStatus(ToggleWriteBehindService.ToggleType.FAVORITE, jobIds, userId)
+                .forEach((jobId, status) -> result.put(jobId, status == 1));
             long endTime = System.currentTimeMillis();
-            System.out.println("【性能日志】批量查询收藏状态完成 - 耗时: " + (endTime - startTime) + 
-                    "ms, 已收藏数量: " + favoriteList.size() + "/" + jobIds.size());
+            log.info("【性能日志】批量查询收藏状态完成 - 耗时: {}ms, 已收藏数量: {}/{}", (endTime - startTime), favoriteList.size(), jobIds.size());
             return result;
         } catch (Exception e) {
-            System.out.println("【性能日志】批量查询收藏状态异常: " + e.getMessage());
+            log.error("【性能日志】批量查询收藏状态异常: {}", e.getMessage());
             return result;
         }
     }
@@ -1,22 +1,28 @@
 package com.ideafly.service.impl.interact;
 
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.ideafly.dto.job.CursorResponseDto;
 import com.ideafly.dto.job.JobListInputDto;
 import com.ideafly.dto.interact.JobLikeInputDto;
 import com.ideafly.dto.job.JobDetailOutputDto;
-import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.ideafly.mapper.interact.JobLikesMapper;
 import com.ideafly.model.Jobs;
 import com.ideafly.model.interact.JobLikes;
-import com.ideafly.model.users.Users;
+import com.ideafly.service.impl.JobExistenceIndex;
+import com.ideafly.service.impl.JobHydrationService;
 import com.ideafly.service.impl.PostsService;
+import com.ideafly.service.impl.users.UserStatsService;
 import com.ideafly.service.impl.users.UsersService;
-import com.ideafly.utils.PageUtil;
+import com.ideafly.utils.KeysetPagination;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import lombok.extern.slf4j.Slf4j;
 
 import javax.annotation.Resource;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -32,210 +38,172 @@ public class JobLikesService extends ServiceImpl<JobLikesMapper, JobLikes> {
     @Resource
     private UsersService usersService;
     
+    @Resource
+    private JobStatsService jobStatsService;
+    
+    @Resource
+    private JobHydrationService jobHydrationService;
+
+    @Resource
+    private ToggleWriteBehindService toggleWriteBehindService;
+
+    @Resource
+    private InteractionIndexService interactionIndexService;
+
+    @Resource
+    private FavoritesWindowCache favoritesWindowCache;
+
+    @Resource
+    private UserStatsService userStatsService;
+
+    @Resource
+    private JobExistenceIndex jobExistenceIndex;
+    
     /**
      * 获取用户点赞的职位列表
+     * 按点赞时间(created_at, id)游标分页，每页只查pageSize + 1条点赞记录，不做COUNT
      */
-    public Page<JobDetailOutputDto> getUserLikedJobs(JobListInputDto request, String userId) {
+    public CursorResponseDto<JobDetailOutputDto> getUserLikedJobs(JobListInputDto request, String userId) {
         long startTime = System.currentTimeMillis();
         log.info("【性能日志】开始获取用户点赞职位列表 - 参数: {}", request);
         
         if (userId == null) {
             // 用户未登录，返回空结果
             log.info("【性能日志】用户未登录，返回空点赞列表");
-            Page<Jobs> emptyPage = PageUtil.build(request);
-            return PageUtil.build(emptyPage, new ArrayList<>());
+            return new CursorResponseDto<>(new ArrayList<>(), null, null, false, false, 0L);
+        }
+        if (request.getPageSize() == null || request.getPageSize() <= 0) {
+            request.setPageSize(20);
         }
         
-        // 创建分页对象
-        Page<Jobs> page = PageUtil.build(request);
-        
-        // 1. 查询用户点赞的所有有效职位ID
+        // 1. 按点赞时间游标分页查询点赞记录（多查一条判断是否有更多）
         long likeQueryStart = System.currentTimeMillis();
-        // 总是使用第1页，因为我们已迁移到游标分页
-        Page<JobLikes> likePage = new Page<>(1, request.getPageSize());
-        List<JobLikes> likes = this.lambdaQuery()
+        KeysetPagination<JobLikes> pagination = KeysetPagination.of(JobLikes::getCreatedAt, JobLikes::getId,
+            request.getMaxCursor(), request.getMinCursor(), request.getPageSize());
+        LambdaQueryWrapper<JobLikes> likeWrapper = new LambdaQueryWrapper<>();
+        likeWrapper.select(JobLikes::getId, JobLikes::getJobId, JobLikes::getCreatedAt)
             .eq(JobLikes::getUserId, userId)
-            .eq(JobLikes::getStatus, 1) // 只查询有效点赞
-            .page(likePage)
-            .getRecords();
-            
-        if (likes.isEmpty()) {
-            System.out.println("【性能日志】用户没有点赞职位，返回空列表");
-            return PageUtil.build(page, new ArrayList<>());
-        }
+            .eq(JobLikes::getStatus, 1); // 只查询有效点赞
+        List<JobLikes> likes = pagination.page(this.list(pagination.apply(likeWrapper)));
         
-        // 提取点赞的职位ID
         List<Integer> likedJobIds = likes.stream()
             .map(JobLikes::getJobId)
             .collect(Collectors.toList());
-            
-        long likeQueryEnd = System.currentTimeMillis();
-        log.info("【性能日志】查询用户点赞职位ID耗时: {}ms, 点赞数量: {}", (likeQueryEnd - likeQueryStart), likedJobIds.size());
+        log.info("【性能日志】查询用户点赞职位ID耗时: {}ms, 点赞数量: {}", (System.currentTimeMillis() - likeQueryStart), likedJobIds.size());
         
-        // 2. 批量查询这些职位的详细信息
+        // 2. 按ID批量查询这一页的职位，保持点赞时间顺序（已删除的职位跳过）
         long jobsQueryStart = System.currentTimeMillis();
-        List<Jobs> likedJobs = jobsService.lambdaQuery()
-            .in(Jobs::getId, likedJobIds)
-            .list();
-            
-        if (likedJobs.isEmpty()) {
-            log.info("【性能日志】没有找到有效的职位信息，返回空列表");
-            return PageUtil.build(page, new ArrayList<>());
-        }
-            
-        // 维护ID到索引的映射，以保持点赞顺序
-        Map<Integer, Integer> jobIdToIndexMap = new HashMap<>();
-        for (int i = 0; i < likedJobIds.size(); i++) {
-            jobIdToIndexMap.put(likedJobIds.get(i), i);
-        }
-        
-        // 按点赞顺序排序职位
-        likedJobs.sort((job1, job2) -> {
-            Integer index1 = jobIdToIndexMap.get(job1.getId());
-            Integer index2 = jobIdToIndexMap.get(job2.getId());
-            return index1.compareTo(index2);
-        });
-        
-        long jobsQueryEnd = System.currentTimeMillis();
-        log.info("【性能日志】批量查询点赞职位详情耗时: {}ms, 职位数量: {}", (jobsQueryEnd - jobsQueryStart), likedJobs.size());
-        
-        // 3. 批量获取所需的数据，避免单个查询
-        
-        // 3.1 收集所有需要的用户ID
-        List<String> userIds = likedJobs.stream()
-            .map(Jobs::getUserId)
-            .distinct()
-            .collect(Collectors.toList());
-            
-        // 3.2 批量查询用户信息
-        long userQueryStart = System.currentTimeMillis();
-        List<Users> users = new ArrayList<>();
-        if (!userIds.isEmpty()) {
-            users = jobsService.getUsersService().lambdaQuery()
-                .in(Users::getId, userIds)
-                .list();
-        }
-        
-        // 用户ID到用户对象的映射
-        Map<String, Users> userMap = users.stream()
-            .collect(Collectors.toMap(Users::getId, user -> user, (u1, u2) -> u1));
-            
-        long userQueryEnd = System.currentTimeMillis();
-        log.info("【性能日志】批量查询用户信息耗时: {}ms, 用户数量: {}", (userQueryEnd - userQueryStart), users.size());
-        
-        // 3.3 批量查询统计数据
-        long statsQueryStart = System.currentTimeMillis();
-        
-        // 所有职位ID列表
-        List<Integer> jobIds = likedJobs.stream()
-            .map(Jobs::getId)
-            .collect(Collectors.toList());
-            
-        // 获取评论计数
-        Map<Integer, Integer> commentsCountMap = new HashMap<>();
-        try {
-            // 逐个获取评论数
-            for (Integer jobId : jobIds) {
-                int commentsCount = jobsService.getJobCommentsService().getJobCommentsCount(jobId);
-                commentsCountMap.put(jobId, commentsCount);
-            }
-        } catch (Exception e) {
-            log.error("批量获取评论数失败", e);
-            // 设置默认值
-            jobIds.forEach(id -> commentsCountMap.put(id, 0));
-        }
-        
-        // 获取收藏计数
-        Map<Integer, Integer> favoritesCountMap = new HashMap<>();
-        try {
-            // 逐个获取收藏数
-            for (Integer jobId : jobIds) {
-                int favoritesCount = jobsService.getJobFavoriteService().getJobFavoritesCount(jobId);
-                favoritesCountMap.put(jobId, favoritesCount);
+        Map<Integer, Jobs> jobMap = likedJobIds.isEmpty() ? new HashMap<>() : jobsService.listByIds(likedJobIds).stream()
+            .collect(Collectors.toMap(Jobs::getId, job -> job, (a, b) -> a));
+        List<Jobs> likedJobs = new ArrayList<>();
+        List<String> cursors = new ArrayList<>();
+        for (JobLikes like : likes) {
+            Jobs job = jobMap.get(like.getJobId());
+            if (job != null) {
+                likedJobs.add(job);
+                cursors.add(pagination.encodeCursor(like));
             }
-        } catch (Exception e) {
-            log.error("批量获取收藏数失败", e);
-            // 设置默认值
-            jobIds.forEach(id -> favoritesCountMap.put(id, 0));
         }
+        log.info("【性能日志】批量查询点赞职位详情耗时: {}ms, 职位数量: {}", (System.currentTimeMillis() - jobsQueryStart), likedJobs.size());
         
-        // 获取点赞计数（可以直接构建，因为我们知道这些都是被点赞的）
-        Map<Integer, Integer> likesCountMap = new HashMap<>();
-        for (Integer jobId : jobIds) {
-            likesCountMap.put(jobId, 1); // 至少被当前用户点赞过
+        // 3. 并发查询用户信息、计数和收藏状态并转换为DTO
+        // 由于这是点赞列表，我们已经知道所有职位都是被点赞的，跳过点赞状态查询
+        List<JobDetailOutputDto> result = jobHydrationService.hydrate(likedJobs, userId, true, false);
+        // 列表按点赞时间分页，每条记录的游标为点赞记录游标
+        for (int i = 0; i < result.size(); i++) {
+            result.get(i).setCursor(cursors.get(i));
         }
         
-        long statsQueryEnd = System.currentTimeMillis();
-        log.info("【性能日志】批量查询统计数据耗时: {}ms", (statsQueryEnd - statsQueryStart));
-        
-        // 3.4 批量查询点赞和收藏状态
-        // 由于这是点赞列表，我们已经知道所有职位都是被点赞的
-        final Map<Integer, Boolean> likeMap = new HashMap<>();
-        for (Integer jobId : jobIds) {
-            likeMap.put(jobId, true);
-        }
+        log.info("【性能日志】获取用户点赞职位完成 - 总耗时: {}ms", (System.currentTimeMillis() - startTime));
         
-        // 批量查询收藏状态
-        final Map<Integer, Boolean> favoriteMap = new HashMap<>();
-        try {
-            Map<Integer, Boolean> tempFavoriteMap = jobsService.getJobFavoriteService().batchGetFavoriteStatus(jobIds, userId);
-            favoriteMap.putAll(tempFavoriteMap);
-        } catch (Exception e) {
-            log.error("批量获取收藏状态失败", e);
-            // 设置默认值
-            jobIds.forEach(id -> favoriteMap.put(id, false));
-        }
-        
-        // 4. 批量转换为DTO
-        long dtoConvertStart = System.currentTimeMillis();
-        List<JobDetailOutputDto> result = new ArrayList<>();
-        
-        for (Jobs job : likedJobs) {
-            // 使用优化的批量转换方法
-            JobDetailOutputDto dto = jobsService.convertDto(
-                job, 
-                userMap, 
-                likesCountMap, 
-                favoritesCountMap, 
-                commentsCountMap, 
-                favoriteMap, 
-                likeMap
-            );
-            result.add(dto);
-        }
-        
-        long dtoConvertEnd = System.currentTimeMillis();
-        log.info("【性能日志】优化后的DTO批量转换耗时: {}ms", (dtoConvertEnd - dtoConvertStart));
-        
-        // 5. 构建分页结果
-        long endTime = System.currentTimeMillis();
-        log.info("【性能日志】获取用户点赞职位完成 - 总耗时: {}ms", (endTime - startTime));
-        
-        return PageUtil.build(page, result);
+        // 游标按点赞记录计算，这一页的职位都已删除时返回空列表但游标照常前进
+        return pagination.toResponse(result);
     }
     
     /**
      * 添加或取消点赞
      */
+    @Transactional(rollbackFor = Exception.class)
     public void addOrRemoveLike(JobLikeInputDto dto, String userId) {
-        // 验证职位是否存在 (保留现有逻辑)
-        Jobs job = jobsService.getById(dto.getJobId());
-        if (job == null) {
+        // 验证职位是否存在（存在性索引，不读取职位行）
+        if (!jobExistenceIndex.exists(dto.getJobId())) {
             log.warn("职位不存在，职位ID: {}", dto.getJobId());
             return;
         }
         
-        // 直接使用一条SQL完成插入或更新，实现原子操作
         int status = Objects.equals(dto.getIsLike(), 1) ? 1 : 0;
+
+        // 异步写回：记录最新状态后立即返回，由定时任务合并后批量写库
+        if (toggleWriteBehindService.isEnabled()
+                && toggleWriteBehindService.record(ToggleWriteBehindService.ToggleType.LIKE, dto.getJobId(), userId, status)) {
+            interactionIndexService.onToggle(ToggleWriteBehindService.ToggleType.LIKE, userId, dto.getJobId(), status);
+            // 收藏窗口中带有点赞状态
+            favoritesWindowCache.evict(userId);
+            log.info("{}操作已记录，职位ID: {}, 用户ID: {}", status == 1 ? "点赞" : "取消点赞", dto.getJobId(), userId);
+            return;
+        }
         
-        // 使用Mapper中的原子操作方法
-        int affected = this.baseMapper.insertOrUpdateLikeStatus(dto.getJobId(), userId, status);
+        // 同步写库：流中该职位较早的记录（记录失败前的操作或关闭异步写回前的剩余记录）不再写回，避免覆盖本次结果
+        toggleWriteBehindService.supersede(ToggleWriteBehindService.ToggleType.LIKE, dto.getJobId(), userId);
+        // 只有状态真正变化时才更新，便于精确维护点赞计数（重复点击不会重复计数）
+        int affected = this.baseMapper.updateLikeStatusIfChanged(dto.getJobId(), userId, status);
+        if (affected == 0 && status == 1) {
+            affected = this.baseMapper.insertLikeIfAbsent(dto.getJobId(), userId, status);
+        }
+        if (affected > 0) {
+            jobStatsService.incrLikes(dto.getJobId(), status == 1 ? 1 : -1);
+            userStatsService.incrLikesReceivedByJobs(Collections.singletonMap(dto.getJobId(), status == 1 ? 1 : -1));
+        }
+        interactionIndexService.onToggle(ToggleWriteBehindService.ToggleType.LIKE, userId, dto.getJobId(), status);
+        // 收藏窗口中带有点赞状态
+        // 提交后再失效，避免并发读取在提交前回填旧状态
+        favoritesWindowCache.evictAfterCommit(Collections.singletonList(userId));
         
         // 记录操作结果
         String actionName = status == 1 ? "点赞" : "取消点赞";
         log.info("{}操作完成，职位ID: {}, 用户ID: {}, 状态: {}, 影响行数: {}", actionName, dto.getJobId(), userId, status, affected);
     }
     
+    /**
+     * 批量写回合并后的点赞状态，并在同一事务中更新点赞计数
+     *
+     * @param toggles 每个(职位, 用户)最多一条，status为最终状态
+     * @return 状态实际发生变化的记录数
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public int applyLikeToggles(List<JobLikes> toggles) {
+        if (toggles.isEmpty()) {
+            return 0;
+        }
+        Map<String, Integer> currentStatus = new HashMap<>();
+        for (JobLikes row : this.baseMapper.selectStatusForUpdate(toggles)) {
+            currentStatus.put(row.getJobId() + ":" + row.getUserId(), row.getStatus());
+        }
+        List<JobLikes> changed = new ArrayList<>();
+        Map<Integer, Integer> deltas = new HashMap<>();
+        for (JobLikes toggle : toggles) {
+            // 没有记录视为未点赞
+            int oldStatus = Objects.equals(currentStatus.get(toggle.getJobId() + ":" + toggle.getUserId()), 1) ? 1 : 0;
+            if (oldStatus != toggle.getStatus()) {
+                changed.add(toggle);
+                deltas.merge(toggle.getJobId(), toggle.getStatus() == 1 ? 1 : -1, Integer::sum);
+            }
+        }
+        if (!changed.isEmpty()) {
+            this.baseMapper.upsertStatusBatch(changed);
+            // 收藏窗口中带有点赞状态，写回提交后删除
+            favoritesWindowCache.evictAfterCommit(changed.stream().map(JobLikes::getUserId).collect(Collectors.toList()));
+        }
+        deltas.forEach((jobId, delta) -> {
+            if (delta != 0) {
+                jobStatsService.incrLikes(jobId, delta);
+            }
+        });
+        // 同一事务中按作者合并更新获赞数
+        userStatsService.incrLikesReceivedByJobs(deltas);
+        return changed.size();
+    }
+    
     /**
      * 获取职位点赞数量
      */
@@ -246,12 +214,39 @@ public class JobLikesService extends ServiceImpl<JobLikesMapper, JobLikes> {
             .count().intValue();
     }
     
+    /**
+     * 批量获取职位点赞数量，一次 GROUP BY 聚合查询
+     */
+    public Map<Integer, Integer> batchGetLikesCount(List<Integer> jobIds) {
+        Map<Integer, Integer> result = new HashMap<>();
+        if (jobIds == null || jobIds.isEmpty()) {
+            return result;
+        }
+        jobIds.forEach(jobId -> result.put(jobId, 0));
+        List<Map<String, Object>> rows = this.listMaps(new QueryWrapper<JobLikes>()
+            .select("job_id", "COUNT(*) AS cnt")
+            .in("job_id", jobIds)
+            .eq("status", 1) // 只计算有效点赞
+            .groupBy("job_id"));
+        for (Map<String, Object> row : rows) {
+            result.put(((Number) row.get("job_id")).intValue(), ((Number) row.get("cnt")).intValue());
+        }
+        return result;
+    }
+    
     /**
      * 判断用户是否点赞了职位
      */
     public boolean isJobLikedByUser(Integer jobId, String userId) {
         // 添加调试日志
         log.debug("检查点赞状态 - jobId: {}, userId: {}", jobId, userId);
+
+        // 尚未写回数据库的最新状态优先
+        Integer pending = toggleWriteBehindService.getPendingStatus(
+                ToggleWriteBehindService.ToggleType.LIKE, Collections.singletonList(jobId), userId).get(jobId);
+        if (pending != null) {
+            return pending == 1;
+        }
         
         boolean result = this.lambdaQuery()
             .eq(JobLikes::getJobId, jobId)
@@ -273,6 +268,20 @@ public class JobLikesService extends ServiceImpl<JobLikesMapper, JobLikes> {
         return false;
     }
     
+    /**
+     * 查询用户所有有效点赞的职位ID（用于构建用户互动索引）
+     */
+    public List<Integer> listLikedJobIds(String userId) {
+        return this.lambdaQuery()
+            .select(JobLikes::getJobId)
+            .eq(JobLikes::getUserId, userId)
+            .eq(JobLikes::getStatus, 1)
+            .list()
+            .stream()
+            .map(JobLikes::getJobId)
+            .collect(Collectors.toList());
+    }
+
     // 添加批量查询点赞状态的方法
     public Map<Integer, Boolean> batchGetLikeStatus(List<Integer> jobIds, String userId) {
         long startTime = System.currentTimeMillis();
@@ -288,6 +297,12 @@ public class JobLikesService extends ServiceImpl<JobLikesMapper, JobLikes> {
         if (jobIds.isEmpty() || userId == null) {
             return result;
         }
+        // 优先使用用户互动索引，不可用时回表查询
+        Map<Integer, Boolean> indexed = interactionIndexService.getStatus(ToggleWriteBehindService.ToggleType.LIKE, userId, jobIds);
+        if (indexed != null) {
+            result.putAll(indexed);
+            return result;
+        }
         
         try {
             // 批量查询所有已点赞的记录
@@ -301,6 +316,9 @@ public class JobLikesService extends ServiceImpl<JobLikesMapper, JobLikes> {
             for (JobLikes like : likesList) {
                 result.put(like.getJobId(), true);
             }
+            // 叠加尚未写回数据库的最新状态
+            toggleWriteBehindService.getPendingStatus(ToggleWriteBehindService.ToggleType.LIKE, jobIds, userId)
+                .forEach((jobId, status) -> result.put(jobId, status == 1));
             
             long endTime = System.currentTimeMillis();
             log.info("【性能日志】批量查询点赞状态完成 - 耗时: {}ms, 已点赞数量: {}/{}", (endTime - startTime), likesList.size(), jobIds.size());
@@ -313,8 +331,8 @@ public class JobLikesService extends ServiceImpl<JobLikesMapper, JobLikes> {
     }
     
     /**
-     * 根据用户ID计算该用户获得的总点赞数
-     * 此方法从job_likes表中动态计算，替代原先在users表中存储的totalLikes字段
+     * 根据用户ID获取该用户获得的总点赞数
+     * 读取点赞和删除职位时增量维护的user_stats计数，替代原先在users表中存储的totalLikes字段
      */
     public Integer calculateUserTotalLikes(String userId) {
         if (userId == null) {
@@ -322,27 +340,8 @@ public class JobLikesService extends ServiceImpl<JobLikesMapper, JobLikes> {
         }
         
         try {
-            // 查询用户发布的所有职位
-            List<Jobs> userJobs = jobsService.lambdaQuery()
-                .eq(Jobs::getUserId, userId)
-                .list();
-                
-            if (userJobs.isEmpty()) {
-                return 0;
-            }
-            
-            // 提取所有职位ID
-            List<Integer> jobIds = userJobs.stream()
-                .map(Jobs::getId)
-                .collect(Collectors.toList());
-                
-            // 统计这些职位获得的有效点赞数（status=1）
-            Integer totalLikes = this.lambdaQuery()
-                .in(JobLikes::getJobId, jobIds)
-                .eq(JobLikes::getStatus, 1)
-                .count().intValue();
-                
-            return totalLikes;
+            // 读取增量维护的用户获赞数（Redis缓存 + user_stats主键查询），与作者发布的职位数无关
+            return userStatsService.getLikesReceived(userId);
         } catch (Exception e) {
             System.out.println("计算用户总点赞数失败: " + e.getMessage());
             return 0;
@@ -0,0 +1,236 @@
+package com.ideafly.service.impl.interact;
+
+import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.ideafly.mapper.interact.JobStatsMapper;
+import com.ideafly.model.interact.JobStats;
+import com.ideafly.utils.RedisUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.Resource;
+import java.util.*;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 职位计数服务
+ * 点赞/收藏/评论写入时增量维护 job_stats，列表读取时通过 Redis 批量获取，未命中再一次性回表
+ * 计数行缺失时通过各互动表的分组聚合补齐
+ */
+@Service
+@Slf4j
+public class JobStatsService extends ServiceImpl<JobStatsMapper, JobStats> {
+
+    @Resource
+    private RedisUtil redisUtil;
+
+    @Resource
+    private JobLikesService jobLikesService;
+
+    @Resource
+    private JobFavoriteService jobFavoriteService;
+
+    @Resource
+    private CommentService commentService;
+
+    private static final String JOB_STATS_KEY_PREFIX = "jobStats:";
+    // 计数缓存有效期：10分钟，写入时主动失效
+    private static final long JOB_STATS_CACHE_EXPIRE = 10 * 60 * 1000L;
+
+    /**
+     * 批量获取职位计数，一次 Redis MGET + 最多一次 DB 查询
+     * 没有计数行的职位返回全0计数
+     */
+    public Map<Integer, JobStats> getStatsMap(Collection<Integer> jobIds) {
+        Map<Integer, JobStats> result = new HashMap<>();
+        if (jobIds == null || jobIds.isEmpty()) {
+            return result;
+        }
+        List<Integer> ids = jobIds.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList());
+
+        // 1. 先查Redis
+        List<Integer> missingIds = new ArrayList<>();
+        try {
+            List<String> keys = ids.stream().map(this::statsKey).collect(Collectors.toList());
+            List<Object> cached = redisUtil.mGet(keys);
+            for (int i = 0; i < ids.size(); i++) {
+                Object value = i < cached.size() ? cached.get(i) : null;
+                if (value instanceof JobStats) {
+                    result.put(ids.get(i), (JobStats) value);
+                } else {
+                    missingIds.add(ids.get(i));
+                }
+            }
+        } catch (Exception e) {
+            log.warn("读取职位计数缓存失败，回退数据库: {}", e.getMessage());
+            missingIds = ids;
+        }
+
+        if (missingIds.isEmpty()) {
+            return result;
+        }
+
+        // 2. 未命中的一次性回表
+        Map<String, JobStats> toCache = new HashMap<>();
+        Map<Integer, JobStats> loaded = this.listByIds(missingIds).stream()
+                .collect(Collectors.toMap(JobStats::getJobId, stats -> stats, (a, b) -> a));
+
+        // 3. 还没有计数行的职位（如计数表上线前的数据），用分组聚合一次性补齐
+        List<Integer> unseededIds = missingIds.stream()
+                .filter(jobId -> !loaded.containsKey(jobId))
+                .collect(Collectors.toList());
+        if (!unseededIds.isEmpty()) {
+            loaded.putAll(seedStats(unseededIds));
+        }
+        for (Integer jobId : missingIds) {
+            JobStats stats = loaded.getOrDefault(jobId, new JobStats(jobId));
+            result.put(jobId, stats);
+            toCache.put(statsKey(jobId), stats);
+        }
+
+        try {
+            redisUtil.pSet(toCache, JOB_STATS_CACHE_EXPIRE);
+        } catch (Exception e) {
+            log.warn("写入职位计数缓存失败: {}", e.getMessage());
+        }
+        return result;
+    }
+
+    /**
+     * 通过三次分组聚合计算计数并写入计数表（每张表一条 GROUP BY，与职位数量无关）
+     */
+    private Map<Integer, JobStats> seedStats(List<Integer> jobIds) {
+        Map<Integer, JobStats> seeded = new HashMap<>();
+        try {
+            Map<Integer, Integer> likesCountMap = jobLikesService.batchGetLikesCount(jobIds);
+            Map<Integer, Integer> favoritesCountMap = jobFavoriteService.batchGetFavoritesCount(jobIds);
+            Map<Integer, Integer> commentsCountMap = commentService.batchGetCommentsCount(jobIds);
+            for (Integer jobId : jobIds) {
+                JobStats stats = new JobStats(jobId);
+                stats.setLikesCount(likesCountMap.getOrDefault(jobId, 0));
+                stats.setFavoritesCount(favoritesCountMap.getOrDefault(jobId, 0));
+                stats.setCommentsCount(commentsCountMap.getOrDefault(jobId, 0));
+                seeded.put(jobId, stats);
+            }
+            this.baseMapper.insertIgnoreBatch(new ArrayList<>(seeded.values()));
+        } catch (Exception e) {
+            log.error("初始化职位计数失败 - 职位ID: {}, 错误: {}", jobIds, e.getMessage());
+        }
+        return seeded;
+    }
+
+    /**
+     * 获取单个职位计数
+     */
+    public JobStats getStats(Integer jobId) {
+        return getStatsMap(Collections.singletonList(jobId)).getOrDefault(jobId, new JobStats(jobId));
+    }
+
+    /**
+     * 点赞数增量更新
+     */
+    public void incrLikes(Integer jobId, int delta) {
+        this.baseMapper.incrLikesCount(jobId, delta);
+        evictAfterCommit(jobId);
+    }
+
+    /**
+     * 收藏数增量更新
+     */
+    public void incrFavorites(Integer jobId, int delta) {
+        this.baseMapper.incrFavoritesCount(jobId, delta);
+        evictAfterCommit(jobId);
+    }
+
+    /**
+     * 评论数增量更新
+     */
+    public void incrComments(Integer jobId, int delta) {
+        this.baseMapper.incrCommentsCount(jobId, delta);
+        evictAfterCommit(jobId);
+    }
+
+    /**
+     * 删除职位计数（职位删除时调用）
+     */
+    public void removeStats(Integer jobId) {
+        this.removeById(jobId);
+        evictAfterCommit(jobId);
+    }
+
+    /**
+     * 按职位ID区间分批用实际评论数修正comments_count，并失效被修正职位的缓存
+     *
+     * @return 修正的职位数
+     */
+    public int reconcileCommentsCount(int batchSize) {
+        return reconcile(batchSize, this.baseMapper::selectCommentsCountDrift, this.baseMapper::reconcileCommentsCount);
+    }
+
+    /**
+     * 按职位ID区间分批用实际有效点赞数修正likes_count（增量可能因写回合并、重排或GREATEST截断产生偏差）
+     *
+     * @return 修正的职位数
+     */
+    public int reconcileLikesCount(int batchSize) {
+        return reconcile(batchSize, this.baseMapper::selectLikesCountDrift, this.baseMapper::reconcileLikesCount);
+    }
+
+    /**
+     * 按职位ID区间分批用实际有效收藏数修正favorites_count
+     *
+     * @return 修正的职位数
+     */
+    public int reconcileFavoritesCount(int batchSize) {
+        return reconcile(batchSize, this.baseMapper::selectFavoritesCountDrift, this.baseMapper::reconcileFavoritesCount);
+    }
+
+    private int reconcile(int batchSize, BiFunction<Integer, Integer, List<Integer>> driftQuery,
+                          Function<List<Integer>, Integer> fixer) {
+        int fixed = 0;
+        int maxJobId = this.baseMapper.selectMaxJobId();
+        for (int fromId = 1; fromId <= maxJobId; fromId += batchSize) {
+            List<Integer> driftIds = driftQuery.apply(fromId, fromId + batchSize - 1);
+            if (!driftIds.isEmpty()) {
+                fixer.apply(driftIds);
+                driftIds.forEach(this::evict);
+                fixed += driftIds.size();
+            }
+        }
+        return fixed;
+    }
+
+    /**
+     * 失效计数缓存；处于事务中时等提交后再失效，避免读到未提交前的旧值并回填
+     */
+    private void evictAfterCommit(Integer jobId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(jobId);
+                }
+            });
+        } else {
+            evict(jobId);
+        }
+    }
+
+    private void evict(Integer jobId) {
+        try {
+            redisUtil.del(statsKey(jobId));
+        } catch (Exception e) {
+            log.warn("失效职位计数缓存失败 - 职位ID: {}, 错误: {}", jobId, e.getMessage());
+        }
+    }
+
+    private String statsKey(Integer jobId) {
+        return JOB_STATS_KEY_PREFIX + jobId;
+    }
+}
@@ -0,0 +1,323 @@
+package com.ideafly.service.impl.interact;
+
+import com.ideafly.config.ToggleWriteBehindConfig;
+import com.ideafly.model.interact.JobFavorite;
+import com.ideafly.model.interact.JobLikes;
+import com.ideafly.utils.RedisUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.Resource;
+import java.util.*;
+
+/**
+ * 点赞/收藏异步写回
+ * 操作时先追加到Redis流 interact:toggle:stream（持久化日志，进程崩溃后由下一次写回重放），
+ * 并在同一事务中把最新状态写入每个用户一个的 interact:toggle:pending:{类型}:{用户ID}（项为职位ID，带过期时间）
+ * 供状态查询叠加；
+ * 定时任务持锁从流中按顺序读取一批记录，按(类型, 职位, 用户)合并为最后一次状态，
+ * 多行写入 job_likes/job_favorites 并在同一事务中更新计数，成功后删除流记录和未被覆盖的待写状态。
+ * 关闭异步写回后只停止记录新操作，流中剩余的记录照常写回，写完之前状态查询仍叠加待写状态；
+ * 记录失败改为同步写库时，待写状态被替换为已同步标记，写回时跳过该职位较早的流记录，避免覆盖同步写入的结果。
+ */
+@Service
+@Slf4j
+public class ToggleWriteBehindService {
+
+    private static final String STREAM_KEY = "interact:toggle:stream";
+    private static final String PENDING_KEY_PREFIX = "interact:toggle:pending:";
+    private static final String FLUSH_LOCK_KEY = "interact:toggle:flushLock";
+    // 单次写回最多处理的批次数，避免长时间持锁
+    private static final int MAX_BATCHES_PER_FLUSH = 20;
+    // 待写状态中的已同步标记：该操作已同步写库，较早的流记录不再写回
+    private static final int SUPERSEDED = -1;
+
+    public enum ToggleType {
+        LIKE, FAVORITE
+    }
+
+    @Resource
+    private RedisUtil redisUtil;
+
+    @Resource
+    private ToggleWriteBehindConfig toggleWriteBehindConfig;
+
+    @Resource
+    private JobLikesService jobLikesService;
+
+    @Resource
+    private JobFavoriteService jobFavoriteService;
+
+    private final String instanceId = UUID.randomUUID().toString();
+
+    // 关闭异步写回后流中是否还有未写回的记录（由定时任务更新）
+    private volatile boolean draining;
+
+    public boolean isEnabled() {
+        return toggleWriteBehindConfig.isEnabled();
+    }
+
+    /**
+     * 是否可能存在未写回的操作：开启异步写回，或关闭后流中的记录尚未写完
+     */
+    private boolean hasPendingWrites() {
+        return isEnabled() || draining;
+    }
+
+    /**
+     * 记录一次点赞/收藏操作
+     *
+     * @return 是否记录成功；失败时调用方应同步写库
+     */
+    public boolean record(ToggleType type, Integer jobId, String userId, int status) {
+        try {
+            Map<String, Object> fields = new HashMap<>();
+            fields.put("type", type.name());
+            fields.put("jobId", jobId);
+            fields.put("userId", userId);
+            fields.put("status", status);
+            // 待写状态与流记录在同一事务中写入，写回不会读到流记录却看不到对应的待写状态
+            redisUtil.hSetAndXAdd(pendingKey(type, userId), jobId, status,
+                    toggleWriteBehindConfig.getPendingExpireMillis(), STREAM_KEY, fields);
+            return true;
+        } catch (Exception e) {
+            log.error("记录互动操作失败，改为同步写库 - 类型: {}, 职位ID: {}, 用户ID: {}, 错误: {}", type, jobId, userId, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 同步写库前调用：把该职位的待写状态替换为已同步标记，写回时跳过流中较早的记录
+     */
+    public void supersede(ToggleType type, Integer jobId, String userId) {
+        if (!hasPendingWrites() || jobId == null || userId == null) {
+            return;
+        }
+        try {
+            redisUtil.hSet(pendingKey(type, userId), jobId, SUPERSEDED, toggleWriteBehindConfig.getPendingExpireMillis());
+        } catch (Exception e) {
+            log.warn("标记待写互动状态失败，较早的流记录可能覆盖本次写入 - 类型: {}, 职位ID: {}, 用户ID: {}, 错误: {}",
+                    type, jobId, userId, e.getMessage());
+        }
+    }
+
+    /**
+     * 查询尚未写回数据库的最新状态
+     *
+     * @return 职位ID -> 状态(1/0)，没有待写状态的职位不包含在结果中
+     */
+    public Map<Integer, Integer> getPendingStatus(ToggleType type, Collection<Integer> jobIds, String userId) {
+        Map<Integer, Integer> result = new HashMap<>();
+        if (!hasPendingWrites() || userId == null || jobIds == null || jobIds.isEmpty()) {
+            return result;
+        }
+        try {
+            List<Integer> ids = new ArrayList<>(jobIds);
+            List<Object> values = redisUtil.hMGet(pendingKey(type, userId), ids);
+            for (int i = 0; i < ids.size() && i < values.size(); i++) {
+                if (values.get(i) instanceof Integer && !Integer.valueOf(SUPERSEDED).equals(values.get(i))) {
+                    result.put(ids.get(i), (Integer) values.get(i));
+                }
+            }
+        } catch (Exception e) {
+            log.warn("读取待写互动状态失败: {}", e.getMessage());
+        }
+        return result;
+    }
+
+    /**
+     * 查询某个用户所有尚未写回数据库的最新状态（读取该用户自己的待写hash，只含一个写回间隔内的操作）
+     *
+     * @return 职位ID -> 状态(1/0)；读取失败时返回null，调用方应按存在待写操作处理
+     */
+    public Map<Integer, Integer> getPendingStatusForUser(ToggleType type, String userId) {
+        Map<Integer, Integer> result = new HashMap<>();
+        if (!hasPendingWrites() || userId == null) {
+            return result;
+        }
+        try {
+            Map<Integer, Integer> pending = redisUtil.hGetAll(pendingKey(type, userId));
+            pending.forEach((jobId, status) -> {
+                if (status != SUPERSEDED) {
+                    result.put(jobId, status);
+                }
+            });
+        } catch (Exception e) {
+            log.warn("读取用户待写互动状态失败 - 类型: {}, 用户ID: {}, 错误: {}", type, userId, e.getMessage());
+            return null;
+        }
+        return result;
+    }
+
+    /**
+     * 定时写回：持锁读取流中的记录，合并后批量写库；关闭异步写回后继续写完流中剩余的记录
+     */
+    @Scheduled(initialDelayString = "${interact.write-behind.flush-interval-millis:1000}",
+            fixedDelayString = "${interact.write-behind.flush-interval-millis:1000}")
+    public void flush() {
+        if (!isEnabled()) {
+            try {
+                Long remaining = redisUtil.xLen(STREAM_KEY);
+                draining = remaining != null && remaining > 0;
+            } catch (Exception e) {
+                log.debug("读取互动流长度失败: {}", e.getMessage());
+            }
+            if (!draining) {
+                return;
+            }
+        }
+        try {
+            if (!Boolean.TRUE.equals(redisUtil.lock(FLUSH_LOCK_KEY, instanceId, toggleWriteBehindConfig.getLockExpireMillis()))) {
+                return;
+            }
+        } catch (Exception e) {
+            log.debug("获取互动写回锁失败: {}", e.getMessage());
+            return;
+        }
+        try {
+            for (int i = 0; i < MAX_BATCHES_PER_FLUSH; i++) {
+                if (flushBatch() < toggleWriteBehindConfig.getBatchSize()) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            // 未删除的流记录在下一次写回时重放
+            log.error("互动写回异常，稍后重试: {}", e.getMessage(), e);
+        } finally {
+            try {
+                redisUtil.releaseLock(FLUSH_LOCK_KEY, instanceId);
+            } catch (Exception e) {
+                log.warn("释放互动写回锁失败: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 写回一批记录
+     *
+     * @return 本批读取的流记录数
+     */
+    private int flushBatch() {
+        List<MapRecord<String, Object, Object>> records = redisUtil.xRange(STREAM_KEY, toggleWriteBehindConfig.getBatchSize());
+        if (records.isEmpty()) {
+            return 0;
+        }
+        // 按流的顺序合并，同一(职位, 用户)只保留最后一次状态
+        Map<String, JobLikes> likes = new LinkedHashMap<>();
+        Map<String, JobFavorite> favorites = new LinkedHashMap<>();
+        List<String> recordIds = new ArrayList<>(records.size());
+        for (MapRecord<String, Object, Object> record : records) {
+            recordIds.add(record.getId().getValue());
+            Map<Object, Object> value = record.getValue();
+            try {
+                ToggleType type = ToggleType.valueOf((String) value.get("type"));
+                Integer jobId = (Integer) value.get("jobId");
+                String userId = (String) value.get("userId");
+                Integer status = (Integer) value.get("status");
+                String field = mergeKey(jobId, userId);
+                if (type == ToggleType.LIKE) {
+                    JobLikes like = new JobLikes();
+                    like.setJobId(jobId);
+                    like.setUserId(userId);
+                    like.setStatus(status);
+                    likes.remove(field);
+                    likes.put(field, like);
+                } else {
+                    JobFavorite favorite = new JobFavorite();
+                    favorite.setJobId(jobId);
+                    favorite.setUserId(userId);
+                    favorite.setStatus(status);
+                    favorites.remove(field);
+                    favorites.put(field, favorite);
+                }
+            } catch (Exception e) {
+                log.error("丢弃无法解析的互动记录 - ID: {}, 内容: {}", record.getId(), value);
+            }
+        }
+
+        // 已被同步写库覆盖的操作不再写回，只清除其已同步标记
+        Map<String, Object> supersededLikes = removeSuperseded(ToggleType.LIKE, likes);
+        Map<String, Object> supersededFavorites = removeSuperseded(ToggleType.FAVORITE, favorites);
+
+        int changedLikes = jobLikesService.applyLikeToggles(new ArrayList<>(likes.values()));
+        int changedFavorites = jobFavoriteService.applyFavoriteToggles(new ArrayList<>(favorites.values()));
+
+        // 已写库，删除流记录；待写状态只删除没有被更新操作覆盖的项
+        redisUtil.xDel(STREAM_KEY, recordIds);
+        clearPending(ToggleType.LIKE, likes);
+        clearPending(ToggleType.FAVORITE, favorites);
+        clearPending(ToggleType.LIKE, supersededLikes);
+        clearPending(ToggleType.FAVORITE, supersededFavorites);
+
+        log.info("互动写回完成 - 流记录数: {}, 合并后点赞: {}, 收藏: {}, 状态变化点赞: {}, 收藏: {}",
+                records.size(), likes.size(), favorites.size(), changedLikes, changedFavorites);
+        return records.size();
+    }
+
+    /**
+     * 从合并结果中移除待写状态为已同步标记的项
+     *
+     * @return 被移除的项，状态替换为已同步标记，供比较删除
+     */
+    private Map<String, Object> removeSuperseded(ToggleType type, Map<String, ?> merged) {
+        Map<String, Object> superseded = new HashMap<>();
+        if (merged.isEmpty()) {
+            return superseded;
+        }
+        Map<String, List<String>> fieldsByUser = new HashMap<>();
+        merged.forEach((field, row) -> fieldsByUser.computeIfAbsent(userIdOf(row), k -> new ArrayList<>()).add(field));
+        fieldsByUser.forEach((userId, fields) -> {
+            List<Integer> jobIds = new ArrayList<>(fields.size());
+            fields.forEach(field -> jobIds.add(jobIdOf(merged.get(field))));
+            List<Object> values = redisUtil.hMGet(pendingKey(type, userId), jobIds);
+            for (int i = 0; i < fields.size() && i < values.size(); i++) {
+                if (Integer.valueOf(SUPERSEDED).equals(values.get(i))) {
+                    Object row = merged.remove(fields.get(i));
+                    if (row instanceof JobLikes) {
+                        ((JobLikes) row).setStatus(SUPERSEDED);
+                    } else {
+                        ((JobFavorite) row).setStatus(SUPERSEDED);
+                    }
+                    superseded.put(fields.get(i), row);
+                }
+            }
+        });
+        return superseded;
+    }
+
+    private static String userIdOf(Object row) {
+        return row instanceof JobLikes ? ((JobLikes) row).getUserId() : ((JobFavorite) row).getUserId();
+    }
+
+    private static Integer jobIdOf(Object row) {
+        return row instanceof JobLikes ? ((JobLikes) row).getJobId() : ((JobFavorite) row).getJobId();
+    }
+
+    private void clearPending(ToggleType type, Map<String, ?> flushed) {
+        if (flushed.isEmpty()) {
+            return;
+        }
+        // 按用户分组，每个用户的待写状态一次比较删除
+        Map<String, Map<Integer, Integer>> expectedByUser = new HashMap<>();
+        flushed.values().forEach(row -> {
+            if (row instanceof JobLikes) {
+                JobLikes like = (JobLikes) row;
+                expectedByUser.computeIfAbsent(like.getUserId(), k -> new HashMap<>()).put(like.getJobId(), like.getStatus());
+            } else {
+                JobFavorite favorite = (JobFavorite) row;
+                expectedByUser.computeIfAbsent(favorite.getUserId(), k -> new HashMap<>()).put(favorite.getJobId(), favorite.getStatus());
+            }
+        });
+        expectedByUser.forEach((userId, expected) -> redisUtil.hDelIfEquals(pendingKey(type, userId), expected));
+    }
+
+    private String pendingKey(ToggleType type, String userId) {
+        return PENDING_KEY_PREFIX + type.name().toLowerCase() + ":" + userId;
+    }
+
+    private String mergeKey(Integer jobId, String userId) {
+        return jobId + ":" + userId;
+    }
+}
@@ -0,0 +1,65 @@
+package com.ideafly.service.impl.users;
+
+import com.ideafly.model.users.Users;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.util.Collections;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 已停用用户集合
+ * 启动时同步加载status=0的用户ID并定时刷新（走users(status)索引），认证时据此拦截已停用用户，不再逐请求查询用户表；
+ * 首次加载成功前调用方应回退到按用户查询状态
+ */
+@Component
+@Slf4j
+public class DisabledUserRegistry {
+
+    @Resource
+    private UsersService usersService;
+
+    private volatile Set<String> disabledUserIds = Collections.emptySet();
+
+    // 是否已成功加载过一次，加载前集合为空不可信
+    private volatile boolean loaded;
+
+    @PostConstruct
+    public void init() {
+        refresh();
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public boolean isDisabled(String userId) {
+        return userId != null && disabledUserIds.contains(userId);
+    }
+
+    /**
+     * 定时刷新已停用用户集合，失败时保留上一次的结果
+     */
+    @Scheduled(initialDelayString = "${auth.disabled-users-initial-delay-millis:5000}",
+            fixedDelayString = "${auth.disabled-users-refresh-millis:60000}")
+    public void refresh() {
+        try {
+            Set<String> ids = usersService.lambdaQuery()
+                    .select(Users::getId)
+                    .eq(Users::getStatus, 0)
+                    .list()
+                    .stream()
+                    .map(Users::getId)
+                    .collect(Collectors.toSet());
+            disabledUserIds = Collections.unmodifiableSet(ids);
+            loaded = true;
+            log.debug("刷新已停用用户集合完成 - 数量: {}", ids.size());
+        } catch (Exception e) {
+            log.error("刷新已停用用户集合异常: {}", e.getMessage());
+        }
+    }
+}
@@ -5,11 +5,15 @@ import com.ideafly.dto.user.UserFollowInputDto;
 import com.ideafly.dto.user.UserFollowStatusDto;
 import com.ideafly.mapper.users.UserFollowMapper;
 import com.ideafly.dto.user.UserFollowStatsDto;
+import com.ideafly.dto.user.UserSummaryDto;
 import com.ideafly.model.users.UserFollow;
+import com.ideafly.model.users.UserStats;
 import com.ideafly.model.users.Users;
 import com.ideafly.service.UserFollowService;
+import com.ideafly.service.impl.FollowingTimelineService;
 
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import javax.annotation.Resource;
 import java.util.ArrayList;
@@ -24,9 +28,16 @@ public class UserFollowServiceImpl extends ServiceImpl<UserFollowMapper, UserFol
     @Resource
     private UsersService usersService;
 
+    @Resource
+    private FollowingTimelineService followingTimelineService;
+
+    @Resource
+    private UserStatsService userStatsService;
+
     /**
      * 关注用户
      */
+    @Transactional(rollbackFor = Exception.class)
     public void followUser(String userId, String targetUserId) {
         if (targetUserId == null) {
             throw new IllegalArgumentException("被关注者ID不能为空");
@@ -38,7 +49,7 @@ public class UserFollowServiceImpl extends ServiceImpl<UserFollowMapper, UserFol
         }
         
         // 检查被关注的用户是否存在
-        Users followedUser = usersService.getById(targetUserId);
+        UserSummaryDto followedUser = usersService.getSummary(targetUserId);
         if (followedUser == null) {
             throw new IllegalArgumentException("被关注的用户不存在");
         }
@@ -57,16 +68,21 @@ public class UserFollowServiceImpl extends ServiceImpl<UserFollowMapper, UserFol
             userFollow.setCreatedAt(new Date());
             userFollow.setStatus(1); // 激活状态
             this.save(userFollow);
+            userStatsService.incrFollowCounts(userId, targetUserId, 1);
+            followingTimelineService.evictTimeline(userId);
         } else if (userFollow.getStatus() == 0) {
-            // 如果记录存在但状态为0，激活关注状态
-            userFollow.setStatus(1);
-            this.updateById(userFollow);
+            // 如果记录存在但状态为0，激活关注状态（条件更新，并发的重复请求只计数一次）
+            if (this.baseMapper.updateStatus(userFollow.getId(), 0, 1) > 0) {
+                userStatsService.incrFollowCounts(userId, targetUserId, 1);
+                followingTimelineService.evictTimeline(userId);
+            }
         }
     }
 
     /**
      * 取消关注用户
      */
+    @Transactional(rollbackFor = Exception.class)
     public void unfollowUser(String userId, String targetUserId) {
         if (targetUserId == null) {
             throw new IllegalArgumentException("被关注者ID不能为空");
@@ -79,9 +95,11 @@ public class UserFollowServiceImpl extends ServiceImpl<UserFollowMapper, UserFol
                 .one();
         
         if (userFollow != null && userFollow.getStatus() == 1) {
-            // 如果记录存在且状态为1，取消关注
-            userFollow.setStatus(0);
-            this.updateById(userFollow);
+            // 如果记录存在且状态为1，取消关注（条件更新，并发的重复请求只计数一次）
+            if (this.baseMapper.updateStatus(userFollow.getId(), 1, 0) > 0) {
+                userStatsService.incrFollowCounts(userId, targetUserId, -1);
+                followingTimelineService.evictTimeline(userId);
+            }
         }
     }
 
@@ -168,6 +186,8 @@ public class UserFollowServiceImpl extends ServiceImpl<UserFollowMapper, UserFol
 
     /**
      * 获取用户的关注统计信息
+     * 关注数和粉丝数读 user_stats 计数，互关数用一次自连接 COUNT 计算，整体缓存到 Redis，
+     * 关注关系变化时失效双方的缓存；用户名从用户信息两级缓存读取，改名后立即生效
      */
     @Override
     public UserFollowStatsDto getUserFollowStats(String userId) {
@@ -178,51 +198,22 @@ public class UserFollowServiceImpl extends ServiceImpl<UserFollowMapper, UserFol
         }
         
         // 获取用户信息
-        Users user = usersService.getById(userId);
+        UserSummaryDto user = usersService.getSummary(userId);
         if (user == null) {
             throw new IllegalArgumentException("用户不存在");
         }
         
-        // 查询关注数量 (用户关注的人数)
-        long followingCount = this.lambdaQuery()
-                .eq(UserFollow::getFollowerId, userId)
-                .eq(UserFollow::getStatus, 1) // 只统计激活状态的关注
-                .count();
-        
-        // 查询粉丝数量 (关注该用户的人数)
-        long followersCount = this.lambdaQuery()
-                .eq(UserFollow::getFollowedId, userId)
-                .eq(UserFollow::getStatus, 1) // 只统计激活状态的关注
-                .count();
-        
-        // 查询互相关注数量
-        // 1. 先获取该用户关注的人
-        List<String> followingIds = this.lambdaQuery()
-                .eq(UserFollow::getFollowerId, userId)
-                .eq(UserFollow::getStatus, 1)
-                .list()
-                .stream()
-                .map(UserFollow::getFollowedId)
-                .collect(Collectors.toList());
-        
-        // 2. 如果没有关注任何人，互关数量为0
-        long mutualCount = 0;
-        if (!followingIds.isEmpty()) {
-            // 3. 在这些人中查找有多少人也关注了该用户
-            mutualCount = this.lambdaQuery()
-                    .eq(UserFollow::getFollowedId, userId) // 关注了该用户
-                    .in(UserFollow::getFollowerId, followingIds) // 且被该用户关注
-                    .eq(UserFollow::getStatus, 1) // 只统计激活状态的关注
-                    .count();
+        UserFollowStatsDto stats = userStatsService.getCachedFollowStats(userId);
+        if (stats == null) {
+            UserStats counts = userStatsService.getStats(userId);
+            stats = new UserFollowStatsDto();
+            stats.setUserId(userId);
+            stats.setFollowersCount(counts.getFollowersCount());
+            stats.setFollowingCount(counts.getFollowingCount());
+            stats.setMutualFollowCount(this.baseMapper.countMutualFollows(userId));
+            userStatsService.cacheFollowStats(stats);
         }
-        
-        // 构建并返回统计DTO
-        UserFollowStatsDto stats = new UserFollowStatsDto();
-        stats.setUserId(userId);
         stats.setUsername(user.getUsername());
-        stats.setFollowersCount((int) followersCount);
-        stats.setFollowingCount((int) followingCount);
-        stats.setMutualFollowCount((int) mutualCount);
         
         return stats;
     }
@@ -0,0 +1,145 @@
+package com.ideafly.service.impl.users;
+
+import cn.hutool.cache.CacheUtil;
+import cn.hutool.cache.impl.LRUCache;
+import com.ideafly.config.UserCacheConfig;
+import com.ideafly.dto.user.UserSummaryDto;
+import com.ideafly.utils.RedisUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 用户摘要两级缓存
+ * 第一级为本地LRU缓存（条数与过期时间有界），第二级为Redis中每个用户一个key user:profile:{userId}，
+ * 各自过期；批量读取一次MGET，回填走管道。缓存的是不可变的用户摘要，可以安全地在线程间共享。
+ * 用户信息变更时删除两级缓存，并通过Redis频道通知其他节点删除本地缓存。
+ */
+@Component
+@Slf4j
+public class UserProfileCache {
+
+    private static final String KEY_PREFIX = "user:profile:";
+
+    @Resource
+    private RedisUtil redisUtil;
+
+    @Resource
+    private UserCacheConfig userCacheConfig;
+
+    @Resource
+    private RedisMessageListenerContainer redisMessageListenerContainer;
+
+    private LRUCache<String, UserSummaryDto> nearCache;
+
+    @PostConstruct
+    public void init() {
+        nearCache = CacheUtil.newLRUCache(userCacheConfig.getNearMaxSize(), userCacheConfig.getNearTtlMillis());
+        redisMessageListenerContainer.addMessageListener((message, pattern) -> {
+            try {
+                String userId = redisUtil.deserializeMessage(message.getBody());
+                if (userId != null) {
+                    nearCache.remove(userId);
+                }
+            } catch (Exception e) {
+                log.error("处理用户缓存失效通知异常: {}", e.getMessage());
+            }
+        }, new ChannelTopic(userCacheConfig.getEvictChannel()));
+    }
+
+    /**
+     * 读取单个用户摘要
+     *
+     * @param loader 缓存未命中时按ID批量从数据库加载
+     */
+    public UserSummaryDto get(String userId, Function<Collection<String>, List<UserSummaryDto>> loader) {
+        if (userId == null) {
+            return null;
+        }
+        return getAll(Collections.singletonList(userId), loader).get(userId);
+    }
+
+    /**
+     * 批量读取用户摘要，依次查本地缓存、Redis、数据库，并回填上一级
+     *
+     * @param loader 缓存未命中时按ID批量从数据库加载
+     * @return 用户ID -> 用户摘要，不存在的用户不包含在结果中
+     */
+    public Map<String, UserSummaryDto> getAll(Collection<String> userIds, Function<Collection<String>, List<UserSummaryDto>> loader) {
+        Map<String, UserSummaryDto> result = new HashMap<>();
+        Set<String> misses = new LinkedHashSet<>();
+        for (String userId : userIds) {
+            if (userId == null) {
+                continue;
+            }
+            UserSummaryDto user = nearCache.get(userId);
+            if (user != null) {
+                result.put(userId, user);
+            } else {
+                misses.add(userId);
+            }
+        }
+        if (misses.isEmpty()) {
+            return result;
+        }
+
+        List<String> missIds = new ArrayList<>(misses);
+        try {
+            List<UserSummaryDto> values = redisUtil.mGet(missIds.stream().map(this::profileKey).collect(Collectors.toList()));
+            for (int i = 0; i < missIds.size() && i < values.size(); i++) {
+                UserSummaryDto user = values.get(i);
+                if (user != null) {
+                    result.put(missIds.get(i), user);
+                    nearCache.put(missIds.get(i), user);
+                    misses.remove(missIds.get(i));
+                }
+            }
+        } catch (Exception e) {
+            log.error("从Redis读取用户缓存异常，回源数据库: {}", e.getMessage());
+        }
+        if (misses.isEmpty()) {
+            return result;
+        }
+
+        List<UserSummaryDto> loaded = loader.apply(misses);
+        Map<String, UserSummaryDto> toCache = new HashMap<>();
+        for (UserSummaryDto user : loaded) {
+            result.put(user.getId(), user);
+            nearCache.put(user.getId(), user);
+            toCache.put(profileKey(user.getId()), user);
+        }
+        try {
+            redisUtil.pSet(toCache, userCacheConfig.getRedisTtlMillis());
+        } catch (Exception e) {
+            log.error("回填Redis用户缓存异常: {}", e.getMessage());
+        }
+        return result;
+    }
+
+    /**
+     * 用户信息变更后删除两级缓存，并通知其他节点
+     */
+    public void evict(String userId) {
+        if (userId == null) {
+            return;
+        }
+        nearCache.remove(userId);
+        try {
+            redisUtil.del(profileKey(userId));
+            redisUtil.publish(userCacheConfig.getEvictChannel(), userId);
+        } catch (Exception e) {
+            log.error("删除用户缓存异常 - 用户ID: {}, 错误: {}", userId, e.getMessage());
+        }
+    }
+
+    private String profileKey(String userId) {
+        return KEY_PREFIX + userId;
+    }
+}
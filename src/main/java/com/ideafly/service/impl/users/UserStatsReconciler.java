@@ -0,0 +1,60 @@
+package com.ideafly.service.impl.users;
+
+import com.ideafly.config.UserStatsConfig;
+import com.ideafly.utils.RedisUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.Resource;
+import java.util.UUID;
+
+/**
+ * 用户计数修正任务
+ * user_stats 在点赞、删除职位和关注关系变化时增量维护，定时按用户分批与实际数据比对，
+ * 修正写回异常、删除职位时的并发点赞等原因造成的偏差
+ */
+@Service
+@Slf4j
+public class UserStatsReconciler {
+
+    private static final String LOCK_KEY = "user:stats:reconcileLock";
+
+    @Resource
+    private UserStatsService userStatsService;
+
+    @Resource
+    private UserStatsConfig userStatsConfig;
+
+    @Resource
+    private RedisUtil redisUtil;
+
+    private final String instanceId = UUID.randomUUID().toString();
+
+    @Scheduled(cron = "${user.stats.reconcile-cron:0 30 3 * * ?}")
+    public void reconcile() {
+        try {
+            if (!Boolean.TRUE.equals(redisUtil.lock(LOCK_KEY, instanceId, userStatsConfig.getLockExpireMillis()))) {
+                return;
+            }
+        } catch (Exception e) {
+            log.error("获取用户计数修正锁失败: {}", e.getMessage());
+            return;
+        }
+        long startTime = System.currentTimeMillis();
+        try {
+            int likesFixed = userStatsService.reconcileLikesReceived(userStatsConfig.getBatchSize());
+            int followFixed = userStatsService.reconcileFollowCounts(userStatsConfig.getBatchSize());
+            log.info("用户计数修正完成 - 修正获赞数: {}, 修正关注数/粉丝数: {}, 耗时: {}ms",
+                    likesFixed, followFixed, (System.currentTimeMillis() - startTime));
+        } catch (Exception e) {
+            log.error("用户计数修正异常: {}", e.getMessage(), e);
+        } finally {
+            try {
+                redisUtil.releaseLock(LOCK_KEY, instanceId);
+            } catch (Exception e) {
+                log.warn("释放用户计数修正锁失败: {}", e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,308 @@
+package com.ideafly.service.impl.users;
+
+import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.ideafly.config.UserStatsConfig;
+import com.ideafly.dto.user.UserFollowStatsDto;
+import com.ideafly.mapper.users.UserStatsMapper;
+import com.ideafly.model.Jobs;
+import com.ideafly.model.users.UserStats;
+import com.ideafly.model.users.Users;
+import com.ideafly.service.impl.PostsService;
+import com.ideafly.utils.RedisUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.Resource;
+import java.util.*;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
+
+/**
+ * 用户计数服务
+ * 作者获赞数在点赞状态变化和删除职位时、关注数和粉丝数在关注关系变化时增量维护 user_stats，
+ * 读取时先查 Redis 再回表，计数行缺失时分组聚合补齐；定时任务按用户分批与实际数据比对修正。
+ * 关注统计（含互关数）另外整体缓存，计数变化时与用户计数一起失效
+ */
+@Service
+@Slf4j
+public class UserStatsService extends ServiceImpl<UserStatsMapper, UserStats> {
+
+    private static final String USER_STATS_KEY_PREFIX = "userStats:";
+    private static final String FOLLOW_STATS_KEY_PREFIX = "userFollowStats:";
+
+    @Resource
+    private RedisUtil redisUtil;
+
+    @Resource
+    private PostsService postsService;
+
+    @Resource
+    private UsersService usersService;
+
+    @Resource
+    private UserStatsConfig userStatsConfig;
+
+    /**
+     * 获取用户计数，一次 Redis GET，未命中时一次主键查询
+     */
+    public UserStats getStats(String userId) {
+        try {
+            UserStats cached = redisUtil.get(statsKey(userId));
+            if (cached != null) {
+                return cached;
+            }
+        } catch (Exception e) {
+            log.warn("读取用户计数缓存失败，回退数据库 - 用户ID: {}, 错误: {}", userId, e.getMessage());
+        }
+        UserStats stats = this.getById(userId);
+        if (stats == null) {
+            if (usersService.getSummary(userId) == null) {
+                // 用户不存在（接口可传入任意用户ID），返回零计数，不建计数行也不缓存
+                return new UserStats(userId);
+            }
+            // 还没有计数行（如计数表上线前的用户），用分组聚合补齐
+            stats = seedStats(userId);
+        }
+        try {
+            redisUtil.set(statsKey(userId), stats, userStatsConfig.getCacheTtlMillis());
+        } catch (Exception e) {
+            log.warn("写入用户计数缓存失败 - 用户ID: {}, 错误: {}", userId, e.getMessage());
+        }
+        return stats;
+    }
+
+    /**
+     * 获取用户发布的职位获得的有效点赞总数
+     */
+    public int getLikesReceived(String userId) {
+        if (userId == null) {
+            return 0;
+        }
+        return getStats(userId).getLikesReceived();
+    }
+
+    /**
+     * 获赞数增量更新
+     */
+    public void incrLikesReceived(String userId, int delta) {
+        if (userId == null || delta == 0) {
+            return;
+        }
+        this.baseMapper.incrLikesReceived(userId, delta);
+        evictAfterCommit(userId);
+    }
+
+    /**
+     * 按职位的点赞数变化更新各作者的获赞数，一次查询职位作者后按作者合并
+     *
+     * @param jobDeltas 职位ID -> 点赞数变化
+     */
+    public void incrLikesReceivedByJobs(Map<Integer, Integer> jobDeltas) {
+        if (jobDeltas.isEmpty()) {
+            return;
+        }
+        Map<String, Integer> authorDeltas = new HashMap<>();
+        postsService.lambdaQuery()
+                .select(Jobs::getId, Jobs::getUserId)
+                .in(Jobs::getId, jobDeltas.keySet())
+                .list()
+                .forEach(job -> authorDeltas.merge(job.getUserId(), jobDeltas.getOrDefault(job.getId(), 0), Integer::sum));
+        authorDeltas.forEach(this::incrLikesReceived);
+    }
+
+    /**
+     * 关注关系状态变化后更新双方的关注数和粉丝数，需在变更关注状态的同一事务中调用
+     *
+     * @param delta 关注为1，取消关注为-1
+     */
+    public void incrFollowCounts(String followerId, String followedId, int delta) {
+        if (followerId == null || followedId == null || delta == 0) {
+            return;
+        }
+        this.baseMapper.incrFollowingCount(followerId, delta);
+        this.baseMapper.incrFollowersCount(followedId, delta);
+        // 双方的互关数也可能变化，两人的关注统计缓存都要失效
+        evictAfterCommit(followerId);
+        evictAfterCommit(followedId);
+    }
+
+    /**
+     * 读取缓存的关注统计，未命中返回null
+     */
+    public UserFollowStatsDto getCachedFollowStats(String userId) {
+        try {
+            return redisUtil.get(followStatsKey(userId));
+        } catch (Exception e) {
+            log.warn("读取关注统计缓存失败，回退数据库 - 用户ID: {}, 错误: {}", userId, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 缓存关注统计，关注关系变化或修正计数时失效
+     */
+    public void cacheFollowStats(UserFollowStatsDto stats) {
+        try {
+            redisUtil.set(followStatsKey(stats.getUserId()), stats, userStatsConfig.getCacheTtlMillis());
+        } catch (Exception e) {
+            log.warn("写入关注统计缓存失败 - 用户ID: {}, 错误: {}", stats.getUserId(), e.getMessage());
+        }
+    }
+
+    /**
+     * 按用户ID分批用实际点赞数修正获赞数，并失效被修正用户的缓存
+     *
+     * @return 修正的用户数
+     */
+    public int reconcileLikesReceived(int batchSize) {
+        return forEachUserBatch(batchSize, userIds -> {
+            Map<String, Integer> actual = new HashMap<>();
+            this.baseMapper.countLikesReceived(userIds).forEach(s -> actual.put(s.getUserId(), s.getLikesReceived()));
+            Map<String, Integer> stored = new HashMap<>();
+            this.listByIds(userIds).forEach(s -> stored.put(s.getUserId(), s.getLikesReceived()));
+
+            List<UserStats> drift = new ArrayList<>();
+            for (String userId : userIds) {
+                int actualCount = actual.getOrDefault(userId, 0);
+                Integer storedCount = stored.get(userId);
+                // 没有计数行且没有获赞的用户不必建行
+                if (storedCount == null ? actualCount != 0 : storedCount != actualCount) {
+                    UserStats stats = new UserStats(userId);
+                    stats.setLikesReceived(actualCount);
+                    drift.add(stats);
+                }
+            }
+            if (!drift.isEmpty()) {
+                this.baseMapper.upsertLikesReceivedBatch(drift);
+                drift.forEach(stats -> evict(stats.getUserId()));
+            }
+            return drift.size();
+        });
+    }
+
+    /**
+     * 按用户ID分批用实际有效关注关系修正关注数和粉丝数，并失效被修正用户的缓存
+     *
+     * @return 修正的用户数
+     */
+    public int reconcileFollowCounts(int batchSize) {
+        return forEachUserBatch(batchSize, userIds -> {
+            Map<String, Integer> actualFollowing = new HashMap<>();
+            this.baseMapper.countFollowing(userIds).forEach(s -> actualFollowing.put(s.getUserId(), s.getFollowingCount()));
+            Map<String, Integer> actualFollowers = new HashMap<>();
+            this.baseMapper.countFollowers(userIds).forEach(s -> actualFollowers.put(s.getUserId(), s.getFollowersCount()));
+            Map<String, UserStats> stored = new HashMap<>();
+            this.listByIds(userIds).forEach(s -> stored.put(s.getUserId(), s));
+
+            List<UserStats> drift = new ArrayList<>();
+            for (String userId : userIds) {
+                int following = actualFollowing.getOrDefault(userId, 0);
+                int followers = actualFollowers.getOrDefault(userId, 0);
+                UserStats storedStats = stored.get(userId);
+                // 没有计数行且没有关注关系的用户不必建行
+                boolean drifted = storedStats == null
+                        ? following != 0 || followers != 0
+                        : storedStats.getFollowingCount() != following || storedStats.getFollowersCount() != followers;
+                if (drifted) {
+                    UserStats stats = new UserStats(userId);
+                    stats.setFollowingCount(following);
+                    stats.setFollowersCount(followers);
+                    drift.add(stats);
+                }
+            }
+            if (!drift.isEmpty()) {
+                this.baseMapper.upsertFollowCountsBatch(drift);
+                drift.forEach(stats -> evict(stats.getUserId()));
+            }
+            return drift.size();
+        });
+    }
+
+    /**
+     * 按用户ID分批遍历所有用户
+     *
+     * @param handler 处理一批用户ID，返回修正的用户数
+     * @return 修正的用户总数
+     */
+    private int forEachUserBatch(int batchSize, ToIntFunction<List<String>> handler) {
+        int fixed = 0;
+        String lastUserId = "";
+        while (true) {
+            List<String> userIds = usersService.lambdaQuery()
+                    .select(Users::getId)
+                    .gt(Users::getId, lastUserId)
+                    .orderByAsc(Users::getId)
+                    .last("LIMIT " + batchSize)
+                    .list()
+                    .stream()
+                    .map(Users::getId)
+                    .collect(Collectors.toList());
+            if (userIds.isEmpty()) {
+                break;
+            }
+            fixed += handler.applyAsInt(userIds);
+            if (userIds.size() < batchSize) {
+                break;
+            }
+            lastUserId = userIds.get(userIds.size() - 1);
+        }
+        return fixed;
+    }
+
+    /**
+     * 用分组聚合初始化计数行；计数期间已有并发增量建好了计数行时不覆盖，以已有的行为准
+     */
+    private UserStats seedStats(String userId) {
+        UserStats stats = new UserStats(userId);
+        try {
+            List<String> userIds = Collections.singletonList(userId);
+            this.baseMapper.countLikesReceived(userIds).forEach(s -> stats.setLikesReceived(s.getLikesReceived()));
+            this.baseMapper.countFollowing(userIds).forEach(s -> stats.setFollowingCount(s.getFollowingCount()));
+            this.baseMapper.countFollowers(userIds).forEach(s -> stats.setFollowersCount(s.getFollowersCount()));
+            if (this.baseMapper.insertIgnoreStats(stats) == 0) {
+                UserStats existing = this.getById(userId);
+                if (existing != null) {
+                    return existing;
+                }
+            }
+        } catch (Exception e) {
+            log.error("初始化用户计数失败 - 用户ID: {}, 错误: {}", userId, e.getMessage());
+        }
+        return stats;
+    }
+
+    /**
+     * 失效计数缓存；处于事务中时等提交后再失效，避免读到未提交前的旧值并回填
+     */
+    private void evictAfterCommit(String userId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(userId);
+                }
+            });
+        } else {
+            evict(userId);
+        }
+    }
+
+    private void evict(String userId) {
+        try {
+            redisUtil.del(statsKey(userId));
+            redisUtil.del(followStatsKey(userId));
+        } catch (Exception e) {
+            log.warn("失效用户计数缓存失败 - 用户ID: {}, 错误: {}", userId, e.getMessage());
+        }
+    }
+
+    private String statsKey(String userId) {
+        return USER_STATS_KEY_PREFIX + userId;
+    }
+
+    private String followStatsKey(String userId) {
+        return FOLLOW_STATS_KEY_PREFIX + userId;
+    }
+}
@@ -4,13 +4,16 @@ import cn.hutool.core.bean.BeanUtil;
 import com.baomidou.mybatisplus.core.conditions.update.UpdateWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.ideafly.dto.user.UpdateUserInputDto;
+import com.ideafly.dto.user.UserSummaryDto;
 import com.ideafly.mapper.users.UsersMapper;
 import com.ideafly.model.users.Users;
 
 import org.springframework.stereotype.Service;
 import lombok.extern.slf4j.Slf4j;
 
-import java.util.Objects;
+import javax.annotation.Resource;
+import java.util.*;
+import java.util.stream.Collectors;
 
 /**
  * @author rfs
@@ -20,6 +23,49 @@ import java.util.Objects;
 @Service
 @Slf4j
 public class UsersService extends ServiceImpl<UsersMapper, Users> {
+
+    @Resource
+    private UserProfileCache userProfileCache;
+
+    /**
+     * 按ID查询用户摘要（走两级缓存），需要完整用户信息时使用 getById
+     */
+    public UserSummaryDto getSummary(String userId) {
+        if (userId == null) {
+            return null;
+        }
+        return userProfileCache.get(userId, this::loadSummaries);
+    }
+
+    /**
+     * 按ID批量查询用户摘要（走两级缓存）
+     *
+     * @return 用户ID -> 用户摘要，不存在的用户不包含在结果中
+     */
+    public Map<String, UserSummaryDto> getSummaries(Collection<String> userIds) {
+        if (userIds == null || userIds.isEmpty()) {
+            return new HashMap<>();
+        }
+        return userProfileCache.getAll(new LinkedHashSet<>(userIds), this::loadSummaries);
+    }
+
+    @Override
+    public boolean updateById(Users entity) {
+        boolean updated = super.updateById(entity);
+        userProfileCache.evict(entity.getId());
+        return updated;
+    }
+
+    private List<UserSummaryDto> loadSummaries(Collection<String> userIds) {
+        return this.lambdaQuery()
+                .select(Users::getId, Users::getUsername, Users::getAvatar, Users::getRole, Users::getStatus)
+                .in(Users::getId, userIds)
+                .list()
+                .stream()
+                .map(UserSummaryDto::of)
+                .collect(Collectors.toList());
+    }
+
     public Users getUserByMobile(String mobile) {
         return this.lambdaQuery().eq(Users::getMobile, mobile).one();
     }
@@ -51,6 +97,7 @@ public class UsersService extends ServiceImpl<UsersMapper, Users> {
         users.setId(userId);
         boolean updated = update(users, new UpdateWrapper<Users>().eq("id", users.getId()));
         log.info("【服务调试日志】数据库更新结果: {}", updated);
+        userProfileCache.evict(userId);
     }
 
     public Users getOrAddByMobile(String mobile) {
@@ -60,6 +107,7 @@ public class UsersService extends ServiceImpl<UsersMapper, Users> {
             user.setMobile(mobile);
             user.setUsername(mobile);
             this.save(user);
+            userProfileCache.evict(user.getId());
         }
         return user;
     }
@@ -85,6 +133,7 @@ public class UsersService extends ServiceImpl<UsersMapper, Users> {
             user.setMobile("Telegram_" + telegramId.substring(Math.max(0, telegramId.length() - 5)));
             
             this.save(user);
+            userProfileCache.evict(user.getId());
         }
         return user;
     }
@@ -1,29 +1,96 @@
 package com.ideafly.utils;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
 import java.nio.charset.StandardCharsets;
-import java.util.Base64;
-import java.util.Date;
+import java.security.MessageDigest;
+import java.text.SimpleDateFormat;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.Base64;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
-import java.text.SimpleDateFormat;
 
 /**
  * 游标分页工具类
  * 用于生成和解析基于时间戳和ID的复合游标
+ * <p>
+ * 游标为定长二进制：版本(1字节) + 毫秒时间戳(8字节) + ID(4字节) [+ HMAC-SHA256前8字节]，
+ * 再做URL安全的Base64编码（无填充）。配置了签名密钥时生成带签名的游标，并拒绝未签名或签名错误的二进制游标。
+ * 旧版JSON+Base64游标和手动构建的"ID:时间"游标无法签名，只在未配置签名密钥时兼容解析。
  */
 public class CursorUtils {
 
+    // 未签名游标版本
+    private static final byte VERSION_PLAIN = 1;
+    // 带HMAC签名的游标版本
+    private static final byte VERSION_SIGNED = 2;
+    private static final int PAYLOAD_LENGTH = 1 + 8 + 4;
+    private static final int MAC_LENGTH = 8;
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+
+    private static final Base64.Encoder URL_ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder URL_DECODER = Base64.getUrlDecoder();
+
+    // 旧版游标解析使用
     private static final ObjectMapper objectMapper = new ObjectMapper();
 
+    private static volatile SecretKeySpec signingKey;
+    // Mac实例非线程安全，每个线程复用一个（密钥变更后重新初始化）
+    private static final ThreadLocal<MacHolder> MAC_HOLDER = new ThreadLocal<>();
+
+    private static final class MacHolder {
+        private final SecretKeySpec key;
+        private final Mac mac;
+
+        private MacHolder(SecretKeySpec key, Mac mac) {
+            this.key = key;
+            this.mac = mac;
+        }
+    }
+
+    /**
+     * 解析后的游标
+     */
+    public static final class Cursor {
+        private final long timestamp;
+        private final int id;
+
+        public Cursor(long timestamp, int id) {
+            this.timestamp = timestamp;
+            this.id = id;
+        }
+
+        /**
+         * 毫秒时间戳
+         */
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public Date toDate() {
+            return new Date(timestamp);
+        }
+    }
+
+    /**
+     * 设置游标签名密钥，为空时不签名
+     */
+    public static void setSigningKey(byte[] key) {
+        signingKey = key == null || key.length == 0 ? null : new SecretKeySpec(key, MAC_ALGORITHM);
+    }
+
     /**
      * 创建游标字符串
-     * 将时间戳和ID编码为base64字符串
-     * 
+     * 将时间戳和ID编码为定长二进制后做URL安全的Base64编码
+     *
      * @param timestamp 时间戳
      * @param id ID值
      * @return 编码后的游标字符串
@@ -32,25 +99,12 @@ public class CursorUtils {
         if (timestamp == null || id == null) {
             return null;
         }
-        
-        Map<String, Object> cursorMap = new HashMap<>();
-        cursorMap.put("timestamp", timestamp);
-        cursorMap.put("id", id);
-        
-        try {
-            String json = objectMapper.writeValueAsString(cursorMap);
-            String cursor = Base64.getEncoder().encodeToString(json.getBytes(StandardCharsets.UTF_8));
-            return cursor;
-        } catch (JsonProcessingException e) {
-            // 静默处理或改为上层捕获
-            return null;
-        }
+        return encodeCursor(timestamp.getTime(), id);
     }
-    
+
     /**
      * 创建游标字符串（LocalDateTime版本）
-     * 将LocalDateTime转换为Date后进行编码
-     * 
+     *
      * @param timestamp LocalDateTime时间戳
      * @param id ID值
      * @return 编码后的游标字符串
@@ -59,100 +113,194 @@ public class CursorUtils {
         if (timestamp == null || id == null) {
             return null;
         }
-        
-        // 将LocalDateTime转换为Date
-        Date date = Date.from(timestamp.atZone(ZoneId.systemDefault()).toInstant());
-        return encodeCursor(date, id);
+        return encodeCursor(timestamp.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli(), id);
+    }
+
+    /**
+     * 创建游标字符串（毫秒时间戳版本）
+     *
+     * @param timestampMillis 毫秒时间戳
+     * @param id ID值
+     * @return 编码后的游标字符串
+     */
+    public static String encodeCursor(long timestampMillis, int id) {
+        SecretKeySpec key = signingKey;
+        byte[] bytes = new byte[key == null ? PAYLOAD_LENGTH : PAYLOAD_LENGTH + MAC_LENGTH];
+        bytes[0] = key == null ? VERSION_PLAIN : VERSION_SIGNED;
+        putLong(bytes, 1, timestampMillis);
+        putInt(bytes, 9, id);
+        if (key != null) {
+            byte[] mac = sign(key, bytes);
+            System.arraycopy(mac, 0, bytes, PAYLOAD_LENGTH, MAC_LENGTH);
+        }
+        return URL_ENCODER.encodeToString(bytes);
     }
-    
+
     /**
      * 解析游标字符串
-     * 将base64编码的游标解析为时间戳和ID
-     * 
+     *
      * @param cursor 游标字符串
-     * @return 包含timestamp和id的Map，解析失败返回null
+     * @return 解析后的游标，格式错误或签名校验失败返回null
      */
-    public static Map<String, Object> decodeCursor(String cursor) {
+    public static Cursor decode(String cursor) {
         if (cursor == null || cursor.isEmpty()) {
             return null;
         }
-        
         try {
-            // 开始解析游标
-            
-            // 检查是否是手动构建的老格式游标（ID:timestamp.SSS）
-            if (cursor.contains(":") && !cursor.startsWith("ey")) {
-                // 检测到手动构建的游标格式，尝试兼容处理
-                // 尝试兼容处理
-                String[] parts = cursor.split(":");
-                if (parts.length == 2) {
-                    try {
-                        Integer id = Integer.parseInt(parts[0]);
-                        // 将timestamp字符串转换为Date
-                        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS");
-                        Date timestamp = format.parse(parts[1]);
-                        
-                        Map<String, Object> cursorMap = new HashMap<>();
-                        cursorMap.put("timestamp", timestamp);
-                        cursorMap.put("id", id);
-                        
-                        // 兼容解析成功
-                        return cursorMap;
-                    } catch (Exception e) {
-                        // 兼容解析失败
-                    }
-                }
+            SecretKeySpec key = signingKey;
+            // 旧版JSON游标（Base64后以"ey"开头）或手动构建的"ID:时间"游标
+            if (cursor.startsWith("ey") || cursor.indexOf(':') >= 0) {
+                // 旧版游标没有签名，配置了签名密钥时一律拒绝，否则可以绕过签名伪造任意游标
+                return key == null ? decodeLegacy(cursor) : null;
             }
-            
-            byte[] decodedBytes = Base64.getDecoder().decode(cursor);
-            String json = new String(decodedBytes, StandardCharsets.UTF_8);
-            
-            Map<String, Object> cursorMap = objectMapper.readValue(json, Map.class);
-            
-            // 确保游标包含必要的字段
-            if (!cursorMap.containsKey("timestamp") || !cursorMap.containsKey("id")) {
-                System.err.println("【CursorUtils】游标解析错误 - 缺少必要字段: " + json);
+
+            byte[] bytes = URL_DECODER.decode(cursor);
+            if (bytes.length < PAYLOAD_LENGTH) {
                 return null;
             }
-            
-            // 处理Long转Date的问题
-            Object timestampObj = cursorMap.get("timestamp");
-            // 时间戳类型兼容处理
-            
-            if (timestampObj instanceof Long) {
-                cursorMap.put("timestamp", new Date((Long) timestampObj));
-            } else if (timestampObj instanceof Integer) {
-                cursorMap.put("timestamp", new Date(((Integer) timestampObj).longValue()));
-            } else if (timestampObj instanceof String) {
-                // 尝试解析字符串格式的时间戳
-                try {
-                    Long timestamp = Long.parseLong((String) timestampObj);
-                    cursorMap.put("timestamp", new Date(timestamp));
-                } catch (NumberFormatException e) {
-                    // 无法转换则保持原值
+            if (bytes[0] == VERSION_PLAIN) {
+                // 配置了签名密钥时不接受未签名的二进制游标
+                if (key != null || bytes.length != PAYLOAD_LENGTH) {
+                    return null;
                 }
-            }
-            
-            // 确保ID是整数
-            Object idObj = cursorMap.get("id");
-            if (!(idObj instanceof Integer)) {
-                if (idObj instanceof Number) {
-                    cursorMap.put("id", ((Number) idObj).intValue());
-                } else if (idObj instanceof String) {
-                    try {
-                        cursorMap.put("id", Integer.parseInt((String) idObj));
-                    } catch (NumberFormatException e) {
-                        return null;
-                    }
-                } else {
+            } else if (bytes[0] == VERSION_SIGNED) {
+                if (key == null || bytes.length != PAYLOAD_LENGTH + MAC_LENGTH) {
                     return null;
                 }
+                byte[] expected = sign(key, bytes);
+                byte[] actual = new byte[MAC_LENGTH];
+                System.arraycopy(bytes, PAYLOAD_LENGTH, actual, 0, MAC_LENGTH);
+                byte[] expectedPrefix = new byte[MAC_LENGTH];
+                System.arraycopy(expected, 0, expectedPrefix, 0, MAC_LENGTH);
+                if (!MessageDigest.isEqual(expectedPrefix, actual)) {
+                    return null;
+                }
+            } else {
+                return null;
             }
-            
-            return cursorMap;
+            return new Cursor(getLong(bytes, 1), getInt(bytes, 9));
         } catch (Exception e) {
             // 解析失败返回null
             return null;
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * 解析游标字符串
+     * 将游标解析为时间戳和ID
+     *
+     * @param cursor 游标字符串
+     * @return 包含timestamp(Date)和id(Integer)的Map，解析失败返回null
+     */
+    public static Map<String, Object> decodeCursor(String cursor) {
+        Cursor decoded = decode(cursor);
+        if (decoded == null) {
+            return null;
+        }
+        Map<String, Object> cursorMap = new HashMap<>();
+        cursorMap.put("timestamp", decoded.toDate());
+        cursorMap.put("id", decoded.getId());
+        return cursorMap;
+    }
+
+    /**
+     * 解析旧版游标：JSON+Base64，或手动构建的"ID:yyyy-MM-dd HH:mm:ss.SSS"
+     */
+    private static Cursor decodeLegacy(String cursor) throws Exception {
+        // 检查是否是手动构建的老格式游标（ID:timestamp.SSS）
+        if (cursor.contains(":") && !cursor.startsWith("ey")) {
+            String[] parts = cursor.split(":", 2);
+            if (parts.length == 2) {
+                try {
+                    int id = Integer.parseInt(parts[0]);
+                    SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS");
+                    return new Cursor(format.parse(parts[1]).getTime(), id);
+                } catch (Exception e) {
+                    // 兼容解析失败
+                }
+            }
+            return null;
+        }
+
+        byte[] decodedBytes = Base64.getDecoder().decode(cursor);
+        String json = new String(decodedBytes, StandardCharsets.UTF_8);
+        Map<?, ?> cursorMap = objectMapper.readValue(json, Map.class);
+
+        // 时间戳类型兼容处理
+        Object timestampObj = cursorMap.get("timestamp");
+        Long timestamp = null;
+        if (timestampObj instanceof Number) {
+            timestamp = ((Number) timestampObj).longValue();
+        } else if (timestampObj instanceof String) {
+            try {
+                timestamp = Long.parseLong((String) timestampObj);
+            } catch (NumberFormatException e) {
+                // 无法转换
+            }
+        }
+
+        // 确保ID是整数
+        Object idObj = cursorMap.get("id");
+        Integer id = null;
+        if (idObj instanceof Number) {
+            id = ((Number) idObj).intValue();
+        } else if (idObj instanceof String) {
+            try {
+                id = Integer.parseInt((String) idObj);
+            } catch (NumberFormatException e) {
+                // 无法转换
+            }
+        }
+
+        if (timestamp == null || id == null) {
+            return null;
+        }
+        return new Cursor(timestamp, id);
+    }
+
+    private static byte[] sign(SecretKeySpec key, byte[] bytes) {
+        try {
+            MacHolder holder = MAC_HOLDER.get();
+            if (holder == null || holder.key != key) {
+                Mac mac = Mac.getInstance(MAC_ALGORITHM);
+                mac.init(key);
+                holder = new MacHolder(key, mac);
+                MAC_HOLDER.set(holder);
+            }
+            Mac mac = holder.mac;
+            mac.update(bytes, 0, PAYLOAD_LENGTH);
+            return mac.doFinal();
+        } catch (Exception e) {
+            throw new IllegalStateException("游标签名失败", e);
+        }
+    }
+
+    private static void putLong(byte[] bytes, int offset, long value) {
+        for (int i = 7; i >= 0; i--) {
+            bytes[offset + i] = (byte) value;
+            value >>>= 8;
+        }
+    }
+
+    private static void putInt(byte[] bytes, int offset, int value) {
+        bytes[offset] = (byte) (value >>> 24);
+        bytes[offset + 1] = (byte) (value >>> 16);
+        bytes[offset + 2] = (byte) (value >>> 8);
+        bytes[offset + 3] = (byte) value;
+    }
+
+    private static long getLong(byte[] bytes, int offset) {
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = (value << 8) | (bytes[offset + i] & 0xFF);
+        }
+        return value;
+    }
+
+    private static int getInt(byte[] bytes, int offset) {
+        return ((bytes[offset] & 0xFF) << 24)
+                | ((bytes[offset + 1] & 0xFF) << 16)
+                | ((bytes[offset + 2] & 0xFF) << 8)
+                | (bytes[offset + 3] & 0xFF);
+    }
+}
@@ -1,21 +1,27 @@
 package com.ideafly.utils;
 
+import cn.hutool.cache.CacheUtil;
+import cn.hutool.cache.impl.LRUCache;
+import com.ideafly.service.impl.auth.RefreshTokenBlacklist;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PostConstruct;
 import javax.annotation.Resource;
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 /**
@@ -26,7 +32,7 @@ import java.util.function.Function;
 public class JwtUtil {
     
     @Resource
-    private StringRedisTemplate stringRedisTemplate;
+    private RefreshTokenBlacklist refreshTokenBlacklist;
     
     @Value("${jwt.secret}") // 从配置文件中读取密钥
     private String secretKey;
@@ -37,9 +43,38 @@ public class JwtUtil {
     @Value("${jwt.refreshExpiration}") // Refresh Token 过期时间，单位毫秒
     private long refreshExpiration;
     
-    private static final String TOKEN_BLACKLIST_PREFIX = "refreshTokenBlackList:";
-    
+    // accessToken中携带的用户信息
+    public static final String CLAIM_USERNAME = "username";
+    public static final String CLAIM_ROLE = "role";
+
+    @Value("${jwt.verified-cache-size:10000}") // 已验签token缓存条数，0为不缓存
+    private int verifiedCacheSize;
+
+    // 签名密钥与解析器只创建一次，JwtParser不可变且线程安全
+    private Key signInKey;
+    private JwtParser jwtParser;
+    // 已验签token的声明，key为token的SHA-256，缓存到token过期为止
+    private LRUCache<String, Claims> verifiedTokens;
+
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
 
+    @PostConstruct
+    public void init() {
+        // 替换 '-' 和 '_' 为 '+' 和 '/'
+        String processedKey = secretKey.replace('-', '+').replace('_', '/');
+        byte[] keyBytes = java.util.Base64.getDecoder().decode(processedKey);
+        signInKey = Keys.hmacShaKeyFor(keyBytes);
+        jwtParser = Jwts.parserBuilder()
+                .setSigningKey(signInKey)
+                .build();
+        verifiedTokens = verifiedCacheSize > 0 ? CacheUtil.newLRUCache(verifiedCacheSize) : null;
+    }
     
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
         final Claims claims = extractAllClaims(token);
@@ -47,17 +82,45 @@ public class JwtUtil {
     }
     
     private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSignInKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        if (verifiedTokens == null) {
+            return jwtParser.parseClaimsJws(token).getBody();
+        }
+        String cacheKey = tokenHash(token);
+        Claims cached = verifiedTokens.get(cacheKey);
+        if (cached != null) {
+            return cached;
+        }
+        // 验签失败或已过期时抛出异常，不进入缓存
+        Claims claims = jwtParser.parseClaimsJws(token).getBody();
+        Date expiration = claims.getExpiration();
+        if (expiration != null) {
+            long ttl = expiration.getTime() - System.currentTimeMillis();
+            if (ttl > 0) {
+                verifiedTokens.put(cacheKey, claims, ttl);
+            }
+        }
+        return claims;
     }
 
-
+    private static String tokenHash(String token) {
+        MessageDigest digest = SHA256.get();
+        return java.util.Base64.getEncoder().encodeToString(digest.digest(token.getBytes(StandardCharsets.US_ASCII)));
+    }
     
     public String generateToken(String userId, boolean isRefreshToken) {
+        return generateToken(userId, isRefreshToken, null);
+    }
+
+    /**
+     * 生成token
+     *
+     * @param extraClaims 额外携带的声明（如用户名、角色），可为null
+     */
+    public String generateToken(String userId, boolean isRefreshToken, Map<String, Object> extraClaims) {
         Map<String, Object> claims = new HashMap<>();
+        if (extraClaims != null) {
+            claims.putAll(extraClaims);
+        }
         
         // 设置token类型
         if (isRefreshToken) {
@@ -68,45 +131,38 @@ public class JwtUtil {
         
         // 设置过期时间
         long expiration = isRefreshToken ? refreshExpiration : jwtExpiration;
+        Date issuedAt = new Date();
+        Date expiresAt = new Date(issuedAt.getTime() + expiration);
         
-        String token = createToken(claims, userId, expiration);
+        String token = createToken(claims, userId, issuedAt, expiresAt);
         
-        // 记录生成的JWT详情（iat/exp为可读时间）
-        try {
-            Claims tokenClaims = extractAllClaims(token);
-            Map<String, Object> logMap = new HashMap<>(tokenClaims);
-            Object iatObj = logMap.get("iat");
-            Object expObj = logMap.get("exp");
+        // 记录生成的JWT详情（iat/exp为可读时间），直接使用生成时的声明，不再重新解析token
+        if (log.isInfoEnabled()) {
+            Map<String, Object> logMap = new HashMap<>(claims);
+            logMap.put("sub", userId);
             java.text.SimpleDateFormat sdf = new java.text.SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
-            String iatReadable = iatObj != null ? sdf.format(new java.util.Date(((Number) iatObj).longValue() * 1000)) : "";
-            String expReadable = expObj != null ? sdf.format(new java.util.Date(((Number) expObj).longValue() * 1000)) : "";
-            logMap.put("iat(readable)", iatReadable);
-            logMap.put("exp(readable)", expReadable);
-            log.info("JWT解析详情 - {}: {{header={}, payload={}, signature=***}}", 
+            logMap.put("iat(readable)", sdf.format(issuedAt));
+            logMap.put("exp(readable)", sdf.format(expiresAt));
+            log.info("JWT生成详情 - {}: {{payload={}, signature=***}}", 
                     isRefreshToken ? "refreshToken" : "accessToken",
                     logMap.toString());
-        } catch (Exception e) {
-            log.warn("无法解析生成的JWT进行日志记录: {}", e.getMessage());
         }
         
         return token;
     }
     
-    private String createToken(Map<String, Object> claims, String subject, long expiration) {
+    private String createToken(Map<String, Object> claims, String subject, Date issuedAt, Date expiresAt) {
         return Jwts.builder()
                 .setClaims(claims)
                 .setSubject(subject)
-                .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSignInKey(), SignatureAlgorithm.HS256)
+                .setIssuedAt(issuedAt)
+                .setExpiration(expiresAt)
+                .signWith(signInKey, SignatureAlgorithm.HS256)
                 .compact();
     }
     
     public Key getSignInKey() {
-        // 替换 '-' 和 '_' 为 '+' 和 '/'
-        String processedKey = secretKey.replace('-', '+').replace('_', '/');
-        byte[] keyBytes = java.util.Base64.getDecoder().decode(processedKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+        return signInKey;
     }
 
     /*
@@ -132,12 +188,21 @@ public class JwtUtil {
 
     //====accessToken====
     public Boolean isAccessTokenValid(String token) {
+        return parseAccessToken(token) != null;
+    }
+
+    /**
+     * 校验accessToken并返回其声明，只解析一次
+     *
+     * @return 有效的accessToken声明，类型不符、已过期或签名无效时返回null
+     */
+    public Claims parseAccessToken(String token) {
         try {            
             Claims claims = extractAllClaims(token);
             String tokenType = (String) claims.get("tokenType");
             if (!"access".equals(tokenType)) {
                 log.info("非accessToken类型，tokenType: {}", tokenType);
-                return false;
+                return null;
             }
 
             // 检查token是否过期
@@ -145,15 +210,15 @@ public class JwtUtil {
             boolean expired = expiration.before(new Date());
             if (expired) {
                 log.info("accessToken已过期，过期时间: {}", expiration);
-                return false;
+                return null;
             }
-            return true;
+            return claims;
         } catch (ExpiredJwtException e) {
             log.info("Token已过期: {}", e.getMessage());
-            return false;
+            return null;
         } catch (Exception e) {
             log.info("Token无效或已过期: {}", e.getMessage());
-            return false;
+            return null;
         }
     }
 
@@ -163,13 +228,14 @@ public class JwtUtil {
      * 验证refresh token有效性
      */
     public boolean isRefreshTokenValid(String token) {
-        // 检查token是否在黑名单中
-        if (isTokenBlacklisted(token)) {
-            log.info("refreshToken在黑名单中: {}", token);
-            return false;
-        }
         try {
             Claims claims = extractAllClaims(token);
+            // 检查token是否在黑名单中
+            Date issuedAt = claims.getIssuedAt();
+            if (refreshTokenBlacklist.contains(token, issuedAt != null ? issuedAt.getTime() : null)) {
+                log.info("refreshToken在黑名单中: {}", token);
+                return false;
+            }
             // 只支持新的tokenType方式
             String tokenType = (String) claims.get("tokenType");
             if (!"refresh".equals(tokenType)) {
@@ -204,24 +270,15 @@ public class JwtUtil {
             Claims claims = extractAllClaims(token);
             Date expiration = claims.getExpiration();
             
-            // 计算剩余有效期（毫秒）
-            long ttl = expiration.getTime() - System.currentTimeMillis();
-            if (ttl > 0) {
-                // 将token加入黑名单，保留到原过期时间
-                stringRedisTemplate.opsForValue().set(
-                    TOKEN_BLACKLIST_PREFIX + token,
-                    "1",
-                    ttl,
-                    TimeUnit.MILLISECONDS
-                );
-
-                // 截取token的前8位和后8位用于日志显示  
-                String tokenForLog = token.length() > 16 ?   
-                    token.substring(0, 8) + "..." + token.substring(token.length() - 8) : token;  
-
-                log.info("refreshToken已加入黑名单，redis key: {}{}, value: {}, redis key 剩余有效期: {}ms",   
-                    TOKEN_BLACKLIST_PREFIX, tokenForLog, "1", ttl);
-            }
+            // 将token指纹加入黑名单，保留到原过期时间
+            refreshTokenBlacklist.add(token, expiration.getTime());
+
+            // 截取token的前8位和后8位用于日志显示  
+            String tokenForLog = token.length() > 16 ?   
+                token.substring(0, 8) + "..." + token.substring(token.length() - 8) : token;  
+
+            log.info("refreshToken已加入黑名单: {}, 剩余有效期: {}ms",   
+                tokenForLog, expiration.getTime() - System.currentTimeMillis());
         } catch (Exception e) {
             log.error("使token失效时出错", e);
         }
@@ -231,6 +288,6 @@ public class JwtUtil {
      * 检查token是否在黑名单中
      */
     public boolean isTokenBlacklisted(String token) {
-        return Boolean.TRUE.equals(stringRedisTemplate.hasKey(TOKEN_BLACKLIST_PREFIX + token));
+        return refreshTokenBlacklist.contains(token, null);
     }
 }
@@ -0,0 +1,209 @@
+package com.ideafly.utils;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.toolkit.LambdaUtils;
+import com.baomidou.mybatisplus.core.toolkit.support.ColumnCache;
+import com.baomidou.mybatisplus.core.toolkit.support.LambdaMeta;
+import com.baomidou.mybatisplus.core.toolkit.support.SFunction;
+import com.ideafly.dto.job.CursorResponseDto;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.ibatis.reflection.property.PropertyNamer;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 基于(创建时间, ID)的游标分页
+ * 生成 (created_at, id) &lt; (?, ?) 行值比较条件，并附加 created_at &lt;= ? 单列范围条件，
+ * 使查询可以沿 (..., created_at, id) 复合索引做范围扫描；同时负责多查一条判断是否有更多、
+ * 向后查询结果反转以及下一页游标的计算。每个请求创建一个实例。
+ *
+ * @param <T> 实体类型
+ */
+public class KeysetPagination<T> {
+
+    private final SFunction<T, ?> timeColumn;
+    private final SFunction<T, Integer> idColumn;
+    private final String maxCursor;
+    private final String minCursor;
+    private final int pageSize;
+    private final boolean forward;
+    private final boolean backward;
+    private final Date cursorTime;
+    private final Integer cursorId;
+
+    private boolean hasMore;
+    // 当前页数据库返回的行数（去掉多查的一条后），调用方过滤掉部分行时游标仍按这些行计算
+    private int pageRows;
+    private String nextMaxCursor;
+    private String nextMinCursor;
+
+    private KeysetPagination(SFunction<T, ?> timeColumn, SFunction<T, Integer> idColumn,
+                             String maxCursor, String minCursor, int pageSize) {
+        this.timeColumn = timeColumn;
+        this.idColumn = idColumn;
+        this.maxCursor = maxCursor;
+        this.minCursor = minCursor;
+        this.pageSize = pageSize;
+        // 不能同时指定两个方向，以maxCursor为优先
+        this.forward = StringUtils.isNotBlank(maxCursor);
+        this.backward = !forward && StringUtils.isNotBlank(minCursor);
+
+        CursorUtils.Cursor cursor = CursorUtils.decode(forward ? maxCursor : backward ? minCursor : null);
+        this.cursorTime = cursor != null ? cursor.toDate() : null;
+        this.cursorId = cursor != null ? cursor.getId() : null;
+    }
+
+    /**
+     * 双向游标分页：maxCursor获取更早的内容，minCursor获取更新的内容，都为空时获取最新内容
+     */
+    public static <T> KeysetPagination<T> of(SFunction<T, ?> timeColumn, SFunction<T, Integer> idColumn,
+                                             String maxCursor, String minCursor, int pageSize) {
+        return new KeysetPagination<>(timeColumn, idColumn, maxCursor, minCursor, pageSize);
+    }
+
+    /**
+     * 单向游标分页：只支持向更早的内容翻页
+     */
+    public static <T> KeysetPagination<T> of(SFunction<T, ?> timeColumn, SFunction<T, Integer> idColumn,
+                                             String cursor, int pageSize) {
+        return new KeysetPagination<>(timeColumn, idColumn, cursor, null, pageSize);
+    }
+
+    /**
+     * 向查询条件中加入游标条件、排序和 LIMIT pageSize + 1
+     */
+    public LambdaQueryWrapper<T> apply(LambdaQueryWrapper<T> wrapper) {
+        if (hasCursor()) {
+            String rowValue = "(" + columnName(timeColumn) + ", " + columnName(idColumn) + ")";
+            if (backward) {
+                // 时间比游标新或时间相同但ID更大
+                wrapper.ge(timeColumn, cursorTime)
+                        .apply(rowValue + " > ({0}, {1})", cursorTime, cursorId);
+            } else {
+                // 时间比游标早或时间相同但ID更小
+                wrapper.le(timeColumn, cursorTime)
+                        .apply(rowValue + " < ({0}, {1})", cursorTime, cursorId);
+            }
+        }
+        if (backward) {
+            // 按时间升序，同一时间按ID升序（获取后反转）
+            wrapper.orderByAsc(timeColumn, idColumn);
+        } else {
+            // 按时间降序，同一时间按ID降序
+            wrapper.orderByDesc(timeColumn, idColumn);
+        }
+        return wrapper.last("LIMIT " + fetchSize());
+    }
+
+    /**
+     * 处理按apply条件查询到的结果：去掉多查的一条，向后查询时反转为时间降序，并计算下一页游标
+     *
+     * @param rows 查询结果（最多pageSize + 1条，顺序与apply中的排序一致）
+     * @return 当前页数据，按时间降序
+     */
+    public List<T> page(List<T> rows) {
+        hasMore = rows.size() > pageSize;
+        List<T> records = new ArrayList<>(hasMore ? rows.subList(0, pageSize) : rows);
+        pageRows = records.size();
+        if (backward) {
+            Collections.reverse(records);
+        }
+        if (!records.isEmpty()) {
+            T first = records.get(0);
+            T last = records.get(records.size() - 1);
+            nextMaxCursor = encodeCursor(last);
+            nextMinCursor = encodeCursor(first);
+        }
+        return records;
+    }
+
+    /**
+     * 按职位列表的约定构建游标响应（需先调用page）
+     * 游标和是否有更多按page处理的原始行计算：调用方跳过了部分行（如已删除的职位）甚至整页都被跳过时，
+     * 下一页游标仍会前进，不会返回原游标导致客户端反复请求同一页
+     */
+    public <R> CursorResponseDto<R> toResponse(List<R> records) {
+        if (pageRows == 0) {
+            return new CursorResponseDto<>(
+                    records,
+                    maxCursor, // 保持原游标
+                    minCursor, // 保持原游标
+                    forward && hasMore,
+                    backward && hasMore,
+                    0L
+            );
+        }
+        boolean initial = !forward && !backward;
+        return new CursorResponseDto<>(
+                records,
+                initial || (forward && hasMore) ? nextMaxCursor : maxCursor,
+                initial || (backward && hasMore) ? nextMinCursor : minCursor,
+                forward ? hasMore : true, // 历史方向是否有更多数据
+                backward ? hasMore : false, // 新内容方向是否有更多数据（初始加载时为false，因为已加载最新数据）
+                (long) records.size()
+        );
+    }
+
+    public String encodeCursor(T row) {
+        Object time = timeColumn.apply(row);
+        Integer id = idColumn.apply(row);
+        if (time instanceof LocalDateTime) {
+            return CursorUtils.encodeCursor((LocalDateTime) time, id);
+        }
+        return CursorUtils.encodeCursor((Date) time, id);
+    }
+
+    public int fetchSize() {
+        return pageSize + 1; // 多查一条用于判断是否有更多数据
+    }
+
+    public boolean hasCursor() {
+        return cursorTime != null && cursorId != null;
+    }
+
+    public boolean isForward() {
+        return forward;
+    }
+
+    public boolean isBackward() {
+        return backward;
+    }
+
+    public Date getCursorTime() {
+        return cursorTime;
+    }
+
+    public Integer getCursorId() {
+        return cursorId;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public boolean hasMore() {
+        return hasMore;
+    }
+
+    public String getNextMaxCursor() {
+        return nextMaxCursor;
+    }
+
+    public String getNextMinCursor() {
+        return nextMinCursor;
+    }
+
+    private String columnName(SFunction<T, ?> column) {
+        LambdaMeta meta = LambdaUtils.extract(column);
+        String property = PropertyNamer.methodToProperty(meta.getImplMethodName());
+        ColumnCache columnCache = LambdaUtils.getColumnMap(meta.getInstantiatedClass()).get(LambdaUtils.formatKey(property));
+        if (columnCache == null) {
+            throw new IllegalArgumentException("无法解析游标字段: " + property);
+        }
+        return columnCache.getColumn();
+    }
+}
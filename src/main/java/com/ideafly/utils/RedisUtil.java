@@ -3,9 +3,19 @@ package com.ideafly.utils;
 import cn.hutool.core.collection.CollectionUtil;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.RedisZSetCommands;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamRecords;
 import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.ZSetOperations;
 import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.stereotype.Component;
 
 import javax.annotation.Resource;
@@ -62,6 +72,28 @@ public class RedisUtil {
         redisTemplate.exec();
     }
 
+    /**
+     * 管道批量写入key-value，一次网络往返完成，每个key单独设置过期时间
+     *
+     * @param kvs
+     * @param expireMillis 毫秒，过期时间
+     */
+    public <T> void pSet(Map<String, T> kvs, long expireMillis) {
+        if (kvs == null || kvs.isEmpty()) {
+            return;
+        }
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                for (Map.Entry<String, T> e : kvs.entrySet()) {
+                    ops.opsForValue().set(e.getKey(), e.getValue(), expireMillis, TimeUnit.MILLISECONDS);
+                }
+                return null;
+            }
+        });
+    }
+
     public <T> void sAdd(String key, long expireTime, T... values) {
         expire(key, expireTime);
         redisTemplate.opsForSet().add(key, values);
@@ -282,6 +314,322 @@ public class RedisUtil {
         return (T) redisTemplate.opsForList().leftPop(key);
     }
     
+    /**
+     * 向集合中添加元素，不设置过期时间
+     *
+     * @param key
+     * @param values
+     */
+    public <T> void sAddAll(String key, Collection<T> values) {
+        if (values == null || values.isEmpty()) {
+            return;
+        }
+        redisTemplate.opsForSet().add(key, values.toArray());
+    }
+
+    /**
+     * 向有序集合写入成员
+     *
+     * @param key
+     * @param value
+     * @param score 分值
+     */
+    public <T> void zAdd(String key, T value, double score) {
+        redisTemplate.opsForZSet().add(key, value, score);
+    }
+
+    /**
+     * 批量写入有序集合成员，并设置过期时间
+     *
+     * @param key
+     * @param scoredValues 成员 -> 分值
+     * @param expireTime   毫秒，过期时间
+     */
+    public <T> void zAddAll(String key, Map<T, Double> scoredValues, long expireTime) {
+        if (scoredValues == null || scoredValues.isEmpty()) {
+            return;
+        }
+        Set<ZSetOperations.TypedTuple<Object>> tuples = new HashSet<>();
+        for (Map.Entry<T, Double> e : scoredValues.entrySet()) {
+            tuples.add(new DefaultTypedTuple<>(e.getKey(), e.getValue()));
+        }
+        redisTemplate.opsForZSet().add(key, tuples);
+        expire(key, expireTime);
+    }
+
+    /**
+     * 管道向多个有序集合写入同一成员，写入后按分值保留最大的maxSize个
+     *
+     * @param keys
+     * @param value
+     * @param score
+     * @param maxSize 每个有序集合的最大长度
+     * @return 因超出maxSize被截断的key
+     */
+    public <T> List<String> pZAdd(Collection<String> keys, T value, double score, long maxSize) {
+        if (keys == null || keys.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<String> orderedKeys = new ArrayList<>(keys);
+        List<Object> results = redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                for (String key : orderedKeys) {
+                    ops.opsForZSet().add(key, value, score);
+                    ops.opsForZSet().removeRange(key, 0, -(maxSize + 1));
+                }
+                return null;
+            }
+        });
+        List<String> trimmed = new ArrayList<>();
+        for (int i = 0; i < orderedKeys.size(); i++) {
+            // 每个key两条命令，第二条为截断删除的成员数
+            Object removed = results != null && 2 * i + 1 < results.size() ? results.get(2 * i + 1) : null;
+            if (removed instanceof Number && ((Number) removed).longValue() > 0) {
+                trimmed.add(orderedKeys.get(i));
+            }
+        }
+        return trimmed;
+    }
+
+    /**
+     * 管道从多个有序集合删除同一成员
+     *
+     * @param keys
+     * @param value
+     */
+    public <T> void pZRemove(Collection<String> keys, T value) {
+        if (keys == null || keys.isEmpty()) {
+            return;
+        }
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                for (String key : keys) {
+                    ops.opsForZSet().remove(key, value);
+                }
+                return null;
+            }
+        });
+    }
+
+    public <T> void zRemove(String key, Collection<T> values) {
+        if (values == null || values.isEmpty()) {
+            return;
+        }
+        redisTemplate.opsForZSet().remove(key, values.toArray());
+    }
+
+    /**
+     * 删除有序集合中分值在 [min, max] 区间内的成员
+     */
+    public Long zRemoveRangeByScore(String key, double min, double max) {
+        return redisTemplate.opsForZSet().removeRangeByScore(key, min, max);
+    }
+
+    public Long zCard(String key) {
+        return redisTemplate.opsForZSet().zCard(key);
+    }
+
+    public <T> Double zScore(String key, T value) {
+        return redisTemplate.opsForZSet().score(key, value);
+    }
+
+    /**
+     * 按分值从高到低读取有序集合 [min, max] 区间内的前count个成员
+     *
+     * @return 成员 -> 分值，保持读取顺序
+     */
+    public <T> LinkedHashMap<T, Double> zRevRangeByScoreWithScores(String key, double min, double max, long count) {
+        return toScoreMap(redisTemplate.opsForZSet().reverseRangeByScoreWithScores(key, min, max, 0, count));
+    }
+
+    /**
+     * 按分值从低到高读取有序集合 [min, max] 区间内的前count个成员
+     *
+     * @return 成员 -> 分值，保持读取顺序
+     */
+    public <T> LinkedHashMap<T, Double> zRangeByScoreWithScores(String key, double min, double max, long count) {
+        return toScoreMap(redisTemplate.opsForZSet().rangeByScoreWithScores(key, min, max, 0, count));
+    }
+
+    private <T> LinkedHashMap<T, Double> toScoreMap(Set<ZSetOperations.TypedTuple<Object>> tuples) {
+        LinkedHashMap<T, Double> result = new LinkedHashMap<>();
+        if (tuples == null) {
+            return result;
+        }
+        for (ZSetOperations.TypedTuple<Object> tuple : tuples) {
+            result.put((T) tuple.getValue(), tuple.getScore());
+        }
+        return result;
+    }
+
+    /**
+     * 管道批量判断key是否存在
+     *
+     * @param keys
+     * @return 与keys顺序一致的存在标记
+     */
+    public List<Boolean> mHasKey(List<String> keys) {
+        if (keys == null || keys.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Object> results = redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                for (String key : keys) {
+                    ops.hasKey(key);
+                }
+                return null;
+            }
+        });
+        List<Boolean> exists = new ArrayList<>(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            Object r = results != null && i < results.size() ? results.get(i) : null;
+            exists.add(Boolean.TRUE.equals(r));
+        }
+        return exists;
+    }
+
+    /**
+     * 删除hash中值与期望值相等的项（比较与删除在Lua脚本中原子执行）
+     *
+     * @param expected 项 -> 期望值
+     * @return 删除的项数
+     */
+    public <HK, HV> Long hDelIfEquals(String key, Map<HK, HV> expected) {
+        if (expected == null || expected.isEmpty()) {
+            return 0L;
+        }
+        String luaScript = "local n = 0 " +
+                "for i = 1, #ARGV, 2 do " +
+                "if redis.call('hget', KEYS[1], ARGV[i]) == ARGV[i + 1] then n = n + redis.call('hdel', KEYS[1], ARGV[i]) end " +
+                "end return n";
+        DefaultRedisScript<Long> script = new DefaultRedisScript<>();
+        script.setScriptText(luaScript);
+        script.setResultType(Long.class);
+        Object[] args = new Object[expected.size() * 2];
+        int i = 0;
+        for (Map.Entry<HK, HV> e : expected.entrySet()) {
+            args[i++] = e.getKey();
+            args[i++] = e.getValue();
+        }
+        return redisTemplate.execute(script, Collections.singletonList(key), args);
+    }
+
+    /**
+     * 向流中追加一条记录
+     *
+     * @return 记录ID
+     */
+    public String xAdd(String key, Map<String, Object> fields) {
+        RecordId recordId = redisTemplate.opsForStream().add(StreamRecords.newRecord().in(key).ofMap(fields));
+        return recordId == null ? null : recordId.getValue();
+    }
+
+    /**
+     * 在一个事务(MULTI/EXEC)中写入hash项并续期，再向流中追加一条记录，两者同时生效
+     *
+     * @param hashExpireMillis hash过期时间(毫秒)
+     */
+    public <HK, HV> void hSetAndXAdd(String hashKey, HK field, HV value, long hashExpireMillis,
+                                     String streamKey, Map<String, Object> fields) {
+        List<Object> results = redisTemplate.execute(new SessionCallback<List<Object>>() {
+            @Override
+            public <K, V> List<Object> execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                ops.multi();
+                ops.opsForHash().put(hashKey, field, value);
+                ops.expire(hashKey, hashExpireMillis, TimeUnit.MILLISECONDS);
+                ops.opsForStream().add(StreamRecords.newRecord().in(streamKey).ofMap(fields));
+                return ops.exec();
+            }
+        });
+        if (results == null || results.size() < 3) {
+            throw new IllegalStateException("事务执行失败: " + hashKey);
+        }
+    }
+
+    /**
+     * 从流的开头按顺序读取最多count条记录
+     */
+    public List<MapRecord<String, Object, Object>> xRange(String key, long count) {
+        List<MapRecord<String, Object, Object>> records = redisTemplate.opsForStream()
+                .range(key, Range.unbounded(), RedisZSetCommands.Limit.limit().count((int) count));
+        return records == null ? Collections.emptyList() : records;
+    }
+
+    /**
+     * 流中的记录数
+     */
+    public Long xLen(String key) {
+        return redisTemplate.opsForStream().size(key);
+    }
+
+    /**
+     * 删除流中的记录
+     */
+    public Long xDel(String key, Collection<String> recordIds) {
+        if (recordIds == null || recordIds.isEmpty()) {
+            return 0L;
+        }
+        return redisTemplate.opsForStream().delete(key, recordIds.toArray(new String[0]));
+    }
+
+    /**
+     * 设置位图中指定位
+     */
+    public Boolean setBit(String key, long offset, boolean value) {
+        return redisTemplate.opsForValue().setBit(key, offset, value);
+    }
+
+    /**
+     * 读取位图中指定位
+     */
+    public Boolean getBit(String key, long offset) {
+        return redisTemplate.opsForValue().getBit(key, offset);
+    }
+
+    /**
+     * 读取字符串原始字节（位图等不经过值序列化的数据）
+     */
+    public byte[] getRaw(String key) {
+        byte[] rawKey = ((RedisSerializer<String>) redisTemplate.getKeySerializer()).serialize(key);
+        return redisTemplate.execute((RedisCallback<byte[]>) connection -> connection.get(rawKey));
+    }
+
+    /**
+     * 写入字符串原始字节（覆盖已有值）
+     */
+    public Boolean setRaw(String key, byte[] value) {
+        byte[] rawKey = ((RedisSerializer<String>) redisTemplate.getKeySerializer()).serialize(key);
+        return redisTemplate.execute((RedisCallback<Boolean>) connection -> connection.set(rawKey, value));
+    }
+
+    /**
+     * 重命名键，目标键已存在时原子覆盖
+     */
+    public void rename(String oldKey, String newKey) {
+        redisTemplate.rename(oldKey, newKey);
+    }
+
+    /**
+     * 发布消息到频道
+     */
+    public <T> void publish(String channel, T message) {
+        redisTemplate.convertAndSend(channel, message);
+    }
+
+    /**
+     * 按值序列化方式反序列化订阅收到的消息体
+     */
+    public <T> T deserializeMessage(byte[] body) {
+        return (T) redisTemplate.getValueSerializer().deserialize(body);
+    }
+
     /**
      * 批量添加数据
      *
@@ -356,6 +704,16 @@ public class RedisUtil {
         return value;
     }
 
+    /**
+     * 递增（不设置过期时间）
+     *
+     * @param key
+     * @return 递增后的值
+     */
+    public Long incr(String key) {
+        return redisTemplate.opsForValue().increment(key);
+    }
+
     /**
      * 递减
      *
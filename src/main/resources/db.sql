@@ -23,7 +23,8 @@ CREATE TABLE users (
                        status smallint DEFAULT 1 COMMENT '账号状态，枚举类型：1 (激活), 0 (已删除)，默认 1',
                        role smallint DEFAULT 0 COMMENT '用户角色，0普通用户，1管理员，默认0',
                        created_at datetime DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间，默认当前时间戳',
-                       updated_at datetime DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间，自动更新为最新时间戳'
+                       updated_at datetime DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间，自动更新为最新时间戳',
+                       INDEX `idx_status` (`status`) COMMENT '用于加载已停用用户集合的索引'
 ) COMMENT='用户基础信息表，存储用户的基本信息，例如用户名、密码、个人资料等';
 
 CREATE TABLE `jobs` (
@@ -33,8 +34,8 @@ CREATE TABLE `jobs` (
                         `post_content` TEXT NOT NULL COMMENT '作品内容',
                         `created_at` TIMESTAMP DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
                         `updated_at` TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
-                        INDEX `idx_user_id` (`user_id`),
-                        INDEX `idx_created_at` (`created_at`) COMMENT '用于游标分页的索引'
+                        INDEX `idx_user_created_at_id` (`user_id`, `created_at`, `id`) COMMENT '用于用户作品/关注流游标分页的索引',
+                        INDEX `idx_created_at_id` (`created_at`, `id`) COMMENT '用于游标分页的索引'
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='作品信息表';
 
 CREATE TABLE `post_comments` (
@@ -45,7 +46,8 @@ CREATE TABLE `post_comments` (
                                 `reply_to_comment_id` INT UNSIGNED COMMENT '回复的评论ID (标识回复关系)',
                                 `content` TEXT NOT NULL COMMENT '评论内容',
                                 `created_at` TIMESTAMP DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
-                                INDEX `idx_job_id` (`job_id`),
+                                `reply_count` INT NOT NULL DEFAULT 0 COMMENT '子评论数 (仅父评论行维护)',
+                                INDEX `idx_job_parent_created_at_id` (`job_id`, `parent_comment_id`, `created_at`, `id`) COMMENT '用于评论游标分页的索引',
                                 INDEX `idx_user_id` (`user_id`),
                                 INDEX `idx_parent_comment_id` (`parent_comment_id`),
                                 INDEX `idx_reply_to_comment_id` (`reply_to_comment_id`)
@@ -59,7 +61,7 @@ CREATE TABLE `job_likes` (
     `status` TINYINT DEFAULT 1 COMMENT '点赞状态: 1(有效), 0(已取消)',
     UNIQUE KEY `unique_like` (`job_id`, `user_id`) COMMENT '防止重复点赞',
     INDEX `idx_job_id` (`job_id`),
-    INDEX `idx_user_id` (`user_id`),
+    INDEX `idx_user_status_created_at` (`user_id`, `status`, `created_at`) COMMENT '用于用户点赞列表的索引',
     INDEX `idx_status` (`status`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='职位点赞表';
 
@@ -71,7 +73,7 @@ CREATE TABLE `job_favorites` (
     `status` TINYINT DEFAULT 1 COMMENT '收藏状态: 1(有效), 0(已取消)',
     UNIQUE KEY `unique_favorite` (`job_id`, `user_id`) COMMENT '防止重复收藏',
     INDEX `idx_job_id` (`job_id`),
-    INDEX `idx_user_id` (`user_id`),
+    INDEX `idx_user_status_created_at` (`user_id`, `status`, `created_at`) COMMENT '用于用户收藏列表的索引',
     INDEX `idx_status` (`status`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='职位收藏表';
 
@@ -82,8 +84,58 @@ CREATE TABLE `user_follows` (
     `created_at` TIMESTAMP DEFAULT CURRENT_TIMESTAMP COMMENT '关注时间',
     `status` TINYINT DEFAULT 1 COMMENT '关注状态: 1(有效), 0(已取消)',
     UNIQUE KEY `unique_follow` (`follower_id`, `followed_id`) COMMENT '防止重复关注',
-    INDEX `idx_follower_id` (`follower_id`),
-    INDEX `idx_followed_id` (`followed_id`),
+    INDEX `idx_follower_status` (`follower_id`, `status`),
+    INDEX `idx_followed_status` (`followed_id`, `status`),
     INDEX `idx_status` (`status`),
     CONSTRAINT `chk_self_follow` CHECK (`follower_id` != `followed_id`)
-) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='用户关注关系表';
\ No newline at end of file
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='用户关注关系表';
+
+CREATE TABLE `job_stats` (
+    `job_id` INT UNSIGNED PRIMARY KEY COMMENT '职位ID (关联 jobs 表)',
+    `likes_count` INT NOT NULL DEFAULT 0 COMMENT '有效点赞数',
+    `favorites_count` INT NOT NULL DEFAULT 0 COMMENT '有效收藏数',
+    `comments_count` INT NOT NULL DEFAULT 0 COMMENT '评论总数 (父评论+子评论)',
+    `updated_at` TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间'
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='职位计数表，点赞/收藏/评论时增量维护，避免列表逐条COUNT';
+
+-- 存量数据初始化职位计数
+INSERT INTO `job_stats` (`job_id`, `likes_count`, `favorites_count`, `comments_count`)
+SELECT j.id,
+       (SELECT COUNT(*) FROM job_likes l WHERE l.job_id = j.id AND l.status = 1),
+       (SELECT COUNT(*) FROM job_favorites f WHERE f.job_id = j.id AND f.status = 1),
+       (SELECT COUNT(*) FROM post_comments c WHERE c.job_id = j.id)
+FROM jobs j
+ON DUPLICATE KEY UPDATE likes_count = VALUES(likes_count),
+                        favorites_count = VALUES(favorites_count),
+                        comments_count = VALUES(comments_count);
+
+CREATE TABLE `user_stats` (
+    `user_id` CHAR(36) PRIMARY KEY COMMENT '用户ID (关联用户表)',
+    `likes_received` INT NOT NULL DEFAULT 0 COMMENT '发布的职位获得的有效点赞总数',
+    `following_count` INT NOT NULL DEFAULT 0 COMMENT '有效关注数 (该用户关注的人数)',
+    `followers_count` INT NOT NULL DEFAULT 0 COMMENT '有效粉丝数 (关注该用户的人数)',
+    `updated_at` TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间'
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='用户计数表，点赞、删除职位和关注关系变化时增量维护，避免按用户逐条COUNT';
+
+-- 存量数据初始化用户计数
+INSERT INTO `user_stats` (`user_id`, `likes_received`)
+SELECT j.user_id, COUNT(*)
+FROM job_likes l
+         JOIN jobs j ON j.id = l.job_id
+WHERE l.status = 1
+GROUP BY j.user_id
+ON DUPLICATE KEY UPDATE likes_received = VALUES(likes_received);
+
+INSERT INTO `user_stats` (`user_id`, `following_count`)
+SELECT follower_id, COUNT(*)
+FROM user_follows
+WHERE status = 1
+GROUP BY follower_id
+ON DUPLICATE KEY UPDATE following_count = VALUES(following_count);
+
+INSERT INTO `user_stats` (`user_id`, `followers_count`)
+SELECT followed_id, COUNT(*)
+FROM user_follows
+WHERE status = 1
+GROUP BY followed_id
+ON DUPLICATE KEY UPDATE followers_count = VALUES(followers_count);
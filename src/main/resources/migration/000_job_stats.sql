@@ -0,0 +1,22 @@
+-- 职位计数表迁移（已有数据库执行，新库直接使用 db.sql）
+-- 列表中的点赞/收藏/评论数不再逐条 COUNT；后续迁移和计数对账依赖此表，需最先执行
+USE ideafly;
+
+CREATE TABLE IF NOT EXISTS `job_stats` (
+    `job_id` INT UNSIGNED PRIMARY KEY COMMENT '职位ID (关联 jobs 表)',
+    `likes_count` INT NOT NULL DEFAULT 0 COMMENT '有效点赞数',
+    `favorites_count` INT NOT NULL DEFAULT 0 COMMENT '有效收藏数',
+    `comments_count` INT NOT NULL DEFAULT 0 COMMENT '评论总数 (父评论+子评论)',
+    `updated_at` TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间'
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='职位计数表，点赞/收藏/评论时增量维护，避免列表逐条COUNT';
+
+-- 存量数据初始化职位计数
+INSERT INTO `job_stats` (`job_id`, `likes_count`, `favorites_count`, `comments_count`)
+SELECT j.id,
+       (SELECT COUNT(*) FROM job_likes l WHERE l.job_id = j.id AND l.status = 1),
+       (SELECT COUNT(*) FROM job_favorites f WHERE f.job_id = j.id AND f.status = 1),
+       (SELECT COUNT(*) FROM post_comments c WHERE c.job_id = j.id)
+FROM jobs j
+ON DUPLICATE KEY UPDATE likes_count = VALUES(likes_count),
+                        favorites_count = VALUES(favorites_count),
+                        comments_count = VALUES(comments_count);
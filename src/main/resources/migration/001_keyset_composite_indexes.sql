@@ -0,0 +1,31 @@
+-- 游标分页复合索引迁移（已有数据库执行，新库直接使用 db.sql）
+-- 所有游标查询按 (created_at, id) 过滤和排序，单列索引会导致深分页 filesort
+USE ideafly;
+
+-- 首页职位流: ORDER BY created_at DESC, id DESC
+ALTER TABLE `jobs`
+    ADD INDEX `idx_created_at_id` (`created_at`, `id`),
+    ADD INDEX `idx_user_created_at_id` (`user_id`, `created_at`, `id`),
+    DROP INDEX `idx_created_at`,
+    DROP INDEX `idx_user_id`;
+
+-- 父评论/子评论游标: WHERE job_id = ? AND parent_comment_id = ? ORDER BY created_at DESC, id DESC
+ALTER TABLE `post_comments`
+    ADD INDEX `idx_job_parent_created_at_id` (`job_id`, `parent_comment_id`, `created_at`, `id`),
+    DROP INDEX `idx_job_id`;
+
+-- 用户点赞/收藏列表: WHERE user_id = ? AND status = 1 ORDER BY created_at DESC
+ALTER TABLE `job_likes`
+    ADD INDEX `idx_user_status_created_at` (`user_id`, `status`, `created_at`),
+    DROP INDEX `idx_user_id`;
+
+ALTER TABLE `job_favorites`
+    ADD INDEX `idx_user_status_created_at` (`user_id`, `status`, `created_at`),
+    DROP INDEX `idx_user_id`;
+
+-- 关注/粉丝列表: WHERE follower_id = ? AND status = 1 / WHERE followed_id = ? AND status = 1
+ALTER TABLE `user_follows`
+    ADD INDEX `idx_follower_status` (`follower_id`, `status`),
+    ADD INDEX `idx_followed_status` (`followed_id`, `status`),
+    DROP INDEX `idx_follower_id`,
+    DROP INDEX `idx_followed_id`;
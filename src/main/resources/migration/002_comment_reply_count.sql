@@ -0,0 +1,15 @@
+-- 父评论子评论数迁移（已有数据库执行，新库直接使用 db.sql）
+-- 渲染父评论和加载更多子评论时不再逐条 COUNT
+USE ideafly;
+
+ALTER TABLE `post_comments`
+    ADD COLUMN `reply_count` INT NOT NULL DEFAULT 0 COMMENT '子评论数 (仅父评论行维护)' AFTER `created_at`;
+
+-- 存量数据初始化子评论数
+UPDATE `post_comments` p
+    JOIN (SELECT `parent_comment_id`, COUNT(*) AS `cnt`
+          FROM `post_comments`
+          WHERE `parent_comment_id` > 0
+          GROUP BY `parent_comment_id`) c ON c.`parent_comment_id` = p.`id`
+SET p.`reply_count` = c.`cnt`
+WHERE p.`parent_comment_id` = 0;
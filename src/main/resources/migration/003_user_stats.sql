@@ -0,0 +1,18 @@
+-- 用户计数表迁移（已有数据库执行，新库直接使用 db.sql）
+-- 作者获赞总数不再按其所有职位 IN 查询后 COUNT
+USE ideafly;
+
+CREATE TABLE IF NOT EXISTS `user_stats` (
+    `user_id` CHAR(36) PRIMARY KEY COMMENT '用户ID (关联用户表)',
+    `likes_received` INT NOT NULL DEFAULT 0 COMMENT '发布的职位获得的有效点赞总数',
+    `updated_at` TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间'
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='用户计数表，点赞和删除职位时增量维护，避免按作者逐条COUNT';
+
+-- 存量数据初始化用户计数
+INSERT INTO `user_stats` (`user_id`, `likes_received`)
+SELECT j.user_id, COUNT(*)
+FROM job_likes l
+         JOIN jobs j ON j.id = l.job_id
+WHERE l.status = 1
+GROUP BY j.user_id
+ON DUPLICATE KEY UPDATE likes_received = VALUES(likes_received);
@@ -0,0 +1,22 @@
+-- 用户关注数/粉丝数迁移（已有数据库执行，新库直接使用 db.sql）
+-- 关注统计不再按用户两次 COUNT，互关数不再拼接关注列表做 IN 查询
+USE ideafly;
+
+ALTER TABLE `user_stats`
+    ADD COLUMN `following_count` INT NOT NULL DEFAULT 0 COMMENT '有效关注数 (该用户关注的人数)' AFTER `likes_received`,
+    ADD COLUMN `followers_count` INT NOT NULL DEFAULT 0 COMMENT '有效粉丝数 (关注该用户的人数)' AFTER `following_count`;
+
+-- 存量数据初始化关注数和粉丝数
+INSERT INTO `user_stats` (`user_id`, `following_count`)
+SELECT follower_id, COUNT(*)
+FROM user_follows
+WHERE status = 1
+GROUP BY follower_id
+ON DUPLICATE KEY UPDATE following_count = VALUES(following_count);
+
+INSERT INTO `user_stats` (`user_id`, `followers_count`)
+SELECT followed_id, COUNT(*)
+FROM user_follows
+WHERE status = 1
+GROUP BY followed_id
+ON DUPLICATE KEY UPDATE followers_count = VALUES(followers_count);
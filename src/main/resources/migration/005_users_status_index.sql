@@ -0,0 +1,6 @@
+-- 用户状态索引迁移（已有数据库执行，新库直接使用 db.sql）
+-- 各节点定时加载已停用用户集合: SELECT id FROM users WHERE status = 0，无索引时每次全表扫描
+USE ideafly;
+
+ALTER TABLE `users`
+    ADD INDEX `idx_status` (`status`);
@@ -0,0 +1,119 @@
+package com.ideafly.utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 游标编解码基准测试：旧版Jackson+Base64与二进制编码对比，模拟一页50条数据
+ * 运行方式：执行main方法
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CursorCodecBenchmark {
+
+    private static final int PAGE_SIZE = 50;
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private Date[] times;
+    private int[] ids;
+    private String[] legacyCursors;
+    private String[] binaryCursors;
+
+    @Param({"false", "true"})
+    public boolean signed;
+
+    @Setup
+    public void setup() throws Exception {
+        CursorUtils.setSigningKey(signed ? "benchmark-secret".getBytes(StandardCharsets.UTF_8) : null);
+        times = new Date[PAGE_SIZE];
+        ids = new int[PAGE_SIZE];
+        legacyCursors = new String[PAGE_SIZE];
+        binaryCursors = new String[PAGE_SIZE];
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            times[i] = new Date(now - i * 1000L);
+            ids[i] = 100000 - i;
+            legacyCursors[i] = legacyEncode(times[i], ids[i]);
+            binaryCursors[i] = CursorUtils.encodeCursor(times[i], ids[i]);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        CursorUtils.setSigningKey(null);
+    }
+
+    @Benchmark
+    public void legacyEncodePage(Blackhole bh) throws Exception {
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            bh.consume(legacyEncode(times[i], ids[i]));
+        }
+    }
+
+    @Benchmark
+    public void binaryEncodePage(Blackhole bh) {
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            bh.consume(CursorUtils.encodeCursor(times[i], ids[i]));
+        }
+    }
+
+    @Benchmark
+    public void legacyDecodePage(Blackhole bh) throws Exception {
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            bh.consume(legacyDecode(legacyCursors[i]));
+        }
+    }
+
+    @Benchmark
+    public void binaryDecodePage(Blackhole bh) {
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            bh.consume(CursorUtils.decode(binaryCursors[i]));
+        }
+    }
+
+    /**
+     * 旧版编码：HashMap -> JSON -> Base64
+     */
+    private static String legacyEncode(Date timestamp, Integer id) throws Exception {
+        Map<String, Object> cursorMap = new HashMap<>();
+        cursorMap.put("timestamp", timestamp.getTime());
+        cursorMap.put("id", id);
+        String json = OBJECT_MAPPER.writeValueAsString(cursorMap);
+        return Base64.getEncoder().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 旧版解码：Base64 -> JSON -> HashMap
+     */
+    private static Map<String, Object> legacyDecode(String cursor) throws Exception {
+        String json = new String(Base64.getDecoder().decode(cursor), StandardCharsets.UTF_8);
+        Map<?, ?> cursorMap = OBJECT_MAPPER.readValue(json, Map.class);
+        Map<String, Object> result = new HashMap<>();
+        result.put("timestamp", new Date(((Number) cursorMap.get("timestamp")).longValue()));
+        result.put("id", ((Number) cursorMap.get("id")).intValue());
+        return result;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(CursorCodecBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
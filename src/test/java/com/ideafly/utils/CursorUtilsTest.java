@@ -0,0 +1,94 @@
+package com.ideafly.utils;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CursorUtilsTest {
+
+    private static final byte[] KEY = "test-secret".getBytes(StandardCharsets.UTF_8);
+
+    @AfterEach
+    void resetKey() {
+        CursorUtils.setSigningKey(null);
+    }
+
+    @Test
+    void roundTripUnsigned() {
+        Date time = new Date(1700000000123L);
+        CursorUtils.Cursor cursor = CursorUtils.decode(CursorUtils.encodeCursor(time, 42));
+        assertNotNull(cursor);
+        assertEquals(time.getTime(), cursor.getTimestamp());
+        assertEquals(42, cursor.getId());
+    }
+
+    @Test
+    void roundTripSigned() {
+        CursorUtils.setSigningKey(KEY);
+        CursorUtils.Cursor cursor = CursorUtils.decode(CursorUtils.encodeCursor(1700000000123L, Integer.MAX_VALUE));
+        assertNotNull(cursor);
+        assertEquals(1700000000123L, cursor.getTimestamp());
+        assertEquals(Integer.MAX_VALUE, cursor.getId());
+    }
+
+    @Test
+    void rejectsTamperedMac() {
+        CursorUtils.setSigningKey(KEY);
+        byte[] bytes = Base64.getUrlDecoder().decode(CursorUtils.encodeCursor(1700000000123L, 42));
+        bytes[bytes.length - 1] ^= 1;
+        assertNull(CursorUtils.decode(Base64.getUrlEncoder().withoutPadding().encodeToString(bytes)));
+    }
+
+    @Test
+    void rejectsTamperedPayload() {
+        CursorUtils.setSigningKey(KEY);
+        byte[] bytes = Base64.getUrlDecoder().decode(CursorUtils.encodeCursor(1700000000123L, 42));
+        bytes[12] ^= 1;
+        assertNull(CursorUtils.decode(Base64.getUrlEncoder().withoutPadding().encodeToString(bytes)));
+    }
+
+    @Test
+    void rejectsUnsignedCursorWhenKeyConfigured() {
+        String unsigned = CursorUtils.encodeCursor(1700000000123L, 42);
+        CursorUtils.setSigningKey(KEY);
+        assertNull(CursorUtils.decode(unsigned));
+    }
+
+    @Test
+    void rejectsSignedCursorWithDifferentKey() {
+        CursorUtils.setSigningKey(KEY);
+        String signed = CursorUtils.encodeCursor(1700000000123L, 42);
+        CursorUtils.setSigningKey("other-secret".getBytes(StandardCharsets.UTF_8));
+        assertNull(CursorUtils.decode(signed));
+    }
+
+    @Test
+    void legacyCursorsOnlyAcceptedWithoutKey() {
+        String json = Base64.getEncoder().encodeToString(
+                "{\"timestamp\":1700000000123,\"id\":42}".getBytes(StandardCharsets.UTF_8));
+        String manual = "42:2023-11-14 22:13:20.123";
+
+        CursorUtils.Cursor cursor = CursorUtils.decode(json);
+        assertNotNull(cursor);
+        assertEquals(1700000000123L, cursor.getTimestamp());
+        assertEquals(42, cursor.getId());
+        assertNotNull(CursorUtils.decode(manual));
+
+        CursorUtils.setSigningKey(KEY);
+        assertNull(CursorUtils.decode(json));
+        assertNull(CursorUtils.decode(manual));
+    }
+
+    @Test
+    void malformedCursorsDecodeToNull() {
+        assertNull(CursorUtils.decode(null));
+        assertNull(CursorUtils.decode(""));
+        assertNull(CursorUtils.decode("not-a-cursor!"));
+        assertNull(CursorUtils.decode("AQ"));
+    }
+}
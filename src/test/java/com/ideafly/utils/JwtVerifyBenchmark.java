@@ -0,0 +1,86 @@
+package com.ideafly.utils;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.security.Key;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * accessToken验证吞吐基准测试
+ * legacy: 每次验证重新解码密钥并创建解析器（改造前的做法）
+ * cachedParser: 复用密钥与解析器，不使用已验签缓存
+ * verifiedCache: 复用密钥与解析器，并命中已验签token缓存
+ * 运行方式：执行main方法
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtVerifyBenchmark {
+
+    // 每次运行生成一次性密钥，不使用配置文件中的真实密钥
+    private String secret;
+    private JwtUtil cachedParserJwtUtil;
+    private JwtUtil verifiedCacheJwtUtil;
+    private String token;
+
+    @Setup
+    public void setup() {
+        secret = Base64.getEncoder().encodeToString(Keys.secretKeyFor(SignatureAlgorithm.HS256).getEncoded());
+        cachedParserJwtUtil = newJwtUtil(0);
+        verifiedCacheJwtUtil = newJwtUtil(10000);
+        token = verifiedCacheJwtUtil.generateToken("6f1c2b4e-8a3d-4f5e-9b7c-1d2e3f4a5b6c", false,
+                Collections.singletonMap(JwtUtil.CLAIM_USERNAME, "benchmark"));
+    }
+
+    private JwtUtil newJwtUtil(int verifiedCacheSize) {
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secretKey", secret);
+        ReflectionTestUtils.setField(jwtUtil, "jwtExpiration", TimeUnit.HOURS.toMillis(1));
+        ReflectionTestUtils.setField(jwtUtil, "refreshExpiration", TimeUnit.HOURS.toMillis(2));
+        ReflectionTestUtils.setField(jwtUtil, "verifiedCacheSize", verifiedCacheSize);
+        jwtUtil.init();
+        return jwtUtil;
+    }
+
+    @Benchmark
+    public Claims legacy() {
+        String processedKey = secret.replace('-', '+').replace('_', '/');
+        Key key = Keys.hmacShaKeyFor(Base64.getDecoder().decode(processedKey));
+        return Jwts.parserBuilder()
+                .setSigningKey(key)
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+
+    @Benchmark
+    public Claims cachedParser() {
+        return cachedParserJwtUtil.parseAccessToken(token);
+    }
+
+    @Benchmark
+    public Claims verifiedCache() {
+        return verifiedCacheJwtUtil.parseAccessToken(token);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(JwtVerifyBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,122 @@
+package com.ideafly.utils;
+
+import com.ideafly.dto.job.CursorResponseDto;
+import com.ideafly.model.interact.JobFavorite;
+import com.ideafly.model.interact.JobLikes;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeysetPaginationTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    private static JobFavorite favorite(int id) {
+        JobFavorite favorite = new JobFavorite();
+        favorite.setId(id);
+        favorite.setJobId(id);
+        favorite.setCreatedAt(BASE.plusMinutes(id));
+        return favorite;
+    }
+
+    private static KeysetPagination<JobFavorite> favorites(String maxCursor, String minCursor) {
+        return KeysetPagination.of(JobFavorite::getCreatedAt, JobFavorite::getId, maxCursor, minCursor, 2);
+    }
+
+    @Test
+    void forwardPageWhollyFilteredStillAdvances() {
+        String cursor = CursorUtils.encodeCursor(BASE.plusMinutes(10), 10);
+        KeysetPagination<JobFavorite> pagination = favorites(cursor, null);
+        List<JobFavorite> rows = pagination.page(Arrays.asList(favorite(9), favorite(8), favorite(7)));
+
+        CursorResponseDto<String> response = pagination.toResponse(Collections.emptyList());
+
+        assertTrue(response.getRecords().isEmpty());
+        assertEquals(pagination.encodeCursor(rows.get(1)), response.getNextMaxCursor());
+        assertNotEquals(cursor, response.getNextMaxCursor());
+        assertTrue(response.getHasMoreHistory());
+        assertEquals(0L, response.getTotal());
+    }
+
+    @Test
+    void forwardLastPageWhollyFilteredEnds() {
+        KeysetPagination<JobFavorite> pagination = favorites(CursorUtils.encodeCursor(BASE.plusMinutes(10), 10), null);
+        pagination.page(Collections.singletonList(favorite(9)));
+
+        CursorResponseDto<String> response = pagination.toResponse(Collections.emptyList());
+
+        assertFalse(response.getHasMoreHistory());
+    }
+
+    @Test
+    void initialPageWhollyFilteredKeepsHistory() {
+        KeysetPagination<JobFavorite> pagination = favorites(null, null);
+        List<JobFavorite> rows = pagination.page(Arrays.asList(favorite(9), favorite(8), favorite(7)));
+
+        CursorResponseDto<String> response = pagination.toResponse(Collections.emptyList());
+
+        assertEquals(pagination.encodeCursor(rows.get(1)), response.getNextMaxCursor());
+        assertEquals(pagination.encodeCursor(rows.get(0)), response.getNextMinCursor());
+        assertTrue(response.getHasMoreHistory());
+        assertFalse(response.getHasMoreNew());
+    }
+
+    @Test
+    void partiallyFilteredPageUsesRawRowsForCursor() {
+        KeysetPagination<JobFavorite> pagination = favorites(null, null);
+        List<JobFavorite> rows = pagination.page(Arrays.asList(favorite(9), favorite(8), favorite(7)));
+        List<String> kept = new ArrayList<>();
+        kept.add(pagination.encodeCursor(rows.get(0)));
+
+        CursorResponseDto<String> response = pagination.toResponse(kept);
+
+        // 最后一条被过滤，历史方向游标仍指向原始页的最后一条
+        assertEquals(pagination.encodeCursor(rows.get(1)), response.getNextMaxCursor());
+        assertEquals(1L, response.getTotal());
+    }
+
+    @Test
+    void emptyResultKeepsRequestCursors() {
+        String cursor = CursorUtils.encodeCursor(BASE, 1);
+        KeysetPagination<JobFavorite> pagination = favorites(cursor, null);
+        pagination.page(Collections.emptyList());
+
+        CursorResponseDto<String> response = pagination.toResponse(Collections.emptyList());
+
+        assertEquals(cursor, response.getNextMaxCursor());
+        assertFalse(response.getHasMoreHistory());
+    }
+
+    @Test
+    void likesBackwardPageWhollyFilteredStillAdvances() {
+        Date base = new Date(1700000000000L);
+        List<JobLikes> rows = new ArrayList<>();
+        for (int id = 11; id <= 13; id++) {
+            JobLikes like = new JobLikes();
+            like.setId(id);
+            like.setJobId(id);
+            like.setCreatedAt(new Date(base.getTime() + id * 1000L));
+            rows.add(like);
+        }
+        String cursor = CursorUtils.encodeCursor(base, 10);
+        KeysetPagination<JobLikes> pagination = KeysetPagination.of(JobLikes::getCreatedAt, JobLikes::getId,
+                null, cursor, 2);
+        List<JobLikes> page = pagination.page(rows);
+
+        CursorResponseDto<String> response = pagination.toResponse(Collections.emptyList());
+
+        // 向新内容方向查询结果反转为时间降序，新内容方向游标为原始页最新的一条
+        assertEquals(12, page.get(0).getId());
+        assertEquals(pagination.encodeCursor(page.get(0)), response.getNextMinCursor());
+        assertNotEquals(cursor, response.getNextMinCursor());
+        assertTrue(response.getHasMoreNew());
+        assertTrue(response.getRecords().isEmpty());
+    }
+}